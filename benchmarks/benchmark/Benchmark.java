@@ -0,0 +1,152 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * Minimal micro-benchmark harness in the spirit of JMH's throughput mode with the gc profiler.
+ * Every benchmark runs a few warmup iterations (to let the JIT settle) followed by measured
+ * iterations of a fixed wall-clock length, and reports:
+ * <ul>
+ * <li>ops/s - operations per second (mean +- standard deviation over the measured iterations)</li>
+ * <li>alloc MB/s - allocation rate of the benchmark thread</li>
+ * <li>B/op - bytes allocated per operation (normalized allocation, like {@code gc.alloc.rate.norm})</li>
+ * </ul>
+ * Iteration count and length can be tuned with the system properties
+ * {@code bench.warmup}, {@code bench.iterations} and {@code bench.millis}.
+ * @author Ido
+ */
+public final class Benchmark {
+    /** Number of warmup iterations (results discarded) */
+    private static final int  WARMUP     = Integer.getInteger("bench.warmup", 3);
+    /** Number of measured iterations */
+    private static final int  ITERATIONS = Integer.getInteger("bench.iterations", 5);
+    /** Length of a single iteration in milliseconds */
+    private static final long MILLIS     = Long.getLong("bench.millis", 1000);
+
+    /** Thread MX bean used to read the per-thread allocation counter */
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** Sink for consumed values so the JIT cannot eliminate the measured code */
+    private static volatile int    sink;
+    /** Reference that is never returned by a benchmark - results are compared against it (like JMH's Blackhole) */
+    private static volatile Object trap = new Object();
+
+    /** Don't let anyone instantiate this class. */
+    private Benchmark() { }
+
+    /**
+     * Result of a single benchmark run.
+     * @param name        benchmark name
+     * @param params      parameters description (e.g. "rays=1000 prims=64 hit=0.5")
+     * @param opsPerSec   mean throughput in operations per second
+     * @param error       standard deviation of the throughput between iterations
+     * @param allocRate   allocation rate in MB/s
+     * @param bytesPerOp  allocated bytes per operation
+     */
+    public record Result(String name, String params, double opsPerSec, double error,
+                         double allocRate, double bytesPerOp) {
+        @Override
+        public String toString() {
+            return String.format("%-40s %-36s %14.1f +- %10.1f ops/s %10.1f MB/s %10.1f B/op",
+                    name, params, opsPerSec, error, allocRate, bytesPerOp);
+        }
+    }
+
+    /**
+     * Runs a benchmark and prints its result line.
+     * @param  name        benchmark name
+     * @param  params      parameters description
+     * @param  opsPerCall  how many logical operations a single call of {@code op} performs
+     *                     (e.g. number of rays cast by a frame)
+     * @param  op          the measured operation; its result is consumed so it cannot be optimized away
+     * @return             the benchmark result
+     */
+    public static Result run(String name, String params, long opsPerCall, Supplier<?> op) {
+        for (int i = 0; i < WARMUP; ++i) iteration(opsPerCall, op);
+
+        double[] opsPerSec = new double[ITERATIONS];
+        long     ops       = 0, bytes = 0, nanos = 0;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            long[] it = iteration(opsPerCall, op);
+            ops   += it[0];
+            nanos += it[1];
+            bytes += it[2];
+            opsPerSec[i] = it[0] * 1e9 / it[1];
+        }
+
+        double mean = 0;
+        for (double v : opsPerSec) mean += v;
+        mean /= ITERATIONS;
+        double variance = 0;
+        for (double v : opsPerSec) variance += (v - mean) * (v - mean);
+        double error = ITERATIONS > 1 ? Math.sqrt(variance / (ITERATIONS - 1)) : 0;
+
+        Result result = new Result(name, params, mean, error,
+                bytes / 1048576.0 / (nanos / 1e9), (double) bytes / ops);
+        System.out.println(result);
+        return result;
+    }
+
+    /**
+     * Runs one iteration of a fixed wall-clock length.
+     * @param  opsPerCall logical operations per call
+     * @param  op         the measured operation
+     * @return            {operations, elapsed nanoseconds, allocated bytes}
+     */
+    private static long[] iteration(long opsPerCall, Supplier<?> op) {
+        long deadline = MILLIS * 1_000_000L;
+        long calls    = 0;
+        int  trapped  = 0;
+        long bytes0   = THREADS.getCurrentThreadAllocatedBytes();
+        long start    = System.nanoTime();
+        long elapsed;
+        do {
+            if (op.get() == trap) ++trapped;
+            ++calls;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < deadline);
+        long bytes = THREADS.getCurrentThreadAllocatedBytes() - bytes0;
+        sink += trapped;
+        return new long[] { calls * opsPerCall, elapsed, bytes };
+    }
+
+    /**
+     * Reads an integer parameter list from a system property (comma separated),
+     * e.g. {@code -Dbench.prims=1,64,1024}, falling back to the given defaults.
+     * @param  property property name
+     * @param  defaults default values
+     * @return          parameter values
+     */
+    public static int[] intParams(String property, int... defaults) {
+        String value = System.getProperty(property);
+        if (value == null) return defaults;
+        String[] parts  = value.split(",");
+        int[]    result = new int[parts.length];
+        for (int i = 0; i < parts.length; ++i) result[i] = Integer.parseInt(parts[i].trim());
+        return result;
+    }
+
+    /**
+     * Reads a real-number parameter list from a system property (comma separated),
+     * e.g. {@code -Dbench.hit=0,0.5,1}, falling back to the given defaults.
+     * @param  property property name
+     * @param  defaults default values
+     * @return          parameter values
+     */
+    public static double[] doubleParams(String property, double... defaults) {
+        String value = System.getProperty(property);
+        if (value == null) return defaults;
+        String[] parts  = value.split(",");
+        double[] result = new double[parts.length];
+        for (int i = 0; i < parts.length; ++i) result[i] = Double.parseDouble(parts[i].trim());
+        return result;
+    }
+
+    /**
+     * Consumes an int value so the JIT cannot treat the computation producing it as dead code.
+     * @param value the value to consume
+     */
+    public static void consume(int value) { sink += value; }
+}
@@ -0,0 +1,43 @@
+package benchmark;
+
+import geometries.IntersectionBenchmark;
+import lighting.LightingBenchmark;
+import primitives.VectorBenchmark;
+import renderer.CameraBenchmark;
+
+/**
+ * Entry point of the benchmark suite.
+ * Usage: {@code java benchmark.RunAll [primitives|geometries|renderer|lighting ...]} - with no
+ * arguments every group is run. Parameters are overridden with system properties, e.g.
+ * {@code -Dbench.rays=4096 -Dbench.prims=1,1024 -Dbench.hit=0.25 -Dbench.resolution=512}.
+ * Run the JVM with a fixed heap ({@code -Xms2g -Xmx2g}) to keep GC noise comparable
+ * between runs.
+ * @author Ido
+ */
+public final class RunAll {
+    /** Don't let anyone instantiate this class. */
+    private RunAll() { }
+
+    /**
+     * Runs the selected benchmark groups.
+     * @param args names of the groups to run (all groups if empty)
+     */
+    public static void main(String[] args) {
+        if (selected(args, "primitives")) VectorBenchmark.run();
+        if (selected(args, "geometries")) IntersectionBenchmark.run();
+        if (selected(args, "renderer")) CameraBenchmark.run();
+        if (selected(args, "lighting")) LightingBenchmark.run();
+    }
+
+    /**
+     * Checks whether a benchmark group was selected on the command line.
+     * @param  args  command line arguments
+     * @param  group group name
+     * @return       true if no group was given or the group is among the arguments
+     */
+    private static boolean selected(String[] args, String group) {
+        if (args.length == 0) return true;
+        for (String arg : args) if (arg.equals(group)) return true;
+        return false;
+    }
+}
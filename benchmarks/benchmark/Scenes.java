@@ -0,0 +1,142 @@
+package benchmark;
+
+import geometries.*;
+import primitives.*;
+
+import java.util.Random;
+
+/**
+ * Parameterized scene and ray generators for the benchmarks.
+ * All primitives are placed in front of the origin (negative Z), inside a box of
+ * {@link #EXTENT} units, so that a ray aimed at a primitive's center is a hit and a ray
+ * aimed towards positive Z is a guaranteed miss. This way the hit ratio of a ray batch is
+ * controlled exactly by the generator. A fixed seed keeps every run reproducible.
+ * @author Ido
+ */
+public final class Scenes {
+    /** Half size of the box the primitives are scattered in */
+    public static final double EXTENT = 50;
+    /** Seed of the pseudo-random generator */
+    private static final long  SEED   = 9115;
+
+    /** Geometry types the benchmarks are parameterized by */
+    public enum Type { SPHERE, PLANE, TRIANGLE, POLYGON, TUBE, CYLINDER }
+
+    /** Don't let anyone instantiate this class. */
+    private Scenes() { }
+
+    /**
+     * Creates a single primitive of the given type centered (roughly) at the given point.
+     * @param  type   geometry type
+     * @param  center primitive center, must have a negative Z coordinate
+     * @param  size   primitive size (radius or half edge)
+     * @return        the primitive
+     */
+    public static Intersectable primitive(Type type, Point center, double size) {
+        return switch (type) {
+            case SPHERE -> new Sphere(center, size);
+            case PLANE -> new Plane(center, new Vector(0, 0.1, 1));
+            case TRIANGLE -> new Triangle(center.add(new Vector(-size, -size, 0)),
+                                          center.add(new Vector(size, -size, 0)),
+                                          center.add(new Vector(0, size, 0)));
+            case POLYGON -> new Polygon(center.add(new Vector(-size, -size, 0)),
+                                        center.add(new Vector(size, -size, 0)),
+                                        center.add(new Vector(size, size, 0)),
+                                        center.add(new Vector(-size, size, 0)));
+            case TUBE -> new Tube(new Ray(center, new Vector(0, 1, 0)), size);
+            case CYLINDER -> new Cylinder(new Ray(center.add(new Vector(0, -size, 0)), new Vector(0, 1, 0)),
+                                          size, 2 * size);
+        };
+    }
+
+    /**
+     * Creates the centers of the scene primitives.
+     * @param  count number of primitives
+     * @return       the centers, all with a negative Z coordinate
+     */
+    public static Point[] centers(int count) {
+        Random  random  = new Random(SEED);
+        Point[] centers = new Point[count];
+        for (int i = 0; i < count; ++i)
+            centers[i] = new Point(random.nextDouble(-EXTENT, EXTENT),
+                                   random.nextDouble(-EXTENT, EXTENT),
+                                   -EXTENT - random.nextDouble(2 * EXTENT));
+        return centers;
+    }
+
+    /**
+     * Creates a scene of primitives of a single type.
+     * @param  type  geometry type
+     * @param  count number of primitives
+     * @return       the scene
+     */
+    public static Geometries scene(Type type, int count) {
+        Geometries scene = new Geometries();
+        for (Point center : centers(count)) scene.add(primitive(type, center, 1));
+        return scene;
+    }
+
+    /**
+     * Creates a scene of primitives of a single type in the compact (float) storage.
+     * The primitives are the same as those of {@link #scene(Type, int)}.
+     * @param  type  geometry type
+     * @param  count number of primitives
+     * @return       the scene, null if the type has no compact storage
+     */
+    public static Intersectable compactScene(Type type, int count) {
+        return switch (type) {
+            case SPHERE -> {
+                CompactSpheres spheres = new CompactSpheres(count);
+                for (Point center : centers(count)) spheres.add(center, 1);
+                yield spheres;
+            }
+            case TRIANGLE -> {
+                CompactTriangles triangles = new CompactTriangles(count);
+                for (Point center : centers(count))
+                    triangles.add(center.add(new Vector(-1, -1, 0)), center.add(new Vector(1, -1, 0)),
+                                  center.add(new Vector(0, 1, 0)));
+                yield triangles;
+            }
+            default -> null;
+        };
+    }
+
+    /**
+     * Creates a scene mixing all bounded geometry types (spheres, triangles, polygons, cylinders).
+     * @param  count number of primitives
+     * @return       the scene
+     */
+    public static Geometries mixedScene(int count) {
+        Type[]     types  = { Type.SPHERE, Type.TRIANGLE, Type.POLYGON, Type.CYLINDER };
+        Geometries scene  = new Geometries();
+        Point[]    points = centers(count);
+        for (int i = 0; i < count; ++i) scene.add(primitive(types[i % types.length], points[i], 1));
+        return scene;
+    }
+
+    /**
+     * Creates a batch of rays from the origin with the requested hit ratio: the first
+     * {@code hitRatio} part of the rays is aimed at primitive centers, the rest point away
+     * from the scene. The batch is shuffled so hits and misses are interleaved.
+     * @param  count    number of rays
+     * @param  hitRatio ratio of rays that hit some primitive [0..1]
+     * @param  centers  primitive centers to aim at
+     * @return          the rays
+     */
+    public static Ray[] rays(int count, double hitRatio, Point[] centers) {
+        Random random = new Random(SEED + 1);
+        Ray[]  rays   = new Ray[count];
+        int    hits   = (int) Math.round(count * hitRatio);
+        for (int i = 0; i < count; ++i)
+            rays[i] = i < hits
+                    ? new Ray(Point.ZERO, centers[random.nextInt(centers.length)].subtract(Point.ZERO))
+                    : new Ray(Point.ZERO, new Vector(random.nextDouble(-1, 1), random.nextDouble(-1, 1), 1));
+        for (int i = count - 1; i > 0; --i) {
+            int j = random.nextInt(i + 1);
+            Ray tmp = rays[i];
+            rays[i] = rays[j];
+            rays[j] = tmp;
+        }
+        return rays;
+    }
+}
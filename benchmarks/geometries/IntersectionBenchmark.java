@@ -0,0 +1,57 @@
+package geometries;
+
+import benchmark.Benchmark;
+import benchmark.Scenes;
+import primitives.Point;
+import primitives.Ray;
+
+/**
+ * Benchmarks of {@code findIntersections} for every geometry type, parameterized by the
+ * number of rays in a batch, the number of primitives in the scene and the hit ratio.
+ * One operation is one ray intersected against the whole scene.
+ * @author Ido
+ */
+public final class IntersectionBenchmark {
+    /** Don't let anyone instantiate this class. */
+    private IntersectionBenchmark() { }
+
+    /** Runs the intersection benchmarks for every geometry type and parameter combination. */
+    public static void run() {
+        int[]    rayCounts  = Benchmark.intParams("bench.rays", 1024);
+        int[]    primCounts = Benchmark.intParams("bench.prims", 1, 64);
+        double[] hitRatios  = Benchmark.doubleParams("bench.hit", 0, 0.5, 1);
+
+        for (Scenes.Type type : Scenes.Type.values())
+            for (int prims : primCounts) {
+                Point[]    centers = Scenes.centers(prims);
+                Geometries scene   = Scenes.scene(type, prims);
+                Intersectable compact = Scenes.compactScene(type, prims);
+                for (int rays : rayCounts)
+                    for (double hit : hitRatios) {
+                        Ray[] batch = Scenes.rays(rays, hit, centers);
+                        Benchmark.run(type + ".findIntersections",
+                                "rays=" + rays + " prims=" + prims + " hit=" + hit, rays,
+                                () -> castAll(scene, batch));
+                        if (compact != null)
+                            Benchmark.run(type + ".compact.findIntersections",
+                                    "rays=" + rays + " prims=" + prims + " hit=" + hit, rays,
+                                    () -> castAll(compact, batch));
+                    }
+            }
+    }
+
+    /**
+     * Intersects a batch of rays with a scene.
+     * @param  scene the scene
+     * @param  rays  the rays
+     * @return       total number of intersection points found (boxed, so it is consumed)
+     */
+    static Integer castAll(Intersectable scene, Ray[] rays) {
+        int count = 0;
+        for (Ray ray : rays) {
+            var points = scene.findIntersections(ray);
+            if (points != null) count += points.size();
+        }
+        return count;
+    }
+}
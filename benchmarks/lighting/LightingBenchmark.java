@@ -0,0 +1,69 @@
+package lighting;
+
+import benchmark.Benchmark;
+import geometries.Geometries;
+import geometries.Plane;
+import primitives.*;
+import renderer.SimpleRayTracer;
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmarks of direct lighting: rays hitting a lit floor under a grid of point lights,
+ * parameterized by the number of lights, with a few lights sampled from the light hierarchy
+ * per hit. One operation is one traced ray.
+ * @author Ido
+ */
+public final class LightingBenchmark {
+    /** Don't let anyone instantiate this class. */
+    private LightingBenchmark() { }
+
+    /** Runs the lighting benchmarks for every parameter combination. */
+    public static void run() {
+        int[] lightCounts = Benchmark.intParams("bench.lights", 10, 10000);
+        int[] samples     = Benchmark.intParams("bench.lightSamples", 4);
+        int   rayCount    = Benchmark.intParams("bench.rays", 1024)[0];
+
+        Random random = new Random(17);
+        Ray[]  rays   = new Ray[rayCount];
+        for (int k = 0; k < rayCount; ++k)
+            rays[k] = new Ray(new Point(random.nextDouble(-50, 50), random.nextDouble(-50, 50), 10), new Vector(0, 0, -1));
+
+        for (int lights : lightCounts)
+            for (int sampleCount : samples) {
+                SimpleRayTracer tracer = new SimpleRayTracer(scene(lights)).setLightSamples(sampleCount);
+                Benchmark.run("SimpleRayTracer.lights", "lights=" + lights + " samples=" + sampleCount, rayCount,
+                        () -> traceAll(tracer, rays));
+            }
+    }
+
+    /**
+     * Creates a floor under a grid of point lights.
+     * @param  count number of lights
+     * @return       the scene
+     */
+    private static Scene scene(int count) {
+        int               side   = (int) Math.ceil(Math.sqrt(count));
+        List<LightSource> lights = new ArrayList<>(count);
+        for (int k = 0; k < count; ++k)
+            lights.add(new PointLight(new Color(100, 100, 100), new Point(100.0 * (k % side) / side - 50,
+                    100.0 * (k / side) / side - 50, 5)).setKq(0.1));
+        return new Scene("lights").setLights(lights).setGeometries(new Geometries(
+                new Plane(Point.ZERO, new Vector(0, 0, 1)).setMaterial(new Material().setKD(0.5))));
+    }
+
+    /**
+     * Traces a batch of rays.
+     * @param  tracer the tracer
+     * @param  rays   the rays
+     * @return        sum of the red components (boxed, so it is consumed)
+     */
+    private static Double traceAll(SimpleRayTracer tracer, Ray[] rays) {
+        double sum = 0;
+        for (Ray ray : rays) sum += tracer.traceRay(ray).getRed();
+        return sum;
+    }
+}
@@ -0,0 +1,33 @@
+package primitives;
+
+import benchmark.Benchmark;
+
+/**
+ * Benchmarks of the basic vector operations every intersection is built from.
+ * @author Ido
+ */
+public final class VectorBenchmark {
+    /** Number of vectors in the operand pool (cycled through to avoid constant folding) */
+    private static final int POOL = 1024;
+
+    /** Don't let anyone instantiate this class. */
+    private VectorBenchmark() { }
+
+    /** Runs all vector benchmarks. */
+    public static void run() {
+        Vector[] pool = new Vector[POOL];
+        for (int i = 0; i < POOL; ++i) pool[i] = new Vector(i + 1, 2 * i - 0.5, 3 - i * 0.25);
+
+        int[] index = { 0 };
+        Benchmark.run("Vector.normalize", "", 1, () -> pool[index[0]++ & (POOL - 1)].normalize());
+        Benchmark.run("Vector.add", "", 1, () -> pool[index[0]++ & (POOL - 1)].add(pool[index[0] & (POOL - 1)]));
+        Benchmark.run("Vector.crossProduct", "", 1,
+                () -> pool[index[0]++ & (POOL - 1)].crossProduct(pool[(index[0] + 7) & (POOL - 1)]));
+        Benchmark.run("Vector.dotProduct", "", 1, () -> {
+            Benchmark.consume((int) pool[index[0]++ & (POOL - 1)].dotProduct(pool[index[0] & (POOL - 1)]));
+            return null;
+        });
+        Benchmark.run("Point.subtract", "", 1,
+                () -> ((Point) pool[index[0]++ & (POOL - 1)]).subtract(Point.ZERO));
+    }
+}
@@ -0,0 +1,131 @@
+package renderer;
+
+import benchmark.Benchmark;
+import benchmark.Scenes;
+import geometries.BoundingVolumeHierarchy;
+import geometries.Geometries;
+import geometries.Geometry;
+import geometries.Intersectable;
+import lighting.PointLight;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point;
+import primitives.Vector;
+import scene.Scene;
+
+import java.util.List;
+
+/**
+ * Benchmarks of the camera: primary ray construction alone, whole-frame rendering
+ * (a primary ray through every pixel, intersected with a mixed scene), and shading the
+ * frame pixel by pixel or by the {@link WavefrontRenderer} (with and without sorting the
+ * secondary rays).
+ * One operation is one pixel.
+ * @author Ido
+ */
+public final class CameraBenchmark {
+    /** Don't let anyone instantiate this class. */
+    private CameraBenchmark() { }
+
+    /** Runs the camera benchmarks for every parameter combination. */
+    public static void run() {
+        int[] resolutions = Benchmark.intParams("bench.resolution", 64, 256);
+        int[] primCounts  = Benchmark.intParams("bench.prims", 1, 64);
+
+        Camera camera = Camera.getBuilder()
+                .setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVpSize(2 * Scenes.EXTENT, 2 * Scenes.EXTENT)
+                .setVpDistance(Scenes.EXTENT)
+                .build();
+
+        for (int n : resolutions) {
+            Benchmark.run("Camera.constructRay", "resolution=" + n + "x" + n, (long) n * n,
+                    () -> constructAll(camera, n));
+            for (int prims : primCounts) {
+                Geometries scene = Scenes.mixedScene(prims);
+                Benchmark.run("Camera.frame", "resolution=" + n + "x" + n + " prims=" + prims, (long) n * n,
+                        () -> frame(camera, scene, n));
+
+                SimpleRayTracer   tracer    = tracer(scene);
+                Camera            shaded    = Camera.getBuilder().setLocation(Point.ZERO)
+                        .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                        .setVpSize(2 * Scenes.EXTENT, 2 * Scenes.EXTENT).setVpDistance(Scenes.EXTENT)
+                        .setResolution(n, n).setRayTracer(tracer).build();
+                WavefrontRenderer wavefront = new WavefrontRenderer(shaded, tracer);
+                FrameBuffer       buffer    = new FrameBuffer(n, n);
+                Benchmark.run("Camera.shade", "resolution=" + n + "x" + n + " prims=" + prims, (long) n * n,
+                        () -> shade(shaded, tracer, buffer, n));
+                Benchmark.run("WavefrontRenderer.render", "resolution=" + n + "x" + n + " prims=" + prims, (long) n * n,
+                        () -> {
+                            wavefront.render(buffer);
+                            return buffer;
+                        });
+                WavefrontRenderer unsorted = new WavefrontRenderer(shaded, tracer).setRaySorting(false);
+                Benchmark.run("WavefrontRenderer.unsorted", "resolution=" + n + "x" + n + " prims=" + prims,
+                        (long) n * n, () -> {
+                            unsorted.render(buffer);
+                            return buffer;
+                        });
+            }
+        }
+    }
+
+    /**
+     * Constructs the rays through all the pixels of an n×n view plane.
+     * @param  camera the camera
+     * @param  n      resolution
+     * @return        the last ray
+     */
+    private static Object constructAll(Camera camera, int n) {
+        Object last = null;
+        for (int i = 0; i < n; ++i)
+            for (int j = 0; j < n; ++j) last = camera.constructRay(n, n, j, i);
+        return last;
+    }
+
+    /**
+     * A tracer of a scene of geometries - half of them mirrors - lit by a point light, with
+     * the geometries in a bounding volume hierarchy.
+     * @param  scene the geometries
+     * @return       the tracer
+     */
+    private static SimpleRayTracer tracer(Geometries scene) {
+        List<Intersectable> geometries = scene.getGeometries();
+        for (int k = 0; k < geometries.size(); ++k)
+            if (geometries.get(k) instanceof Geometry geometry)
+                geometry.setMaterial(new Material().setKD(0.5).setKS(0.3).setShininess(10).setKR(k % 2 == 0 ? 0.5 : 0));
+        return new SimpleRayTracer(new Scene("benchmark")
+                .setGeometries(new Geometries(BoundingVolumeHierarchy.build(scene)))
+                .setLights(List.of(new PointLight(new Color(200, 200, 200), new Point(0, 0, Scenes.EXTENT)))));
+    }
+
+    /**
+     * Shades a whole n×n frame pixel by pixel.
+     * @param  camera the camera
+     * @param  tracer the tracer
+     * @param  buffer the frame buffer
+     * @param  n      resolution
+     * @return        the frame buffer
+     */
+    private static FrameBuffer shade(Camera camera, SimpleRayTracer tracer, FrameBuffer buffer, int n) {
+        for (int i = 0; i < n; ++i)
+            for (int j = 0; j < n; ++j) buffer.add(j, i, tracer.traceRay(camera.constructRay(n, n, j, i)));
+        return buffer;
+    }
+
+    /**
+     * Renders the primary visibility of a whole n×n frame.
+     * @param  camera the camera
+     * @param  scene  the scene
+     * @param  n      resolution
+     * @return        number of pixels covered by some geometry (boxed, so it is consumed)
+     */
+    private static Integer frame(Camera camera, Geometries scene, int n) {
+        int covered = 0;
+        for (int i = 0; i < n; ++i)
+            for (int j = 0; j < n; ++j)
+                if (scene.findIntersections(camera.constructRay(n, n, j, i)) != null) ++covered;
+        return covered;
+    }
+}
@@ -0,0 +1,69 @@
+package geometries;
+
+import primitives.Point;
+
+/**
+ * Axis-aligned bounding box of a geometry.
+ * All instances are immutable.
+ * @param  minX minimal x
+ * @param  minY minimal y
+ * @param  minZ minimal z
+ * @param  maxX maximal x
+ * @param  maxY maximal y
+ * @param  maxZ maximal z
+ * @author      Ido
+ */
+public record BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+    /**
+     * Canonical constructor - the minimal corner must not exceed the maximal corner.
+     * @throws IllegalArgumentException for an inverted box
+     */
+    public BoundingBox {
+        if (minX > maxX || minY > maxY || minZ > maxZ)
+            throw new IllegalArgumentException("Bounding box minimum cannot exceed its maximum");
+    }
+
+    /**
+     * The smallest box holding all the points.
+     * @param  points the points (at least one)
+     * @return        the box
+     */
+    public static BoundingBox of(Point... points) {
+        if (points.length == 0) throw new IllegalArgumentException("A bounding box needs at least one point");
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (Point p : points) {
+            minX = Math.min(minX, p.getX());
+            minY = Math.min(minY, p.getY());
+            minZ = Math.min(minZ, p.getZ());
+            maxX = Math.max(maxX, p.getX());
+            maxY = Math.max(maxY, p.getY());
+            maxZ = Math.max(maxZ, p.getZ());
+        }
+        return new BoundingBox(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * The smallest box holding both boxes.
+     * @param  other the other box
+     * @return       the union box
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY), Math.min(minZ, other.minZ),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY), Math.max(maxZ, other.maxZ));
+    }
+
+    /**
+     * Center of the box along an axis.
+     * @param  axis 0 for x, 1 for y, 2 for z
+     * @return      the center coordinate
+     */
+    public double center(int axis) {
+        return switch (axis) {
+            case 0 -> (minX + maxX) / 2;
+            case 1 -> (minY + maxY) / 2;
+            case 2 -> (minZ + maxZ) / 2;
+            default -> throw new IllegalArgumentException("Axis must be 0, 1 or 2");
+        };
+    }
+}
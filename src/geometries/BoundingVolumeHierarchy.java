@@ -0,0 +1,555 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import renderer.RenderEvents;
+import renderer.RenderStats;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * Bounding volume hierarchy over the geometries of a scene: a binary tree of axis-aligned
+ * boxes, so a ray is tested only against the geometries whose boxes it passes through.
+ *
+ * <p>The tree is kept in flat arrays rather than node objects - 6 doubles of box bounds and
+ * 2 ints per node, nodes in depth-first order (the left child follows its parent, the parent
+ * holds the index of the right child) - so it can be written to a file as is and
+ * memory-mapped back: {@link #cached(Geometries, Path)} keeps the built hierarchy in a cache
+ * directory, named by a SHA-256 hash of the geometry boxes, and a later run over the same
+ * geometries traverses the mapped file directly, without building or copying anything.
+ * (The tree depends on nothing but the boxes, so the boxes are the right cache key.)</p>
+ *
+ * <p>Unbounded geometries (planes, tubes) have no box; they are kept aside and tested by
+ * every ray.</p>
+ *
+ * <p>{@link #cull(Predicate)} gives a view of the tree through a volume - the frustum of a
+ * tile of primary rays - that shares the arrays and skips the subtrees out of the volume, so
+ * they are tested once for the volume instead of once per ray.</p>
+ * @author Ido
+ */
+public class BoundingVolumeHierarchy implements Intersectable {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** Maximal geometries in a leaf */
+    private static final int LEAF_SIZE    = 4;
+    /** Cache file magic number - "RBVH" in ASCII */
+    private static final int MAGIC        = 0x52425648;
+    /** Cache file format version */
+    private static final int VERSION      = 1;
+    /** Cache file header bytes: magic, version, nodes, geometries, unbounded, padding, hash */
+    private static final int HEADER_BYTES = 6 * Integer.BYTES + 32;
+
+    /** The geometries, indexed by the tree */
+    private final Intersectable[]     primitives;
+    /** Box bounds of the nodes: minX, minY, minZ, maxX, maxY, maxZ */
+    private final transient DoubleBuffer bounds;
+    /** Nodes: right child index and 0 for inner nodes, first index in the order and count for leaves */
+    private final transient IntBuffer    nodes;
+    /** Indices of the bounded geometries, in leaf order */
+    private final transient IntBuffer    order;
+    /** Indices of the unbounded geometries */
+    private final transient IntBuffer    unbounded;
+    /** Number of nodes */
+    private final transient int          nodeCount;
+    /** Whether the tree was loaded from the cache */
+    private final transient boolean      fromCache;
+    /** Nodes skipped by the traversal (by a {@link #cull(Predicate)} view), null for none */
+    private final transient boolean[]    culled;
+
+    /**
+     * Creates a hierarchy over built or loaded arrays.
+     * @param primitives the geometries
+     * @param bounds     node bounds
+     * @param nodes      node records
+     * @param order      bounded geometries in leaf order
+     * @param unbounded  unbounded geometries
+     * @param fromCache  whether the arrays were loaded from the cache
+     */
+    private BoundingVolumeHierarchy(List<Intersectable> primitives, DoubleBuffer bounds, IntBuffer nodes,
+                                    IntBuffer order, IntBuffer unbounded, boolean fromCache) {
+        this.primitives = primitives.toArray(new Intersectable[0]);
+        this.bounds     = bounds;
+        this.nodes      = nodes;
+        this.order      = order;
+        this.unbounded  = unbounded;
+        this.nodeCount  = nodes.limit() / 2;
+        this.fromCache  = fromCache;
+        this.culled     = null;
+    }
+
+    /**
+     * Creates a view of a hierarchy that skips some of its nodes.
+     * @param tree   the hierarchy
+     * @param culled nodes to skip
+     */
+    private BoundingVolumeHierarchy(BoundingVolumeHierarchy tree, boolean[] culled) {
+        this.primitives = tree.primitives;
+        this.bounds     = tree.bounds;
+        this.nodes      = tree.nodes;
+        this.order      = tree.order;
+        this.unbounded  = tree.unbounded;
+        this.nodeCount  = tree.nodeCount;
+        this.fromCache  = tree.fromCache;
+        this.culled     = culled;
+    }
+
+    /**
+     * Builds a hierarchy over the geometries (nested aggregates are flattened).
+     * @param  geometries the geometries
+     * @return            the hierarchy
+     */
+    public static BoundingVolumeHierarchy build(Geometries geometries) {
+        var event = new RenderEvents.AccelerationBuild();
+        event.begin();
+        Boxes boxes = new Boxes(geometries);
+        BoundingVolumeHierarchy bvh = new Builder(boxes).build();
+        report(event, bvh);
+        return bvh;
+    }
+
+    /**
+     * Loads the hierarchy of the geometries from the cache directory - or builds it and stores
+     * it there, when it is missing or stale.
+     * @param  geometries the geometries
+     * @param  directory  the cache directory (created if missing)
+     * @return            the hierarchy
+     * @throws IOException if the cache directory cannot be used
+     */
+    public static BoundingVolumeHierarchy cached(Geometries geometries, Path directory) throws IOException {
+        var event = new RenderEvents.AccelerationBuild();
+        event.begin();
+        Boxes  boxes = new Boxes(geometries);
+        byte[] hash  = boxes.hash();
+        Path   file  = directory.resolve("bvh-" + HexFormat.of().formatHex(hash) + ".bin");
+
+        BoundingVolumeHierarchy bvh = Files.isRegularFile(file) ? load(file, boxes, hash) : null;
+        if (bvh == null) {
+            bvh = new Builder(boxes).build();
+            Files.createDirectories(directory);
+            bvh.store(file, hash);
+        }
+        report(event, bvh);
+        return bvh;
+    }
+
+    /**
+     * Reports the build to the Flight Recorder.
+     * @param event the event
+     * @param bvh   the built hierarchy
+     */
+    private static void report(RenderEvents.AccelerationBuild event, BoundingVolumeHierarchy bvh) {
+        if (event.shouldCommit()) {
+            event.primitives = bvh.primitives.length;
+            event.nodes      = bvh.nodeCount;
+            event.cached     = bvh.fromCache;
+            event.commit();
+        }
+    }
+
+    /** @return number of tree nodes */
+    public int getNodeCount() { return nodeCount; }
+
+    /** @return true if the tree was memory-mapped from the cache instead of being built */
+    public boolean isFromCache() { return fromCache; }
+
+    /** The root box - null if some geometry is unbounded (or there are no geometries). */
+    @Override
+    public BoundingBox getBoundingBox() {
+        if (nodeCount == 0 || unbounded.limit() > 0) return null;
+        return new BoundingBox(bounds.get(0), bounds.get(1), bounds.get(2),
+                bounds.get(3), bounds.get(4), bounds.get(5));
+    }
+
+    /**
+     * A view of the hierarchy through a volume: the traversal of the view skips the nodes
+     * whose boxes are out of the volume, the rest of the tree is shared. The view is for rays
+     * that stay in the volume - a ray out of it may miss geometries it hits.
+     * @param  volume tells whether a box may be in the volume (false only when it surely is not)
+     * @return        the view, this hierarchy if every leaf box may be in the volume
+     */
+    public BoundingVolumeHierarchy cull(Predicate<BoundingBox> volume) {
+        if (nodeCount == 0) return this;
+        boolean[] out   = new boolean[nodeCount];
+        boolean   any   = false;
+        int[]     stack = new int[64];
+        int       top   = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top], b = 6 * node;
+            if (!volume.test(new BoundingBox(bounds.get(b), bounds.get(b + 1), bounds.get(b + 2),
+                    bounds.get(b + 3), bounds.get(b + 4), bounds.get(b + 5)))) {
+                out[node] = any = true;
+            } else if (nodes.get(2 * node + 1) == 0) {
+                stack[top++] = nodes.get(2 * node); // right child
+                stack[top++] = node + 1;            // left child
+            }
+        }
+        return any ? new BoundingVolumeHierarchy(this, out) : this;
+    }
+
+    @Override
+    public List<Point> findIntersections(Ray ray) {
+        return traverse(ray, Intersectable::findIntersections);
+    }
+
+    @Override
+    public List<GeoPoint> findGeoIntersections(Ray ray) {
+        return traverse(ray, Intersectable::findGeoIntersections);
+    }
+
+    /**
+     * Runs an intersection query on the unbounded geometries and on the geometries of the
+     * leaves whose boxes the ray passes through, and joins the results.
+     * @param  <T>   type of the intersections
+     * @param  ray   the ray
+     * @param  query the query of a single geometry
+     * @return       the intersections, null if there are none
+     */
+    private <T> List<T> traverse(Ray ray, BiFunction<Intersectable, Ray, List<T>> query) {
+        List<T> result = null;
+        for (int k = 0; k < unbounded.limit(); ++k)
+            result = collect(primitives[unbounded.get(k)], ray, query, result);
+        if (nodeCount == 0) return result;
+
+        Point  head = ray.getPoint(0);
+        Vector dir  = ray.getDir();
+        double ox   = head.getX(), oy = head.getY(), oz = head.getZ();
+        double ix   = 1 / dir.getX(), iy = 1 / dir.getY(), iz = 1 / dir.getZ();
+
+        int[] stack = new int[64];
+        int   top   = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (culled != null && culled[node]) continue;
+            if (RenderStats.ENABLED) RenderStats.countBoxTest();
+            if (!hitsBox(node, ox, oy, oz, ix, iy, iz)) continue;
+            int first = nodes.get(2 * node), count = nodes.get(2 * node + 1);
+            if (count > 0) {
+                for (int k = first; k < first + count; ++k)
+                    result = collect(primitives[order.get(k)], ray, query, result);
+            } else {
+                stack[top++] = first;    // right child
+                stack[top++] = node + 1; // left child
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Intersects a geometry and adds its intersections to the result.
+     * @param  <T>      type of the intersections
+     * @param  geometry the geometry
+     * @param  ray      the ray
+     * @param  query    the query of a single geometry
+     * @param  result   the intersections so far (null for none)
+     * @return          the intersections
+     */
+    private static <T> List<T> collect(Intersectable geometry, Ray ray,
+                                       BiFunction<Intersectable, Ray, List<T>> query, List<T> result) {
+        boolean counted = RenderStats.ENABLED && !Geometries.countsItself(geometry);
+        if (counted) RenderStats.countTest(geometry);
+        List<T> points = query.apply(geometry, ray);
+        if (points == null) return result;
+        if (counted) RenderStats.countHits(geometry, points.size());
+        if (result == null) result = new LinkedList<>();
+        result.addAll(points);
+        return result;
+    }
+
+    /**
+     * Slab test of the ray against a node box (only in front of the ray head).
+     * @param  node the node
+     * @param  ox   ray head x
+     * @param  oy   ray head y
+     * @param  oz   ray head z
+     * @param  ix   inverse of the direction x
+     * @param  iy   inverse of the direction y
+     * @param  iz   inverse of the direction z
+     * @return      true if the ray passes through the box
+     */
+    private boolean hitsBox(int node, double ox, double oy, double oz, double ix, double iy, double iz) {
+        int    b    = 6 * node;
+        double tMin = 0, tMax = Double.POSITIVE_INFINITY;
+        // a NaN (0 * infinity, ray in the box plane) fails both comparisons and is ignored
+        double t1 = (bounds.get(b) - ox) * ix, t2 = (bounds.get(b + 3) - ox) * ix;
+        if (t1 > t2) { double t = t1; t1 = t2; t2 = t; }
+        if (t1 > tMin) tMin = t1;
+        if (t2 < tMax) tMax = t2;
+        t1 = (bounds.get(b + 1) - oy) * iy;
+        t2 = (bounds.get(b + 4) - oy) * iy;
+        if (t1 > t2) { double t = t1; t1 = t2; t2 = t; }
+        if (t1 > tMin) tMin = t1;
+        if (t2 < tMax) tMax = t2;
+        t1 = (bounds.get(b + 2) - oz) * iz;
+        t2 = (bounds.get(b + 5) - oz) * iz;
+        if (t1 > t2) { double t = t1; t1 = t2; t2 = t; }
+        if (t1 > tMin) tMin = t1;
+        if (t2 < tMax) tMax = t2;
+        return tMin <= tMax;
+    }
+
+    // ************************* Cache file *************************
+
+    /**
+     * Writes the tree to a cache file (through a temporary file, so readers never see a
+     * partial file).
+     * @param  file the cache file
+     * @param  hash the geometry boxes hash
+     * @throws IOException if writing fails
+     */
+    private void store(Path file, byte[] hash) throws IOException {
+        int size = HEADER_BYTES + nodeCount * (6 * Double.BYTES + 2 * Integer.BYTES)
+                + (order.limit() + unbounded.limit()) * Integer.BYTES;
+        ByteBuffer out = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).putInt(nodeCount).putInt(primitives.length)
+           .putInt(unbounded.limit()).putInt(0).put(hash);
+        out.asDoubleBuffer().put(bounds.duplicate().rewind());
+        out.position(out.position() + bounds.limit() * Double.BYTES);
+        out.asIntBuffer().put(nodes.duplicate().rewind()).put(order.duplicate().rewind())
+           .put(unbounded.duplicate().rewind());
+        out.rewind();
+
+        Path temp = Files.createTempFile(file.getParent(), "bvh", ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) channel.write(out);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps a cache file.
+     * @param  file  the cache file
+     * @param  boxes the geometries and their boxes
+     * @param  hash  the geometry boxes hash
+     * @return       the hierarchy over the mapped file, or null if the file does not match
+     * @throws IOException if the file cannot be read
+     */
+    private static BoundingVolumeHierarchy load(Path file, Boxes boxes, byte[] hash) throws IOException {
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) return null;
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) return null;
+        int nodeCount = in.getInt(), primitives = in.getInt(), unbounded = in.getInt();
+        in.getInt();
+        byte[] stored = new byte[32];
+        in.get(stored);
+        if (primitives != boxes.primitives.size() || !MessageDigest.isEqual(stored, hash)) return null;
+
+        int bounded = primitives - unbounded;
+        int offset  = HEADER_BYTES;
+        int size    = offset + nodeCount * (6 * Double.BYTES + 2 * Integer.BYTES) + primitives * Integer.BYTES;
+        if (nodeCount < 0 || bounded < 0 || in.capacity() != size) return null;
+        DoubleBuffer bounds = in.slice(offset, nodeCount * 6 * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .asDoubleBuffer();
+        offset += nodeCount * 6 * Double.BYTES;
+        IntBuffer nodes = in.slice(offset, nodeCount * 2 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .asIntBuffer();
+        offset += nodeCount * 2 * Integer.BYTES;
+        IntBuffer order = in.slice(offset, bounded * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        offset += bounded * Integer.BYTES;
+        IntBuffer rest = in.slice(offset, unbounded * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        return new BoundingVolumeHierarchy(boxes.primitives, bounds, nodes, order, rest, true);
+    }
+
+    /**
+     * Serialization ships the geometries only - the receiver builds its own tree.
+     * @return the rebuilt hierarchy
+     */
+    @Serial
+    private Object readResolve() {
+        return new Builder(new Boxes(new Geometries(primitives))).build();
+    }
+
+    // ************************* Building *************************
+
+    /** The flattened geometries with their boxes. */
+    private static final class Boxes {
+        /** The geometries */
+        final List<Intersectable> primitives = new ArrayList<>();
+        /** Box bounds of the geometries (6 per geometry, unused for unbounded ones) */
+        double[] bounds;
+        /** Indices of the bounded geometries */
+        final List<Integer> bounded   = new ArrayList<>();
+        /** Indices of the unbounded geometries */
+        final List<Integer> unbounded = new ArrayList<>();
+
+        /**
+         * Collects the geometries and their boxes.
+         * @param geometries the geometries
+         */
+        Boxes(Geometries geometries) {
+            flatten(geometries);
+            bounds = new double[6 * primitives.size()];
+            for (int g = 0; g < primitives.size(); ++g) {
+                BoundingBox box = primitives.get(g).getBoundingBox();
+                if (box == null) {
+                    unbounded.add(g);
+                    continue;
+                }
+                bounded.add(g);
+                bounds[6 * g]     = box.minX();
+                bounds[6 * g + 1] = box.minY();
+                bounds[6 * g + 2] = box.minZ();
+                bounds[6 * g + 3] = box.maxX();
+                bounds[6 * g + 4] = box.maxY();
+                bounds[6 * g + 5] = box.maxZ();
+            }
+        }
+
+        /**
+         * Adds the geometries, flattening nested aggregates.
+         * @param geometries the geometries
+         */
+        private void flatten(Geometries geometries) {
+            for (Intersectable geometry : geometries.getGeometries())
+                if (geometry instanceof Geometries nested) flatten(nested);
+                else primitives.add(geometry);
+        }
+
+        /** @return SHA-256 hash of the boxes (and of which geometries are unbounded) */
+        byte[] hash() {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                ByteBuffer    buffer = ByteBuffer.allocate(4 * Integer.BYTES
+                        + unbounded.size() * Integer.BYTES + bounds.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(VERSION).putInt(LEAF_SIZE).putInt(primitives.size()).putInt(unbounded.size());
+                for (int g : unbounded) buffer.putInt(g);
+                buffer.asDoubleBuffer().put(bounds);
+                digest.update(buffer.array());
+                return digest.digest();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+
+    /** Top-down builder: median split of the box centers on the widest axis. */
+    private static final class Builder {
+        /** The geometries and their boxes */
+        final Boxes    boxes;
+        /** Node bounds */
+        final double[] bounds;
+        /** Node records */
+        final int[]    nodes;
+        /** Bounded geometries, reordered into leaf order */
+        final int[]    order;
+        /** Box centers of the geometries, by axis */
+        final double[] centers;
+        /** Number of nodes */
+        int            count = 0;
+
+        /**
+         * Prepares the build.
+         * @param boxes the geometries and their boxes
+         */
+        Builder(Boxes boxes) {
+            this.boxes = boxes;
+            int n      = boxes.bounded.size();
+            int max    = Math.max(0, 2 * n - 1);
+            bounds     = new double[6 * max];
+            nodes      = new int[2 * max];
+            order      = boxes.bounded.stream().mapToInt(Integer::intValue).toArray();
+            centers    = new double[3 * boxes.primitives.size()];
+            for (int g : order)
+                for (int axis = 0; axis < 3; ++axis)
+                    centers[3 * g + axis] = (boxes.bounds[6 * g + axis] + boxes.bounds[6 * g + axis + 3]) / 2;
+        }
+
+        /** @return the built hierarchy */
+        BoundingVolumeHierarchy build() {
+            if (order.length > 0) node(0, order.length);
+            int[] rest = boxes.unbounded.stream().mapToInt(Integer::intValue).toArray();
+            return new BoundingVolumeHierarchy(boxes.primitives, DoubleBuffer.wrap(bounds, 0, 6 * count).slice(),
+                    IntBuffer.wrap(nodes, 0, 2 * count).slice(), IntBuffer.wrap(order), IntBuffer.wrap(rest), false);
+        }
+
+        /**
+         * Builds the subtree of a range of the order.
+         * @param start first geometry of the range
+         * @param end   end of the range (exclusive)
+         */
+        private void node(int start, int end) {
+            int node = count++;
+            int b    = 6 * node;
+            for (int axis = 0; axis < 3; ++axis) {
+                bounds[b + axis]     = Double.POSITIVE_INFINITY;
+                bounds[b + axis + 3] = Double.NEGATIVE_INFINITY;
+            }
+            double[] low  = { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY };
+            double[] high = { Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+            for (int k = start; k < end; ++k) {
+                int g = order[k];
+                for (int axis = 0; axis < 3; ++axis) {
+                    bounds[b + axis]     = Math.min(bounds[b + axis], boxes.bounds[6 * g + axis]);
+                    bounds[b + axis + 3] = Math.max(bounds[b + axis + 3], boxes.bounds[6 * g + axis + 3]);
+                    low[axis]            = Math.min(low[axis], centers[3 * g + axis]);
+                    high[axis]           = Math.max(high[axis], centers[3 * g + axis]);
+                }
+            }
+            int axis = 0;
+            for (int a = 1; a < 3; ++a) if (high[a] - low[a] > high[axis] - low[axis]) axis = a;
+            if (end - start <= LEAF_SIZE || high[axis] == low[axis]) {
+                nodes[2 * node]     = start;
+                nodes[2 * node + 1] = end - start;
+                return;
+            }
+            int mid = (start + end) >>> 1;
+            select(start, end - 1, mid, axis);
+            node(start, mid);
+            nodes[2 * node]     = count;
+            nodes[2 * node + 1] = 0;
+            node(mid, end);
+        }
+
+        /**
+         * Partially sorts a range of the order so the k-th center along an axis is in place,
+         * with smaller centers before it and larger after it (quickselect).
+         * @param left  first index of the range
+         * @param right last index of the range (inclusive)
+         * @param k     the index to place
+         * @param axis  the axis
+         */
+        private void select(int left, int right, int k, int axis) {
+            while (left < right) {
+                double pivot = centers[3 * order[(left + right) >>> 1] + axis];
+                int    i     = left, j = right;
+                while (i <= j) {
+                    while (centers[3 * order[i] + axis] < pivot) ++i;
+                    while (centers[3 * order[j] + axis] > pivot) --j;
+                    if (i <= j) {
+                        int t = order[i];
+                        order[i++] = order[j];
+                        order[j--] = t;
+                    }
+                }
+                if (k <= j) right = j;
+                else if (k >= i) left = i;
+                else return;
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package geometries;
+
+import primitives.Color;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import renderer.RenderStats;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+
+/**
+ * Compact storage of many spheres: a single {@code float} array of center and radius per
+ * sphere (16 bytes per sphere, against about 90 bytes of objects for a {@link Sphere} with its
+ * {@link Point} and {@link primitives.Double3}), scanned linearly for better cache residency.
+ *
+ * <p>Only the storage is single precision. The values are rounded to {@code float} when a
+ * sphere is added; a float converts to {@code double} exactly, so the same {@code double}
+ * intersection math as {@link Sphere} runs on the rounded spheres, with the same rounding
+ * against the ray coordinates and the same {@code isZero}/{@code alignZero} thresholds. The
+ * hits are the hits of the rounded spheres. Rounding moves a sphere by at most a relative
+ * 6e-8 of its coordinates.</p>
+ *
+ * <p>The container counts its own {@link RenderStats}: a test per sphere and its hits.</p>
+ *
+ * <p>All the spheres share one emission and material; a sphere is created as a {@link Sphere}
+ * only when it is hit in a query for shading. The created sphere takes the emission and
+ * material of the container when asked, and equals every other sphere created for the same
+ * element, so a hit kept for shading later resolves back to its container and index.</p>
+ * @author Ido
+ */
+public class CompactSpheres implements Intersectable {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** Floats per sphere: center x, y, z, radius */
+    private static final int STRIDE = 4;
+
+    /** The spheres */
+    private float[] data;
+    /** Number of spheres */
+    private int     size = 0;
+    /** The light all the spheres emit */
+    private Color    emission = Color.BLACK;
+    /** The material of all the spheres */
+    private Material material = new Material();
+    /** Box of all the spheres: min x, y, z, max x, y, z */
+    private final double[] box = { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+            Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+
+    /**
+     * Creates an empty container.
+     * @param capacity expected number of spheres
+     */
+    public CompactSpheres(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Capacity cannot be negative");
+        data = new float[Math.max(1, capacity) * STRIDE];
+    }
+
+    /**
+     * Adds a sphere.
+     * @param  center the center
+     * @param  radius the radius
+     * @return        this container
+     * @throws IllegalArgumentException if the radius is not positive (also after rounding)
+     */
+    public CompactSpheres add(Point center, double radius) {
+        float r = (float) radius;
+        if (!(r > 0)) throw new IllegalArgumentException("Radius must be greater than 0");
+        if ((size + 1) * STRIDE > data.length) data = Arrays.copyOf(data, 2 * data.length);
+        int k = size++ * STRIDE;
+        data[k]     = (float) center.getX();
+        data[k + 1] = (float) center.getY();
+        data[k + 2] = (float) center.getZ();
+        data[k + 3] = r;
+        for (int axis = 0; axis < 3; ++axis) {
+            box[axis]     = Math.min(box[axis], (double) data[k + axis] - r);
+            box[axis + 3] = Math.max(box[axis + 3], (double) data[k + axis] + r);
+        }
+        return this;
+    }
+
+    /** @return number of spheres */
+    public int size() { return size; }
+
+    /** @return copy of the stored spheres, 4 floats (center x, y, z and radius) per sphere */
+    public float[] getValues() { return Arrays.copyOf(data, size * STRIDE); }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return size == 0 ? null : new BoundingBox(box[0], box[1], box[2], box[3], box[4], box[5]);
+    }
+
+    /**
+     * Setter of the light all the spheres emit.
+     * @param  emission the light
+     * @return          this container
+     */
+    public CompactSpheres setEmission(Color emission) {
+        this.emission = emission;
+        return this;
+    }
+
+    /**
+     * Setter of the material of all the spheres.
+     * @param  material the material
+     * @return          this container
+     */
+    public CompactSpheres setMaterial(Material material) {
+        this.material = material;
+        return this;
+    }
+
+    @Override
+    public List<Point> findIntersections(Ray ray) {
+        List<Point> result = null;
+        double[]    t      = new double[2];
+        for (int k = 0; k < size * STRIDE; k += STRIDE) {
+            int n = distances(k, ray, t);
+            for (int i = 0; i < n; ++i) result = add(result, ray.getPoint(t[i]));
+        }
+        if (RenderStats.ENABLED && result != null) RenderStats.countHits(this, result.size());
+        return result;
+    }
+
+    /// The hit sphere is created as an element of the container (see Element)
+    @Override
+    public List<GeoPoint> findGeoIntersections(Ray ray) {
+        List<GeoPoint> result = null;
+        double[]       t      = new double[2];
+        for (int k = 0; k < size * STRIDE; k += STRIDE) {
+            int n = distances(k, ray, t);
+            if (n == 0) continue;
+            Geometry sphere = new Element(k);
+            for (int i = 0; i < n; ++i) result = add(result, new GeoPoint(sphere, ray.getPoint(t[i])));
+        }
+        if (RenderStats.ENABLED && result != null) RenderStats.countHits(this, result.size());
+        return result;
+    }
+
+    /**
+     * Finds the positive distances along the ray to its intersections with a sphere, by the
+     * same formula and early reject as {@link Sphere}, on raw coordinates.
+     * @param  k   offset of the sphere in the data
+     * @param  ray the ray
+     * @param  t   receives the distances in ascending order (room for 2)
+     * @return     number of distances
+     */
+    private int distances(int k, Ray ray, double[] t) {
+        if (RenderStats.ENABLED) RenderStats.countTest(this);
+        Point  head = ray.getPoint(0);
+        Vector dir  = ray.getDir();
+        double ux   = data[k] - head.getX(), uy = data[k + 1] - head.getY(), uz = data[k + 2] - head.getZ();
+        double r    = data[k + 3];
+        if (isZero(ux) && isZero(uy) && isZero(uz)) { // ray starts at the center
+            t[0] = r;
+            return 1;
+        }
+        double tm = dir.getX() * ux + dir.getY() * uy + dir.getZ() * uz;
+        double u2 = ux * ux + uy * uy + uz * uz;
+        double r2 = r * r;
+        if (tm <= 0 && alignZero(u2 - r2) >= 0) return 0; // outside, heading away
+        double d2 = alignZero(u2 - tm * tm);
+        if (d2 >= r2) return 0;
+        double th = Math.sqrt(r2 - d2);
+        double t1 = alignZero(tm - th);
+        double t2 = alignZero(tm + th);
+        int    n  = 0;
+        if (t1 > 0) t[n++] = t1;
+        if (t2 > 0) t[n++] = t2;
+        return n;
+    }
+
+    /**
+     * A sphere of the container, created for a hit.
+     */
+    private final class Element extends Sphere {
+        /** Version of the serialized form */
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        /** Offset of the sphere in the data */
+        private final int offset;
+
+        /**
+         * Creates the sphere at an offset of the data.
+         * @param offset the offset
+         */
+        Element(int offset) {
+            super(new Point(data[offset], data[offset + 1], data[offset + 2]), data[offset + 3]);
+            this.offset = offset;
+        }
+
+        /** @return the container of the sphere */
+        private CompactSpheres container() { return CompactSpheres.this; }
+
+        @Override
+        public Color getEmission() { return emission; }
+
+        @Override
+        public Material getMaterial() { return material; }
+
+        @Override
+        public boolean equals(Object obj) {
+            return this == obj || obj instanceof Element other && other.container() == container() && other.offset == offset;
+        }
+
+        @Override
+        public int hashCode() { return 31 * System.identityHashCode(container()) + offset; }
+    }
+
+    /**
+     * Adds an intersection to the result.
+     * @param  <T>    type of the intersections
+     * @param  result the intersections so far (null for none)
+     * @param  point  the intersection
+     * @return        the intersections
+     */
+    static <T> List<T> add(List<T> result, T point) {
+        if (result == null) result = new LinkedList<>();
+        result.add(point);
+        return result;
+    }
+}
@@ -0,0 +1,241 @@
+package geometries;
+
+import primitives.Color;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import renderer.RenderStats;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.List;
+
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+
+/**
+ * Compact storage of a triangle mesh: a single {@code float} array of the three vertices
+ * per triangle (36 bytes per triangle, against roughly 300 bytes of objects for a
+ * {@link Triangle} with its vertex list, points and plane), scanned linearly for better cache
+ * residency.
+ *
+ * <p>Only the storage is single precision: vertices are rounded to {@code float} when a
+ * triangle is added and the intersection math runs in {@code double} on the exact rounded
+ * values, with the {@code isZero}/{@code alignZero} rules of {@link Polygon} - a ray parallel
+ * to the triangle or hitting an edge or a vertex has no intersection. A triangle that becomes
+ * degenerate by the rounding is rejected when it is added.</p>
+ *
+ * <p>The container counts its own {@link RenderStats}: a test per triangle and its hits.</p>
+ *
+ * <p>All the triangles share one emission and material; a triangle is created as a
+ * {@link Triangle} only when it is hit in a query for shading. The created triangle takes the
+ * emission and material of the container when asked, and equals every other triangle created
+ * for the same element, so a hit kept for shading later resolves back to its container and
+ * index.</p>
+ * @author Ido
+ */
+public class CompactTriangles implements Intersectable {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** Floats per triangle: 3 vertices of x, y, z */
+    private static final int STRIDE = 9;
+
+    /** The triangles */
+    private float[] data;
+    /** Number of triangles */
+    private int     size = 0;
+    /** The light all the triangles emit */
+    private Color    emission = Color.BLACK;
+    /** The material of all the triangles */
+    private Material material = new Material();
+    /** Box of all the triangles: min x, y, z, max x, y, z */
+    private final float[] box = { Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+            Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY };
+
+    /**
+     * Creates an empty container.
+     * @param capacity expected number of triangles
+     */
+    public CompactTriangles(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Capacity cannot be negative");
+        data = new float[Math.max(1, capacity) * STRIDE];
+    }
+
+    /**
+     * Adds a triangle.
+     * @param  p1 first vertex
+     * @param  p2 second vertex
+     * @param  p3 third vertex
+     * @return    this container
+     * @throws IllegalArgumentException if the (rounded) vertices do not make a triangle
+     */
+    public CompactTriangles add(Point p1, Point p2, Point p3) {
+        float[] v = { (float) p1.getX(), (float) p1.getY(), (float) p1.getZ(),
+                (float) p2.getX(), (float) p2.getY(), (float) p2.getZ(),
+                (float) p3.getX(), (float) p3.getY(), (float) p3.getZ() };
+        double ax = v[3] - v[0], ay = v[4] - v[1], az = v[5] - v[2];
+        double bx = v[6] - v[0], by = v[7] - v[1], bz = v[8] - v[2];
+        if (isZero(ay * bz - az * by) && isZero(az * bx - ax * bz) && isZero(ax * by - ay * bx))
+            throw new IllegalArgumentException("Triangle vertices cannot be on the same line");
+        if ((size + 1) * STRIDE > data.length) data = Arrays.copyOf(data, 2 * data.length);
+        System.arraycopy(v, 0, data, size++ * STRIDE, STRIDE);
+        for (int k = 0; k < STRIDE; ++k) {
+            box[k % 3]     = Math.min(box[k % 3], v[k]);
+            box[k % 3 + 3] = Math.max(box[k % 3 + 3], v[k]);
+        }
+        return this;
+    }
+
+    /** @return number of triangles */
+    public int size() { return size; }
+
+    /** @return copy of the stored triangles, 9 floats (vertices x, y, z) per triangle */
+    public float[] getValues() { return Arrays.copyOf(data, size * STRIDE); }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return size == 0 ? null : new BoundingBox(box[0], box[1], box[2], box[3], box[4], box[5]);
+    }
+
+    /**
+     * Setter of the light all the triangles emit.
+     * @param  emission the light
+     * @return          this container
+     */
+    public CompactTriangles setEmission(Color emission) {
+        this.emission = emission;
+        return this;
+    }
+
+    /**
+     * Setter of the material of all the triangles.
+     * @param  material the material
+     * @return          this container
+     */
+    public CompactTriangles setMaterial(Material material) {
+        this.material = material;
+        return this;
+    }
+
+    @Override
+    public List<Point> findIntersections(Ray ray) {
+        List<Point> result = null;
+        for (int k = 0; k < size * STRIDE; k += STRIDE) {
+            double t = distance(k, ray);
+            if (t > 0) result = CompactSpheres.add(result, ray.getPoint(t));
+        }
+        if (RenderStats.ENABLED && result != null) RenderStats.countHits(this, result.size());
+        return result;
+    }
+
+    /// The hit triangle is created as an element of the container (see Element)
+    @Override
+    public List<GeoPoint> findGeoIntersections(Ray ray) {
+        List<GeoPoint> result = null;
+        for (int k = 0; k < size * STRIDE; k += STRIDE) {
+            double t = distance(k, ray);
+            if (t <= 0) continue;
+            Geometry triangle = new Element(k);
+            result = CompactSpheres.add(result, new GeoPoint(triangle, ray.getPoint(t)));
+        }
+        if (RenderStats.ENABLED && result != null) RenderStats.countHits(this, result.size());
+        return result;
+    }
+
+    /**
+     * Finds the distance along the ray to its intersection with a triangle, by the same tests
+     * as {@link Polygon} - the plane hit, then the sign of n·(edge × (P - vertex)) on every
+     * edge - on raw coordinates.
+     * @param  k   offset of the triangle in the data
+     * @param  ray the ray
+     * @return     the distance, 0 if there is no intersection
+     */
+    private double distance(int k, Ray ray) {
+        if (RenderStats.ENABLED) RenderStats.countTest(this);
+        Point  head = ray.getPoint(0);
+        Vector dir  = ray.getDir();
+        double ox   = head.getX(), oy = head.getY(), oz = head.getZ();
+        double vx   = dir.getX(), vy = dir.getY(), vz = dir.getZ();
+        double x0   = data[k], y0 = data[k + 1], z0 = data[k + 2];
+        double x1   = data[k + 3], y1 = data[k + 4], z1 = data[k + 5];
+        double x2   = data[k + 6], y2 = data[k + 7], z2 = data[k + 8];
+
+        // unit normal (p1 - p0) × (p2 - p0), as the polygon's plane
+        double ax = x1 - x0, ay = y1 - y0, az = z1 - z0;
+        double bx = x2 - x0, by = y2 - y0, bz = z2 - z0;
+        double nx = ay * bz - az * by, ny = az * bx - ax * bz, nz = ax * by - ay * bx;
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        nx /= length;
+        ny /= length;
+        nz /= length;
+
+        double nv = nx * vx + ny * vy + nz * vz;
+        if (isZero(nv)) return 0;
+        double t = alignZero((nx * (x0 - ox) + ny * (y0 - oy) + nz * (z0 - oz)) / nv);
+        if (t <= 0) return 0;
+        double px = ox + t * vx, py = oy + t * vy, pz = oz + t * vz;
+
+        double s0 = edgeSide(nx, ny, nz, x0, y0, z0, x1, y1, z1, px, py, pz);
+        if (s0 == 0) return 0;
+        double s1 = edgeSide(nx, ny, nz, x1, y1, z1, x2, y2, z2, px, py, pz);
+        if (s1 == 0 || (s1 > 0) != (s0 > 0)) return 0;
+        double s2 = edgeSide(nx, ny, nz, x2, y2, z2, x0, y0, z0, px, py, pz);
+        if (s2 == 0 || (s2 > 0) != (s0 > 0)) return 0;
+        return t;
+    }
+
+    /**
+     * Side of a point relative to a directed edge: {@code n · ((b - a) × (p - a))}.
+     * @return the aligned side value, 0 when the point is on the edge line
+     */
+    @SuppressWarnings("javadoc")
+    private static double edgeSide(double nx, double ny, double nz, double ax, double ay, double az,
+                                   double bx, double by, double bz, double px, double py, double pz) {
+        double ex = bx - ax, ey = by - ay, ez = bz - az;
+        double wx = px - ax, wy = py - ay, wz = pz - az;
+        return alignZero(nx * (ey * wz - ez * wy) + ny * (ez * wx - ex * wz) + nz * (ex * wy - ey * wx));
+    }
+
+    /**
+     * A triangle of the container, created for a hit.
+     */
+    private final class Element extends Triangle {
+        /** Version of the serialized form */
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        /** Offset of the triangle in the data */
+        private final int offset;
+
+        /**
+         * Creates the triangle at an offset of the data.
+         * @param offset the offset
+         */
+        Element(int offset) {
+            super(new Point(data[offset], data[offset + 1], data[offset + 2]),
+                    new Point(data[offset + 3], data[offset + 4], data[offset + 5]),
+                    new Point(data[offset + 6], data[offset + 7], data[offset + 8]));
+            this.offset = offset;
+        }
+
+        /** @return the container of the triangle */
+        private CompactTriangles container() { return CompactTriangles.this; }
+
+        @Override
+        public Color getEmission() { return emission; }
+
+        @Override
+        public Material getMaterial() { return material; }
+
+        @Override
+        public boolean equals(Object obj) {
+            return this == obj || obj instanceof Element other && other.container() == container() && other.offset == offset;
+        }
+
+        @Override
+        public int hashCode() { return 31 * System.identityHashCode(container()) + offset; }
+    }
+}
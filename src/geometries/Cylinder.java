@@ -2,6 +2,7 @@ package geometries;
 
 import primitives.*;
 
+import java.io.Serial;
 import java.util.List;
 import static java.util.List.of;
 import static primitives.Util.alignZero;
@@ -9,12 +10,36 @@ import static primitives.Util.isZero;
 
 /** Finite cylinder: tube with a given height */
 public class Cylinder extends Tube {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private final double height;
+    /** Center of the top cap */
+    private final Point  top;
 
     public Cylinder(Ray axis, double radius, double height) {
         super(axis, radius);
         if (height <= 0) {throw new IllegalArgumentException("Height must be positive");}
         this.height = height;
+        this.top    = axis.getPoint(height);
+    }
+
+    /** Getter for the height of the cylinder (along the axis from the axis head). */
+    public double getHeight() {
+        return height;
+    }
+
+    /// The caps are disks: along each axis a disk of unit normal a extends r*sqrt(1 - a_i^2)
+    @Override
+    public BoundingBox getBoundingBox() {
+        Point  o   = axis.getPoint(0);
+        double ex  = radius * Math.sqrt(Math.max(0, 1 - ax * ax));
+        double ey  = radius * Math.sqrt(Math.max(0, 1 - ay * ay));
+        double ez  = radius * Math.sqrt(Math.max(0, 1 - az * az));
+        return new BoundingBox(Math.min(o.getX(), top.getX()) - ex, Math.min(o.getY(), top.getY()) - ey,
+                Math.min(o.getZ(), top.getZ()) - ez, Math.max(o.getX(), top.getX()) + ex,
+                Math.max(o.getY(), top.getY()) + ey, Math.max(o.getZ(), top.getZ()) + ez);
     }
 
     @Override
@@ -28,8 +53,8 @@ public class Cylinder extends Tube {
             // The normal for the bottom base is the opposite of the axis direction.
             return rayAxis.scale(-1);
 
-        // Calculate the CENTER of the TOP base of the cylinder - important for the next possibilities.
-        Point topCenter = p0.add(rayAxis.scale(height));
+        // The CENTER of the TOP base of the cylinder - important for the next possibilities.
+        Point topCenter = top;
 
         // Check if the point is the CENTER of the TOP base.
         if (point.equals(topCenter))
@@ -70,76 +95,59 @@ public class Cylinder extends Tube {
     /// methods found in Internet sources
     @Override
     public List<Point> findIntersections(Ray ray) {
-        var v  = ray.getDir();
-        var p0 = ray.getPoint(0);      // head
-        var a  = axis.getDir();        // axis (unit)
-        var o  = axis.getPoint(0);     // bottom-cap center
-
-        List<Point> result = null;
-
-        // 1) Lateral surface (Tube) — keep only 0 < s < height
-        List<Point> tubeHits = super.findIntersections(ray);
-        if (tubeHits != null) {
-            for (Point P : tubeHits) {
-                double s = P.equals(o) ? 0 : alignZero(a.dotProduct(P.subtract(o)));
-                if (s > 0 && s < height) {
-                    if (result == null) result = new java.util.LinkedList<>();
-                    result.add(P);
-                }
-            }
-        }
-
-        // 2) Cap planes — compute both t's safely, then add in ascending t
-        double nv = a.dotProduct(v);
+        // 1) Lateral surface (Tube) — keep only 0 < s < height, already ascending
+        double[] t = new double[4];
+        int      n = lateral(ray, t, 0, height);
+
+        // 2) Cap planes a·(P - o) = 0 and a·(P - o) = height
+        Point  p0 = ray.getPoint(0);
+        Vector v  = ray.getDir();
+        double nv = ax * v.getX() + ay * v.getY() + az * v.getZ();
         if (!isZero(nv)) {
-            // bottom cap @ o  (safe numerator: 0 if p0 == o)
-            double numBottom = p0.equals(o) ? 0 : a.dotProduct(o.subtract(p0));
-            double tBottom   = alignZero(numBottom / nv);
-
-            // top cap @ oTop = o + a*height  (safe numerator: 0 if p0 == oTop)
-            Point  oTop    = o.add(a.scale(height));
-            double numTop  = p0.equals(oTop) ? 0 : a.dotProduct(oTop.subtract(p0));
-            double tTop    = alignZero(numTop / nv);
-
-            Point pBottom = null, pTop = null;
-
-            if (tBottom > 0) {
-                Point cand = ray.getPoint(tBottom);
-                if (isInsideDisk(cand, o, a, radius)) pBottom = cand;
-            }
-            if (tTop > 0) {
-                Point cand = ray.getPoint(tTop);
-                if (isInsideDisk(cand, oTop, a, radius)) pTop = cand;
-            }
-
-            if (pBottom != null && pTop != null) {
-                if (result == null) result = new java.util.LinkedList<>();
-                if (tTop < tBottom) { result.add(pTop); result.add(pBottom); }
-                else                { result.add(pBottom); result.add(pTop); }
-            } else if (pBottom != null) {
-                if (result == null) result = new java.util.LinkedList<>();
-                result.add(pBottom);
-            } else if (pTop != null) {
-                if (result == null) result = new java.util.LinkedList<>();
-                result.add(pTop);
-            }
+            double da = ax * (p0.getX() - ox) + ay * (p0.getY() - oy) + az * (p0.getZ() - oz);
+            n = cap(ray, t, n, alignZero(-da / nv), ox, oy, oz);
+            n = cap(ray, t, n, alignZero((height - da) / nv), top.getX(), top.getY(), top.getZ());
         }
 
-        if (result == null) return null;
-
-        // Optional: globally order by distance from ray head (near→far)
-        result.sort(java.util.Comparator.comparingDouble(P -> v.dotProduct(P.subtract(p0))));
-
-        return result.size() == 1 ? java.util.List.of(result.getFirst()) : result;
+        return switch (n) {
+            case 0 -> null;
+            case 1 -> of(ray.getPoint(t[0]));
+            case 2 -> of(ray.getPoint(t[0]), ray.getPoint(t[1]));
+            default -> {
+                Point[] points = new Point[n];
+                for (int i = 0; i < n; ++i) points[i] = ray.getPoint(t[i]);
+                yield of(points);
+            }
+        };
     }
 
-    /** true iff p lies inside (or on) the circular cap disk centered at 'center' */
-    private static boolean isInsideDisk(Point p, Point center, Vector axisDir, double radius) {
-        if (p.equals(center)) return true;                      // exact center
-        Vector d = p.subtract(center);                          // safe after equals check
-        double ax = d.dotProduct(axisDir);                      // axial component
-        double perp2 = alignZero(d.lengthSquared() - ax * ax);  // squared radial distance
-        return perp2 <= radius * radius + 1e-10;                // include seam (tiny eps)
+    /**
+     * Adds a cap hit to the ascending distances if it is in front of the ray head and
+     * inside (or on the seam of) the cap disk.
+     * @param  ray ray
+     * @param  t   the ascending distances so far
+     * @param  n   number of distances so far
+     * @param  tc  distance to the cap plane
+     * @param  cx  cap center x
+     * @param  cy  cap center y
+     * @param  cz  cap center z
+     * @return     new number of distances
+     */
+    private int cap(Ray ray, double[] t, int n, double tc, double cx, double cy, double cz) {
+        if (tc <= 0) return n;
+        Point  p0 = ray.getPoint(0);
+        Vector v  = ray.getDir();
+        double dx = p0.getX() + tc * v.getX() - cx;
+        double dy = p0.getY() + tc * v.getY() - cy;
+        double dz = p0.getZ() + tc * v.getZ() - cz;
+        double s  = dx * ax + dy * ay + dz * az;                    // axial component
+        double perp2 = alignZero(dx * dx + dy * dy + dz * dz - s * s); // squared radial distance
+        if (perp2 > radius2 + 1e-10) return n;                        // include seam (tiny eps)
+
+        int i = n;
+        while (i > 0 && t[i - 1] > tc) { t[i] = t[i - 1]; --i; }
+        t[i] = tc;
+        return n + 1;
     }
 
 }
@@ -1,9 +1,13 @@
 package geometries;
 
+import java.io.Serial;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.BiFunction;
 import primitives.Point;
 import primitives.Ray;
+import renderer.RenderStats;
 
 /**
  * A composite of multiple {@link Intersectable} geometries (Composite pattern).
@@ -11,8 +15,12 @@ import primitives.Ray;
  */
 
 public class Geometries implements  Intersectable {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     /** immutable reference to the internal list (but list contents are mutable) */
-    private final List<Intersectable> geometries = new LinkedList<>();
+    private final LinkedList<Intersectable> geometries = new LinkedList<>();
 
     /** Default constructor: empty aggregate. */
     public Geometries() { }
@@ -36,20 +44,71 @@ public class Geometries implements  Intersectable {
         }
     }
 
+    /**
+     * The geometries of this aggregate, in the order they were added.
+     * @return unmodifiable view of the geometries
+     */
+    public List<Intersectable> getGeometries() {
+        return Collections.unmodifiableList(geometries);
+    }
+
+    /** The union of the geometries' boxes - null if empty or if any of them is unbounded. */
+    @Override
+    public BoundingBox getBoundingBox() {
+        BoundingBox box = null;
+        for (Intersectable geometry : geometries) {
+            BoundingBox other = geometry.getBoundingBox();
+            if (other == null) return null;
+            box = box == null ? other : box.union(other);
+        }
+        return box;
+    }
+
     @Override
     public List<Point> findIntersections(Ray ray) {
+        return collect(ray, Intersectable::findIntersections);
+    }
+
+    @Override
+    public List<GeoPoint> findGeoIntersections(Ray ray) {
+        return collect(ray, Intersectable::findGeoIntersections);
+    }
+
+    /**
+     * Checks whether a geometry counts its own intersection tests and hits in the render
+     * statistics - the aggregates and the hierarchies count them by their children and the
+     * compact containers by their elements, so their containers must not count them again.
+     * @param  geometry the geometry
+     * @return          true for an aggregate, a hierarchy or a compact container
+     */
+    static boolean countsItself(Intersectable geometry) {
+        return geometry instanceof Geometries || geometry instanceof BoundingVolumeHierarchy
+                || geometry instanceof CompactSpheres || geometry instanceof CompactTriangles;
+    }
+
+    /**
+     * Runs an intersection query on all the geometries and joins the results.
+     * @param  <T>   type of the intersections
+     * @param  ray   the ray
+     * @param  query the query of a single geometry
+     * @return       the intersections, null if there are none
+     */
+    private <T> List<T> collect(Ray ray, BiFunction<Intersectable, Ray, List<T>> query) {
         if(geometries.isEmpty()) /// no geometries
             return null;
 
-        List<Point> intersectionPoints = new LinkedList<>();
+        List<T> intersections = new LinkedList<>();
             for (Intersectable geometry : geometries) {
-                List<Point> points = geometry.findIntersections(ray);
+                boolean counted = RenderStats.ENABLED && !countsItself(geometry);
+                if (counted) RenderStats.countTest(geometry);
+                List<T> points = query.apply(geometry, ray);
                 if (points != null) {
-                    intersectionPoints.addAll(points);
+                    if (counted) RenderStats.countHits(geometry, points.size());
+                    intersections.addAll(points);
                 }
             }
-            if (!intersectionPoints.isEmpty()) {
-                return intersectionPoints;
+            if (!intersections.isEmpty()) {
+                return intersections;
             }
             return null; /// no intersections
     }
@@ -1,9 +1,13 @@
 package geometries;
 
+import primitives.Color;
+import primitives.Material;
 import primitives.Point;
+import primitives.Ray;
 import primitives.Vector;
 
-import java.util.LinkedList;
+import java.io.Serial;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -14,6 +18,14 @@ import java.util.List;
  * @author Ido
  */
 public abstract class Geometry implements Intersectable {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** The light the geometry emits by itself */
+    protected Color  emission = Color.BLACK;
+    /** The surface material */
+    private Material material = new Material();
 
     /**
      * Returns the normal vector to the geometry at a given point on its surface.
@@ -22,6 +34,41 @@ public abstract class Geometry implements Intersectable {
      */
     public abstract Vector getNormal(Point point);
 
+    /** @return the emitted light */
+    public Color getEmission() { return emission; }
+
+    /**
+     * Setter of the emitted light.
+     * @param  emission the light
+     * @return          this geometry
+     */
+    public Geometry setEmission(Color emission) {
+        this.emission = emission;
+        return this;
+    }
+
+    /** @return the surface material */
+    public Material getMaterial() { return material; }
+
+    /**
+     * Setter of the surface material.
+     * @param  material the material
+     * @return          this geometry
+     */
+    public Geometry setMaterial(Material material) {
+        this.material = material;
+        return this;
+    }
+
+    @Override
+    public List<GeoPoint> findGeoIntersections(Ray ray) {
+        List<Point> points = findIntersections(ray);
+        if (points == null) return null;
+        List<GeoPoint> result = new ArrayList<>(points.size());
+        for (Point point : points) result.add(new GeoPoint(this, point));
+        return result;
+    }
+
     @Override
     public String toString() {
         return "Geometry{}";
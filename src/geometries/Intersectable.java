@@ -1,8 +1,32 @@
 package geometries;
 import primitives.*;
+import java.io.Serializable;
 import java.util.List;
 
-public interface Intersectable {
+public interface Intersectable extends Serializable {
+
+    /**
+     * An intersection point together with the geometry it is on, for shading.
+     * @param geometry the intersected geometry
+     * @param point    the intersection point
+     * @author Ido
+     */
+    record GeoPoint(Geometry geometry, Point point) { }
 
     List<Point> findIntersections(Ray ray);
+
+    /**
+     * Finds the intersections of a ray together with the geometries they are on.
+     * @param  ray the ray
+     * @return     the intersections, null if there are none
+     */
+    List<GeoPoint> findGeoIntersections(Ray ray);
+
+    /**
+     * Axis-aligned box holding the whole geometry, for acceleration structures.
+     * @return the bounding box, or null for an unbounded geometry (the default)
+     */
+    default BoundingBox getBoundingBox() {
+        return null;
+    }
 }
@@ -2,6 +2,7 @@ package geometries;
 
 import primitives.*;
 
+import java.io.Serial;
 import java.util.List;
 import static java.util.List.of;
 
@@ -12,6 +13,9 @@ import static primitives.Util.isZero;
  * Represents a plane in three-dimensional space.
  */
 public class Plane extends Geometry {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     private final Point p;
     private final Vector normal;
@@ -40,6 +44,24 @@ public class Plane extends Geometry {
         this.normal = v1.normalize();
     }
 
+    /**
+     * Getter for the point the plane was defined by
+     *
+     * @return a point on the plane
+     */
+    public Point getPoint() {
+        return p;
+    }
+
+    /**
+     * Getter for the normal of the plane (the same everywhere on the plane)
+     *
+     * @return the normal vector of the plane
+     */
+    public Vector getNormal() {
+        return normal;
+    }
+
     /**
      * Getter for the normal of the plane, as we asked
      *
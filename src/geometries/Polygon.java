@@ -1,6 +1,7 @@
 package geometries;
 
 import static java.lang.Double.*;
+import java.io.Serial;
 import java.util.List;
 import static primitives.Util.*;
 import primitives.*;
@@ -11,8 +12,12 @@ import primitives.*;
  * @author Dan
  */
 public class Polygon extends Geometry {
-   /** List of polygon's vertices */
-   protected final List<Point> vertices;
+   /** Version of the serialized form */
+   @Serial
+   private static final long serialVersionUID = 1L;
+
+   /** The polygon's vertices */
+   protected final Point[]     vertices;
    /** Associated plane in which the polygon lays */
    protected final Plane       plane;
    /** The size of the polygon - the amount of the vertices in the polygon */
@@ -42,7 +47,7 @@ public class Polygon extends Geometry {
    public Polygon(Point... vertices) {
       if (vertices.length < 3)
          throw new IllegalArgumentException("A polygon can't have less than 3 vertices");
-      this.vertices = List.of(vertices);
+      this.vertices = vertices.clone();
       size          = vertices.length;
 
       // Generate the plane according t
@@ -81,6 +86,15 @@ public class Polygon extends Geometry {
    @Override
    public Vector getNormal(Point point) { return plane.getNormal(point); }
 
+   /**
+    * Getter for the vertices of the polygon
+    * @return the vertices in their edge path order (unmodifiable)
+    */
+   public List<Point> getVertices() { return List.of(vertices); }
+
+   @Override
+   public BoundingBox getBoundingBox() { return BoundingBox.of(vertices); }
+
     /// Finding intersections of a polygon
     @Override
     public List<Point> findIntersections(Ray ray) {
@@ -90,14 +104,14 @@ public class Polygon extends Geometry {
 
         Point  P = planeHits.getFirst();                // plane gives at most one point
         Vector n = plane.getNormal(P);              // polygon/plane normal
-        int    nVerts = vertices.size();
+        int    nVerts = vertices.length;
 
         // 2) Point-in-convex-polygon test using consistent orientation of edge-cross-point vectors
         // First edge (to establish the required sign)
         double s0;
         try {
-            Vector edge0 = vertices.get(1).subtract(vertices.get(0));
-            Vector toP0  = P.subtract(vertices.get(0));   // if P equals vertex → zero → caught below
+            Vector edge0 = vertices[1].subtract(vertices[0]);
+            Vector toP0  = P.subtract(vertices[0]);   // if P equals vertex → zero → caught below
             s0 = alignZero(n.dotProduct(edge0.crossProduct(toP0)));
         } catch (IllegalArgumentException ex) {
             // Cross product (or subtract) produced a zero vector → P on vertex/edge → exclude
@@ -108,8 +122,8 @@ public class Polygon extends Geometry {
 
         // Remaining edges
         for (int i = 1; i < nVerts; i++) {
-            Point  vi = vertices.get(i);
-            Point  vj = vertices.get((i + 1) % nVerts);
+            Point  vi = vertices[i];
+            Point  vj = vertices[(i + 1) % nVerts];
 
             // If P coincides with a vertex → exclude
             if (P.equals(vi)) return null;
@@ -3,6 +3,8 @@ package geometries;
 import primitives.Point;
 import primitives.Vector;
 
+import java.io.Serial;
+
 /**
  * Abstract class RadialGeometry represents radial geometric bodies (with a radius)
  * such as Sphere, Tube, and Cylinder.
@@ -11,9 +13,14 @@ import primitives.Vector;
  * @author Ido
  */
 public abstract class RadialGeometry extends Geometry {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     /** Radius of the radial geometry */
     protected final double radius;
+    /** Squared radius, precomputed for the intersection formulas */
+    protected final double radius2;
 
     /**
      * Constructs a RadialGeometry with a given radius(only positive radius allowed).
@@ -23,7 +30,16 @@ public abstract class RadialGeometry extends Geometry {
         if (radius <= 0) {
             throw new IllegalArgumentException("Radius must be greater than 0");
         }
-        this.radius = radius;
+        this.radius  = radius;
+        this.radius2 = radius * radius;
+    }
+
+    /**
+     * Getter for the radius
+     * @return the radius of the geometry
+     */
+    public double getRadius() {
+        return radius;
     }
 
     @Override
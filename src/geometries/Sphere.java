@@ -2,9 +2,11 @@ package geometries;
 
 import primitives.*;
 
+import java.io.Serial;
 import java.util.List;
 import static java.util.List.of;
 import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
 
 /**
  * Sphere is a 3D geometry defined by a center point and a radius.
@@ -13,9 +15,14 @@ import static primitives.Util.alignZero;
  * @author Ido
  */
 public class Sphere extends RadialGeometry {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     /** The center point of the sphere */
     private final Point center;
+    /** Center coordinates, kept raw for the intersection hot path */
+    private final double cx, cy, cz;
 
     /**
      * Constructs a Sphere with a given center and radius.
@@ -25,6 +32,23 @@ public class Sphere extends RadialGeometry {
     public Sphere(Point center, double radius) {
         super(radius);
         this.center = center;
+        cx = center.getX();
+        cy = center.getY();
+        cz = center.getZ();
+    }
+
+    /**
+     * Getter for the center of the sphere
+     * @return the center point
+     */
+    public Point getCenter() {
+        return center;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return new BoundingBox(center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+                center.getX() + radius, center.getY() + radius, center.getZ() + radius);
     }
 
     /**
@@ -51,34 +75,53 @@ public class Sphere extends RadialGeometry {
     /// www.scratchapixel.com/lessons/3d-basic-rendering
     @Override
     public List<Point> findIntersections(Ray ray) {
-        var p0 = ray.getPoint(0);
-        var v  = ray.getDir();
+        double[] t = new double[2];
+        return switch (findDistances(ray, t, 0)) {
+            case 2 -> of(ray.getPoint(t[0]), ray.getPoint(t[1]));
+            case 1 -> of(ray.getPoint(t[0]));
+            default -> null;
+        };
+    }
+
+    /**
+     * Finds the distances along the ray to its intersections with the sphere, without
+     * creating any object: raw coordinates, the precomputed squared radius and an early
+     * reject of a ray heading away from a sphere it starts outside of.
+     * @param  ray    the ray
+     * @param  t      receives the positive distances in ascending order
+     * @param  offset first index to write in {@code t} (room for 2 is needed)
+     * @return        number of distances written (0, 1 or 2)
+     */
+    public int findDistances(Ray ray, double[] t, int offset) {
+        Point  p0 = ray.getPoint(0);
+        Vector v  = ray.getDir();
+
+        // vector from ray head to sphere center
+        double ux = cx - p0.getX(), uy = cy - p0.getY(), uz = cz - p0.getZ();
 
         // special case: ray starts at the center -> one exit point at distance r
-        if (p0.equals(center)) return of(ray.getPoint(radius));
+        if (isZero(ux) && isZero(uy) && isZero(uz)) {
+            t[offset] = radius;
+            return 1;
+        }
 
-        // general case
-        var    u  = center.subtract(p0);              // vector from ray head to sphere center
-        double tm = v.dotProduct(u);                  // projection of u onto v
-        double d2 = alignZero(u.lengthSquared() - tm * tm);
-        double r2 = radius * radius;
+        double tm = v.getX() * ux + v.getY() * uy + v.getZ() * uz; // projection of u onto v
+        double u2 = ux * ux + uy * uy + uz * uz;
+        // head outside (or on) the sphere and center behind it -> both distances are not positive
+        if (tm <= 0 && alignZero(u2 - radius2) >= 0) return 0;
 
         // no hit if outside or tangent (tangent must be 0 hits by the spec)
-        if (d2 >= r2) return null;
+        double d2 = alignZero(u2 - tm * tm);
+        if (d2 >= radius2) return 0;
 
-        double th = Math.sqrt(r2 - d2);               // half-chord length along the ray
+        double th = Math.sqrt(radius2 - d2);          // half-chord length along the ray
         double t1 = alignZero(tm - th);
         double t2 = alignZero(tm + th);
 
-        // do not include the ray's head (t == 0) - took care of it int he case above
-        boolean hit1 = t1 > 0;
-        boolean hit2 = t2 > 0;
-
-        // calling return of(...) only when 2 intersections
-        if (hit1 && hit2) return of(ray.getPoint(t1), ray.getPoint(t2));
-        // one intersection
-        if (hit1)         return of(ray.getPoint(t1));
-        if (hit2)         return of(ray.getPoint(t2));
-        return null;
+        // do not include the ray's head (t == 0) - took care of it in the case above
+        int n = offset;
+        if (t1 > 0) t[n++] = t1;
+        if (t2 > 0) t[n++] = t2;
+        return n - offset;
     }
 }
@@ -1,10 +1,15 @@
 package geometries;
+import java.io.Serial;
 import java.util.List;
 import primitives.Point;
 import primitives.Ray;
 
 /** Triangle – a polygon with 3 vertices. */
 public class Triangle extends Polygon {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     public Triangle(Point p1, Point p2, Point p3) {
         super(p1, p2, p3);
     }
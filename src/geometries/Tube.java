@@ -2,6 +2,7 @@ package geometries;
 import primitives.*;
 import primitives.Util;
 
+import java.io.Serial;
 import java.util.List;
 import static java.util.List.of;
 import static primitives.Util.alignZero;
@@ -9,11 +10,33 @@ import static primitives.Util.isZero;
 
 /** Infinite tube defined by an axis ray and radius (Stage 1: getNormal returns null). */
 public class Tube extends RadialGeometry {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     protected final Ray axis;
 
+    /** Axis head coordinates, kept raw for the intersection hot path */
+    protected final double ox, oy, oz;
+    /** Axis direction coordinates (unit) */
+    protected final double ax, ay, az;
+
     public Tube(Ray axis, double radius) {
         super(radius);
         this.axis = axis;
+        Point  o = axis.getPoint(0);
+        Vector a = axis.getDir();
+        ox = o.getX();
+        oy = o.getY();
+        oz = o.getZ();
+        ax = a.getX();
+        ay = a.getY();
+        az = a.getZ();
+    }
+
+    /** Getter for the axis ray of the tube. */
+    public Ray getAxis() {
+        return axis;
     }
 
     @Override
@@ -53,52 +76,62 @@ public class Tube extends RadialGeometry {
     /// www.scratchapixel.com/lessons/3d-basic-rendering
     @Override
     public List<Point> findIntersections(Ray ray) {
-        var p0 = ray.getPoint(0);
-        var v  = ray.getDir();
+        double[] t = new double[2];
+        int      n = lateral(ray, t, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        return n == 2 ? of(ray.getPoint(t[0]), ray.getPoint(t[1]))
+                : n == 1 ? of(ray.getPoint(t[0])) : null;
+    }
 
-        var a  = axis.getDir(); // axis (unit)
-        var o  = axis.getPoint(0);  // axis origin
+    /**
+     * Finds the positive distances along the ray where it crosses the lateral surface, with
+     * the axial coordinate of the crossing strictly between the given bounds.
+     * @param  ray ray
+     * @param  t   receives the distances in ascending order (room for 2)
+     * @param  min lower bound of the axial coordinate (exclusive)
+     * @param  max upper bound of the axial coordinate (exclusive)
+     * @return     number of distances written
+     */
+    int lateral(Ray ray, double[] t, double min, double max) {
+        Point  p0 = ray.getPoint(0);
+        Vector v  = ray.getDir();
+        double vx = v.getX(), vy = v.getY(), vz = v.getZ();
 
         // A = |v_perp|^2 = 1 - (v·a)^2  (Ray dir is normalized)
-        double dv = v.dotProduct(a);
+        double dv = vx * ax + vy * ay + vz * az;
         double A  = alignZero(1 - dv * dv);
-        if (isZero(A)) {
-            // Ray parallel to axis → no intersections with lateral surface
-            return null;
-        }
+        // Ray parallel to axis → no intersections with lateral surface
+        if (isZero(A)) return 0;
 
-        // Δ = p0 - o, computed safely (avoid zero vector when equal)
-        double vDotDelta, da, deltaLen2;
-        if (p0.equals(o)) {
-            vDotDelta = 0;
-            da        = 0;
-            deltaLen2 = 0;
-        } else {
-            var delta  = p0.subtract(o);
-            vDotDelta  = v.dotProduct(delta);
-            da         = delta.dotProduct(a);
-            deltaLen2  = delta.lengthSquared();
-        }
+        // Δ = p0 - o
+        double dx = p0.getX() - ox, dy = p0.getY() - oy, dz = p0.getZ() - oz;
+        double da = dx * ax + dy * ay + dz * az;
 
         // Quadratic coefficients with B' (not 2B)
-        double Bp = vDotDelta - dv * da;
-        double C  = deltaLen2 - da * da - radius * radius;
+        double Bp = vx * dx + vy * dy + vz * dz - dv * da;
+        double C  = dx * dx + dy * dy + dz * dz - da * da - radius2;
 
         double D = alignZero(Bp * Bp - A * C);
-        if (D <= 0) return null; // miss or tangent → 0 hits
+        if (D <= 0) return 0; // miss or tangent → 0 hits
 
         double sqrtD = Math.sqrt(D);
-        double t1 = alignZero((-Bp - sqrtD) / A);
-        double t2 = alignZero((-Bp + sqrtD) / A);
-
-        boolean h1 = t1 > 0;
-        boolean h2 = t2 > 0;
+        int    n     = 0;
+        double t1    = alignZero((-Bp - sqrtD) / A); // t1 < t2
+        double t2    = alignZero((-Bp + sqrtD) / A);
+        if (t1 > 0 && inside(da + t1 * dv, min, max)) t[n++] = t1;
+        if (t2 > 0 && inside(da + t2 * dv, min, max)) t[n++] = t2;
+        return n;
+    }
 
-        if (h1 && h2) return of(ray.getPoint(t1), ray.getPoint(t2)); // t1 < t2
-        if (h1)       return of(ray.getPoint(t1));
-        if (h2)       return of(ray.getPoint(t2));
-        return null;
+    /**
+     * Checks an axial coordinate is strictly between the bounds.
+     * @param  s   the axial coordinate
+     * @param  min lower bound
+     * @param  max upper bound
+     * @return     true if inside
+     */
+    private static boolean inside(double s, double min, double max) {
+        s = alignZero(s);
+        return s > min && s < max;
     }
 
 }
-
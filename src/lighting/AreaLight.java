@@ -0,0 +1,81 @@
+package lighting;
+
+import primitives.Color;
+import primitives.Point;
+import primitives.Vector;
+
+import static primitives.Util.isZero;
+
+import java.io.Serial;
+
+/**
+ * A rectangular light: a parallelogram around a center, spanned by two edge vectors, lighting
+ * as a point light at its center but casting soft shadows - the part of the rectangle a point
+ * sees scales the light the point gets.
+ *
+ * <p>The visibility is estimated adaptively by the ray tracer: the corners and the center of
+ * the rectangle are tested first, and only a point that sees some of them but not all - in
+ * the penumbra - gets a jittered grid of {@link #getGrid()}² more shadow rays. A blocker
+ * smaller than the rectangle that hides none of the five first samples is missed.</p>
+ * @author Ido
+ */
+public class AreaLight extends PointLight {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** Default size of the penumbra sampling grid */
+    private static final int DEFAULT_GRID = 8;
+
+    /** First edge vector */
+    private final Vector u;
+    /** Second edge vector */
+    private final Vector v;
+    /** Size of the penumbra sampling grid */
+    private int          grid = DEFAULT_GRID;
+
+    /**
+     * Constructor of an area light.
+     * @param  intensity the intensity
+     * @param  center    the rectangle center
+     * @param  u         first edge vector (its length is the edge length)
+     * @param  v         second edge vector (its length is the edge length)
+     * @throws IllegalArgumentException if the edges are parallel
+     */
+    public AreaLight(Color intensity, Point center, Vector u, Vector v) {
+        super(intensity, center);
+        double uv = u.dotProduct(v);
+        if (isZero(uv * uv - u.lengthSquared() * v.lengthSquared()))
+            throw new IllegalArgumentException("Area light edges cannot be parallel");
+        this.u = u;
+        this.v = v;
+    }
+
+    /**
+     * Setter of the penumbra sampling grid size.
+     * @param  grid the grid size (grid² shadow rays for a penumbra point)
+     * @return      this light
+     */
+    public AreaLight setGrid(int grid) {
+        if (grid < 2) throw new IllegalArgumentException("Area light grid must be at least 2");
+        this.grid = grid;
+        return this;
+    }
+
+    /** @return the size of the penumbra sampling grid */
+    public int getGrid() { return grid; }
+
+    /**
+     * A point of the rectangle.
+     * @param  s position along the first edge, 0..1
+     * @param  t position along the second edge, 0..1
+     * @return   the point
+     */
+    public Point getPoint(double s, double t) {
+        s -= 0.5;
+        t -= 0.5;
+        return new Point(position.getX() + s * u.getX() + t * v.getX(),
+                position.getY() + s * u.getY() + t * v.getY(),
+                position.getZ() + s * u.getZ() + t * v.getZ());
+    }
+}
@@ -0,0 +1,39 @@
+package lighting;
+
+import primitives.Color;
+import primitives.Point;
+import primitives.Vector;
+
+import java.io.Serial;
+
+/**
+ * A light from a far away source (as the sun): the same intensity and direction everywhere.
+ * @author Ido
+ */
+public class DirectionalLight extends Light implements LightSource {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** The light direction (unit) */
+    private final Vector direction;
+
+    /**
+     * Constructor of a directional light.
+     * @param intensity the intensity
+     * @param direction the light direction
+     */
+    public DirectionalLight(Color intensity, Vector direction) {
+        super(intensity);
+        this.direction = direction.normalize();
+    }
+
+    @Override
+    public Color getIntensity(Point p) { return intensity; }
+
+    @Override
+    public Vector getL(Point p) { return direction; }
+
+    @Override
+    public double getDistance(Point p) { return Double.POSITIVE_INFINITY; }
+}
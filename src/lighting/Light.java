@@ -0,0 +1,31 @@
+package lighting;
+
+import primitives.Color;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Base class of the lights: a light has an intensity.
+ * @author Ido
+ */
+abstract class Light implements Serializable {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** The light intensity */
+    protected final Color intensity;
+
+    /**
+     * Constructor of a light with the given intensity.
+     * @param intensity the intensity
+     */
+    protected Light(Color intensity) {
+        if (intensity == null) throw new IllegalArgumentException("Light intensity cannot be null");
+        this.intensity = intensity;
+    }
+
+    /** @return the light intensity */
+    public Color getIntensity() { return intensity; }
+}
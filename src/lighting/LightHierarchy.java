@@ -0,0 +1,260 @@
+package lighting;
+
+import primitives.Color;
+import primitives.Point;
+import primitives.Vector;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Bounding hierarchy over the positioned lights of a scene, for sampling a few important
+ * lights at a point instead of shading with all of them.
+ *
+ * <p>Every node bounds its lights by a box of their positions, their total power and a
+ * cone holding the directions they emit to (the whole sphere for point lights, the spot
+ * direction for spot lights, which do not light the half space behind them). Sampling walks
+ * down from the root, choosing a child with probability proportional to its importance at the
+ * point - power over squared distance, times a conservative bound of the emission cosine - and
+ * returns the leaf light with the product of the choices. A light gets zero probability only
+ * when its emission cone surely misses the point, so dividing a sampled light's contribution
+ * by its probability is an unbiased estimate of the sum over all the lights.</p>
+ *
+ * <p>Lights with no position (as {@link DirectionalLight}) are not in the hierarchy; they are
+ * kept apart as global lights for shading at every point.</p>
+ * @author Ido
+ */
+public final class LightHierarchy implements Serializable {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * A sampled light with the probability it was chosen with.
+     * @param light       the light
+     * @param probability the probability
+     */
+    public record Sample(PointLight light, double probability) { }
+
+    /** The positioned lights, in tree order */
+    private final PointLight[]      lights;
+    /** The lights with no position */
+    private final LightSource[]     global;
+    /** Node boxes: min x, y, z, max x, y, z */
+    private final double[]          bounds;
+    /** Node total power */
+    private final double[]          power;
+    /** Node emission cones: axis x, y, z, half angle */
+    private final double[]          cones;
+    /** Right child of an inner node (the left child is the next node), -1 - light index for a leaf */
+    private final int[]             right;
+
+    /**
+     * Builds the hierarchy.
+     * @param lights the scene lights
+     */
+    private LightHierarchy(List<LightSource> lights) {
+        List<PointLight> positioned = new ArrayList<>();
+        List<LightSource> others    = new ArrayList<>();
+        for (LightSource light : lights)
+            if (light instanceof PointLight point) positioned.add(point);
+            else others.add(light);
+        this.lights = positioned.toArray(new PointLight[0]);
+        this.global = others.toArray(new LightSource[0]);
+
+        int nodes = Math.max(0, 2 * this.lights.length - 1);
+        bounds = new double[6 * nodes];
+        power  = new double[nodes];
+        cones  = new double[4 * nodes];
+        right  = new int[nodes];
+        if (nodes > 0) build(0, 0, this.lights.length);
+    }
+
+    /**
+     * Builds the hierarchy over the scene lights.
+     * @param  lights the scene lights
+     * @return        the hierarchy
+     */
+    public static LightHierarchy build(List<LightSource> lights) {
+        if (lights == null) throw new IllegalArgumentException("Lights cannot be null");
+        return new LightHierarchy(lights);
+    }
+
+    /** @return the lights with no position, to be shaded with at every point */
+    public List<LightSource> getGlobalLights() { return List.of(global); }
+
+    /** @return number of the positioned lights in the hierarchy */
+    public int getLightCount() { return lights.length; }
+
+    /**
+     * The positioned lights, for shading with all of them.
+     * @return the lights
+     */
+    public List<PointLight> getLights() { return List.of(lights); }
+
+    /**
+     * Samples a positioned light by its importance at a point.
+     * @param  p the point
+     * @param  u uniform random number in [0, 1)
+     * @return   the light and its probability, null if no light can light the point
+     */
+    public Sample sample(Point p, double u) {
+        if (lights.length == 0) return null;
+        double px = p.getX(), py = p.getY(), pz = p.getZ();
+        int    node        = 0;
+        double probability = 1;
+        while (right[node] >= 0) {
+            double left  = importance(node + 1, px, py, pz);
+            double other = importance(right[node], px, py, pz);
+            if (left + other <= 0) return null;
+            double chance = left / (left + other);
+            if (u < chance) {
+                node        += 1;
+                probability *= chance;
+                u           /= chance;
+            } else {
+                node        = right[node];
+                probability *= 1 - chance;
+                u           = (u - chance) / (1 - chance);
+            }
+            u = Math.min(u, Math.nextDown(1.0)); // rounding must not push it out of [0, 1)
+        }
+        return new Sample(lights[-1 - right[node]], probability);
+    }
+
+    /**
+     * Importance of a node at a point.
+     * @param  node the node
+     * @param  px   point x
+     * @param  py   point y
+     * @param  pz   point z
+     * @return      the importance, 0 if no light of the node can light the point
+     */
+    private double importance(int node, double px, double py, double pz) {
+        int    b     = 6 * node;
+        double dx    = px - (bounds[b] + bounds[b + 3]) / 2;
+        double dy    = py - (bounds[b + 1] + bounds[b + 4]) / 2;
+        double dz    = pz - (bounds[b + 2] + bounds[b + 5]) / 2;
+        double ex    = bounds[b + 3] - bounds[b], ey = bounds[b + 4] - bounds[b + 1], ez = bounds[b + 5] - bounds[b + 2];
+        double half2 = (ex * ex + ey * ey + ez * ez) / 4; // squared radius of the box bounding sphere
+        double d2    = dx * dx + dy * dy + dz * dz;
+
+        double cosine = 1;
+        int    c      = 4 * node;
+        if (cones[c + 3] < Math.PI && d2 > half2) {
+            // angle between the cone axis and the point, less the cone and the box as seen from the point
+            double d     = Math.sqrt(d2);
+            double theta = Math.acos(Math.max(-1, Math.min(1, (cones[c] * dx + cones[c + 1] * dy + cones[c + 2] * dz) / d)));
+            double rest  = theta - cones[c + 3] - Math.asin(Math.sqrt(half2) / d);
+            if (rest >= Math.PI / 2) return 0;
+            if (rest > 0) cosine = Math.cos(rest);
+        }
+        return power[node] * cosine / Math.max(d2, half2);
+    }
+
+    /**
+     * Builds the subtree of a range of lights (reordering them) into a node and the nodes after it.
+     * @param  node the node
+     * @param  from first light (inclusive)
+     * @param  to   last light (exclusive)
+     * @return      the first node after the subtree
+     */
+    private int build(int node, int from, int to) {
+        if (to - from == 1) {
+            PointLight light = lights[from];
+            Point      p     = light.getPosition();
+            int        b     = 6 * node;
+            bounds[b] = bounds[b + 3] = p.getX();
+            bounds[b + 1] = bounds[b + 4] = p.getY();
+            bounds[b + 2] = bounds[b + 5] = p.getZ();
+            Color intensity = light.getIntensity();
+            power[node] = (intensity.getRed() + intensity.getGreen() + intensity.getBlue()) / 3;
+            Vector axis = light instanceof SpotLight spot ? spot.getDirection() : Vector.AXIS_Z;
+            cones[4 * node]     = axis.getX();
+            cones[4 * node + 1] = axis.getY();
+            cones[4 * node + 2] = axis.getZ();
+            cones[4 * node + 3] = light instanceof SpotLight ? 0 : Math.PI;
+            right[node] = -1 - from;
+            return node + 1;
+        }
+
+        // split at the median of the longest axis of the light positions
+        double[] box = new double[6];
+        Arrays.fill(box, 0, 3, Double.POSITIVE_INFINITY);
+        Arrays.fill(box, 3, 6, Double.NEGATIVE_INFINITY);
+        for (int k = from; k < to; ++k) {
+            Point p = lights[k].getPosition();
+            for (int axis = 0; axis < 3; ++axis) {
+                double v = coordinate(p, axis);
+                box[axis]     = Math.min(box[axis], v);
+                box[axis + 3] = Math.max(box[axis + 3], v);
+            }
+        }
+        int longest = 0;
+        for (int axis = 1; axis < 3; ++axis)
+            if (box[axis + 3] - box[axis] > box[longest + 3] - box[longest]) longest = axis;
+        int axis = longest;
+        Arrays.sort(lights, from, to, Comparator.comparingDouble(light -> coordinate(light.getPosition(), axis)));
+
+        int middle = (from + to) >>> 1;
+        int other  = build(node + 1, from, middle);
+        int next   = build(other, middle, to);
+        right[node] = other;
+
+        int b = 6 * node, l = 6 * (node + 1), r = 6 * other;
+        for (int k = 0; k < 3; ++k) {
+            bounds[b + k]     = Math.min(bounds[l + k], bounds[r + k]);
+            bounds[b + k + 3] = Math.max(bounds[l + k + 3], bounds[r + k + 3]);
+        }
+        power[node] = power[node + 1] + power[other];
+        union(4 * (node + 1), 4 * other, 4 * node);
+        return next;
+    }
+
+    /**
+     * Writes the smallest cone holding two cones.
+     * @param a   first cone
+     * @param b   second cone
+     * @param out the union cone
+     */
+    private void union(int a, int b, int out) {
+        if (cones[a + 3] < cones[b + 3]) { int t = a; a = b; b = t; } // a is the wider
+        double cosD   = cones[a] * cones[b] + cones[a + 1] * cones[b + 1] + cones[a + 2] * cones[b + 2];
+        double thetaD = Math.acos(Math.max(-1, Math.min(1, cosD)));
+        double thetaA = cones[a + 3], thetaB = cones[b + 3];
+        System.arraycopy(cones, a, cones, out, 4);
+        if (thetaA >= Math.PI || Math.min(thetaD + thetaB, Math.PI) <= thetaA) return; // b is inside a
+
+        double thetaO = (thetaA + thetaD + thetaB) / 2;
+        double sinD   = Math.sin(thetaD);
+        if (thetaO >= Math.PI || sinD < 1e-9) { // whole sphere, or opposite axes
+            cones[out + 3] = Math.PI;
+            return;
+        }
+        // rotate the axis of a towards the axis of b
+        double thetaR = thetaO - thetaA;
+        double wa     = Math.sin(thetaD - thetaR) / sinD, wb = Math.sin(thetaR) / sinD;
+        double x      = wa * cones[a] + wb * cones[b];
+        double y      = wa * cones[a + 1] + wb * cones[b + 1];
+        double z      = wa * cones[a + 2] + wb * cones[b + 2];
+        double length = Math.sqrt(x * x + y * y + z * z);
+        cones[out]     = x / length;
+        cones[out + 1] = y / length;
+        cones[out + 2] = z / length;
+        cones[out + 3] = thetaO;
+    }
+
+    /**
+     * A coordinate of a point.
+     * @param  p    the point
+     * @param  axis the axis (0 - x, 1 - y, 2 - z)
+     * @return      the coordinate
+     */
+    private static double coordinate(Point p, int axis) {
+        return axis == 0 ? p.getX() : axis == 1 ? p.getY() : p.getZ();
+    }
+}
@@ -0,0 +1,34 @@
+package lighting;
+
+import primitives.Color;
+import primitives.Point;
+import primitives.Vector;
+
+import java.io.Serializable;
+
+/**
+ * A light source lighting the scene geometries directly.
+ * @author Ido
+ */
+public interface LightSource extends Serializable {
+    /**
+     * The intensity of the light arriving at a point.
+     * @param  p the point
+     * @return   the intensity
+     */
+    Color getIntensity(Point p);
+
+    /**
+     * The direction of the light arriving at a point (from the light towards the point).
+     * @param  p the point
+     * @return   the unit direction
+     */
+    Vector getL(Point p);
+
+    /**
+     * The distance between the light and a point.
+     * @param  p the point
+     * @return   the distance, infinity for a light with no position
+     */
+    double getDistance(Point p);
+}
@@ -0,0 +1,83 @@
+package lighting;
+
+import primitives.Color;
+import primitives.Point;
+import primitives.Vector;
+
+import java.io.Serial;
+
+/**
+ * A light emitted from a point in all the directions, attenuated with the distance by
+ * {@code 1 / (kC + kL * d + kQ * d^2)}. The attenuation setters return the light itself to
+ * allow chaining.
+ * @author Ido
+ */
+public class PointLight extends Light implements LightSource {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** The light position */
+    protected final Point position;
+    /** Constant attenuation factor */
+    private double kC = 1;
+    /** Linear attenuation factor */
+    private double kL = 0;
+    /** Quadratic attenuation factor */
+    private double kQ = 0;
+
+    /**
+     * Constructor of a point light.
+     * @param intensity the intensity
+     * @param position  the light position
+     */
+    public PointLight(Color intensity, Point position) {
+        super(intensity);
+        this.position = position;
+    }
+
+    /**
+     * Setter of the constant attenuation factor.
+     * @param  kC the factor
+     * @return    this light
+     */
+    public PointLight setKc(double kC) {
+        this.kC = kC;
+        return this;
+    }
+
+    /**
+     * Setter of the linear attenuation factor.
+     * @param  kL the factor
+     * @return    this light
+     */
+    public PointLight setKl(double kL) {
+        this.kL = kL;
+        return this;
+    }
+
+    /**
+     * Setter of the quadratic attenuation factor.
+     * @param  kQ the factor
+     * @return    this light
+     */
+    public PointLight setKq(double kQ) {
+        this.kQ = kQ;
+        return this;
+    }
+
+    /** @return the light position */
+    public Point getPosition() { return position; }
+
+    @Override
+    public Color getIntensity(Point p) {
+        double d = p.distance(position);
+        return intensity.reduce(kC + kL * d + kQ * d * d);
+    }
+
+    @Override
+    public Vector getL(Point p) { return p.subtract(position).normalize(); }
+
+    @Override
+    public double getDistance(Point p) { return p.distance(position); }
+}
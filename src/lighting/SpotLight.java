@@ -0,0 +1,41 @@
+package lighting;
+
+import primitives.Color;
+import primitives.Point;
+import primitives.Vector;
+
+import java.io.Serial;
+
+/**
+ * A point light shining in a direction: its intensity is scaled by the cosine of the angle
+ * between the direction and the light ray, and it does not light the half space behind it.
+ * @author Ido
+ */
+public class SpotLight extends PointLight {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** The spot direction (unit) */
+    private final Vector direction;
+
+    /**
+     * Constructor of a spot light.
+     * @param intensity the intensity
+     * @param position  the light position
+     * @param direction the spot direction
+     */
+    public SpotLight(Color intensity, Point position, Vector direction) {
+        super(intensity, position);
+        this.direction = direction.normalize();
+    }
+
+    /** @return the spot direction */
+    public Vector getDirection() { return direction; }
+
+    @Override
+    public Color getIntensity(Point p) {
+        double cos = direction.dotProduct(getL(p));
+        return cos <= 0 ? Color.BLACK : super.getIntensity(p).scale(cos);
+    }
+}
@@ -0,0 +1,140 @@
+package primitives;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Wrapper class for a color with RGB components, using {@link Double3} for the
+ * values. Components are in the 0..255 scale, but may exceed 255 while colors are
+ * accumulated (high dynamic range); they are clamped only when converted to a pixel.
+ * All instances are immutable.
+ * @author Ido
+ */
+public class Color implements Serializable {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** Black color = (0,0,0) */
+    public static final Color BLACK = new Color(Double3.ZERO);
+
+    /** The RGB components */
+    private final Double3 rgb;
+
+    /**
+     * Constructor to generate a color from its three components.
+     * @param  r red component
+     * @param  g green component
+     * @param  b blue component
+     * @throws IllegalArgumentException if any component is negative
+     */
+    public Color(double r, double g, double b) {
+        if (r < 0 || g < 0 || b < 0) throw new IllegalArgumentException("Negative color component is illegal");
+        rgb = new Double3(r, g, b);
+    }
+
+    /**
+     * Constructor to generate a color from a triad of already validated components.
+     * @param rgb the components
+     */
+    private Color(Double3 rgb) { this.rgb = rgb; }
+
+    /** @return red component */
+    public double getRed() { return rgb.d1(); }
+
+    /** @return green component */
+    public double getGreen() { return rgb.d2(); }
+
+    /** @return blue component */
+    public double getBlue() { return rgb.d3(); }
+
+    /**
+     * Converts the color into a packed 24-bit pixel value (0xRRGGBB),
+     * clamping every component to the 0..255 range.
+     * @return the packed pixel
+     */
+    public int getRGB() { return toRGB(rgb.d1(), rgb.d2(), rgb.d3()); }
+
+    /**
+     * Packs three color components into a 24-bit pixel value (0xRRGGBB),
+     * clamping every component to the 0..255 range.
+     * @param  r red component
+     * @param  g green component
+     * @param  b blue component
+     * @return   the packed pixel
+     */
+    public static int toRGB(double r, double g, double b) {
+        return clamp(r) << 16 | clamp(g) << 8 | clamp(b);
+    }
+
+    /**
+     * Clamps a component into the 0..255 byte range.
+     * @param  c component
+     * @return   clamped value
+     */
+    private static int clamp(double c) {
+        int value = (int) c;
+        return value < 0 ? 0 : Math.min(value, 255);
+    }
+
+    /**
+     * Sum this color with other colors into a new color.
+     * @param  colors the colors to add
+     * @return        new color which is the sum
+     */
+    public Color add(Color... colors) {
+        double r = rgb.d1(), g = rgb.d2(), b = rgb.d3();
+        for (Color c : colors) {
+            r += c.rgb.d1();
+            g += c.rgb.d2();
+            b += c.rgb.d3();
+        }
+        return new Color(new Double3(r, g, b));
+    }
+
+    /**
+     * Scale the color by a non-negative factor.
+     * @param  k scale factor
+     * @return   new color
+     * @throws IllegalArgumentException if the factor is negative
+     */
+    public Color scale(double k) {
+        if (k < 0) throw new IllegalArgumentException("Can't scale a color by a negative number");
+        return new Color(rgb.scale(k));
+    }
+
+    /**
+     * Scale the color by a non-negative factor per component.
+     * @param  k scale factors
+     * @return   new color
+     * @throws IllegalArgumentException if any factor is negative
+     */
+    public Color scale(Double3 k) {
+        if (k.d1() < 0 || k.d2() < 0 || k.d3() < 0)
+            throw new IllegalArgumentException("Can't scale a color by a negative number");
+        return new Color(rgb.product(k));
+    }
+
+    /**
+     * Reduce (divide) the color by a positive number.
+     * @param  k reduction factor
+     * @return   new color
+     * @throws IllegalArgumentException if the factor is not positive
+     */
+    public Color reduce(double k) {
+        if (k <= 0) throw new IllegalArgumentException("Can't reduce a color by a non-positive number");
+        return new Color(rgb.reduce(k));
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        return (obj instanceof Color other) && rgb.equals(other.rgb);
+    }
+
+    @Override
+    public int hashCode() { return rgb.hashCode(); }
+
+    @Override
+    public String toString() { return "rgb:" + rgb; }
+}
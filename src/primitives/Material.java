@@ -0,0 +1,142 @@
+package primitives;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Surface material of a geometry: the attenuation factors of the ambient, diffuse,
+ * specular, transparency and reflection effects (per color component) and the shininess.
+ * The setters return the material itself to allow chaining.
+ * @author Ido
+ */
+public class Material implements Serializable {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** Ambient attenuation factor */
+    private Double3 kA         = Double3.ONE;
+    /** Diffuse attenuation factor */
+    private Double3 kD         = Double3.ZERO;
+    /** Specular attenuation factor */
+    private Double3 kS         = Double3.ZERO;
+    /** Transparency attenuation factor */
+    private Double3 kT         = Double3.ZERO;
+    /** Reflection attenuation factor */
+    private Double3 kR         = Double3.ZERO;
+    /** Shininess exponent of the specular effect */
+    private int     nShininess = 0;
+
+    /**
+     * Setter of the ambient attenuation factor.
+     * @param  kA the factor
+     * @return    this material
+     */
+    public Material setKA(Double3 kA) {
+        this.kA = kA;
+        return this;
+    }
+
+    /**
+     * Setter of the ambient attenuation factor.
+     * @param  kA the factor for all the color components
+     * @return    this material
+     */
+    public Material setKA(double kA) { return setKA(new Double3(kA)); }
+
+    /**
+     * Setter of the diffuse attenuation factor.
+     * @param  kD the factor
+     * @return    this material
+     */
+    public Material setKD(Double3 kD) {
+        this.kD = kD;
+        return this;
+    }
+
+    /**
+     * Setter of the diffuse attenuation factor.
+     * @param  kD the factor for all the color components
+     * @return    this material
+     */
+    public Material setKD(double kD) { return setKD(new Double3(kD)); }
+
+    /**
+     * Setter of the specular attenuation factor.
+     * @param  kS the factor
+     * @return    this material
+     */
+    public Material setKS(Double3 kS) {
+        this.kS = kS;
+        return this;
+    }
+
+    /**
+     * Setter of the specular attenuation factor.
+     * @param  kS the factor for all the color components
+     * @return    this material
+     */
+    public Material setKS(double kS) { return setKS(new Double3(kS)); }
+
+    /**
+     * Setter of the transparency attenuation factor.
+     * @param  kT the factor
+     * @return    this material
+     */
+    public Material setKT(Double3 kT) {
+        this.kT = kT;
+        return this;
+    }
+
+    /**
+     * Setter of the transparency attenuation factor.
+     * @param  kT the factor for all the color components
+     * @return    this material
+     */
+    public Material setKT(double kT) { return setKT(new Double3(kT)); }
+
+    /**
+     * Setter of the reflection attenuation factor.
+     * @param  kR the factor
+     * @return    this material
+     */
+    public Material setKR(Double3 kR) {
+        this.kR = kR;
+        return this;
+    }
+
+    /**
+     * Setter of the reflection attenuation factor.
+     * @param  kR the factor for all the color components
+     * @return    this material
+     */
+    public Material setKR(double kR) { return setKR(new Double3(kR)); }
+
+    /**
+     * Setter of the shininess exponent.
+     * @param  nShininess the exponent
+     * @return            this material
+     */
+    public Material setShininess(int nShininess) {
+        this.nShininess = nShininess;
+        return this;
+    }
+
+    /** @return ambient attenuation factor */
+    public Double3 getKA() { return kA; }
+
+    /** @return diffuse attenuation factor */
+    public Double3 getKD() { return kD; }
+
+    /** @return specular attenuation factor */
+    public Double3 getKS() { return kS; }
+
+    /** @return transparency attenuation factor */
+    public Double3 getKT() { return kT; }
+
+    /** @return reflection attenuation factor */
+    public Double3 getKR() { return kR; }
+
+    /** @return shininess exponent */
+    public int getShininess() { return nShininess; }
+}
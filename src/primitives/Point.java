@@ -1,7 +1,14 @@
 package primitives;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 /** A 3D point represented by a Double3 triple. */
-public class Point {
+public class Point implements Serializable {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     final protected Double3 xyz;
     final public static Point ZERO = new Point(0, 0, 0);
 
@@ -15,6 +22,15 @@ public class Point {
         this.xyz = _xyz;
     }
 
+    /** X coordinate of the point. */
+    public double getX() { return xyz.d1(); }
+
+    /** Y coordinate of the point. */
+    public double getY() { return xyz.d2(); }
+
+    /** Z coordinate of the point. */
+    public double getZ() { return xyz.d3(); }
+
     /** Vector from another point to this point (this - other). */
     public Vector subtract(Point other) {
         return new Vector(this.xyz.subtract(other.xyz));
@@ -1,12 +1,22 @@
 package primitives;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 /**
  * Class Ray represents a ray in 3D Cartesian coordinate system.
  * A ray is defined by a starting point (p0) and a normalized direction vector (dir).
  * All instances are immutable.
  * @author Ido
  */
-public class Ray {
+public class Ray implements Serializable {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** Distance a secondary ray head is moved off the surface it starts on */
+    private static final double DELTA = 0.1;
+
     /** Starting point of the ray */
     private final Point p0;
 
@@ -24,6 +34,20 @@ public class Ray {
         this.dir = dir.normalize(); // must be unit vector
     }
 
+    /**
+     * Constructs a secondary ray leaving a surface: the head is moved by {@link #DELTA}
+     * along the surface normal, to the side the ray goes to, so the ray does not hit the
+     * surface it starts on.
+     * @param head   point on the surface
+     * @param dir    direction vector (will be normalized internally)
+     * @param normal surface normal at the point
+     */
+    public Ray(Point head, Vector dir, Vector normal) {
+        double nv = normal.dotProduct(dir);
+        this.p0  = Util.isZero(nv) ? head : head.add(normal.scale(nv > 0 ? DELTA : -DELTA));
+        this.dir = dir.normalize();
+    }
+
     /**
      * Calculate a point on the rays line at a distance t from the head
      *
@@ -1,6 +1,11 @@
 package primitives;
 
+import java.io.Serial;
+
 public class Vector extends Point {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
 
     public static Vector AXIS_X = new Vector(1, 0, 0);
     public static Vector AXIS_Y = new Vector(0, 1, 0);
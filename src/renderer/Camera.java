@@ -1,10 +1,18 @@
 package renderer;
 
+import geometries.Geometries;
+import primitives.Color;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
 import java.util.MissingResourceException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
 
 import static primitives.Util.isZero;
 
@@ -20,7 +28,17 @@ import static primitives.Util.isZero;
  *
  * @author Ido Shamir
  */
-public class Camera implements Cloneable {
+public class Camera implements Cloneable, Serializable {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** Pixel step of the first (coarsest) progressive render pass - 1/16 of the pixels */
+    private static final int    COARSEST_STEP = 4;
+    /** R2 sequence X increment: 1/g where g is the plastic number (g³ = g + 1) */
+    private static final double R2_X          = 0.7548776662466927;
+    /** R2 sequence Y increment: 1/g² */
+    private static final double R2_Y          = 0.5698402909980532;
 
     // --- Pose ---
     private Point  p0;            // camera location
@@ -37,6 +55,12 @@ public class Camera implements Cloneable {
     private int nX;
     private int nY;
 
+    // --- Rendering ---
+    private RayTracerBase rayTracer;          // colors the primary rays
+    private int           tileSize     = 16;  // tile edge in pixels
+    private int           threadsCount = 1;   // render threads
+    private boolean       frustumCulling = false; // cull geometries out of each tile's frustum
+
     /** Default ctor — start "empty"; populate only via Builder. */
     private Camera() { }
 
@@ -45,6 +69,30 @@ public class Camera implements Cloneable {
         return new Builder();
     }
 
+    /** @return camera location (P0) */
+    public Point getLocation() { return p0; }
+
+    /** @return forward direction (unit) */
+    public Vector getVTo() { return vTo; }
+
+    /** @return up direction (unit) */
+    public Vector getVUp() { return vUp; }
+
+    /** @return view-plane width */
+    public double getVpWidth() { return vpWidth; }
+
+    /** @return view-plane height */
+    public double getVpHeight() { return vpHeight; }
+
+    /** @return view-plane distance from the camera */
+    public double getVpDistance() { return vpDistance; }
+
+    /** @return image width in pixels (0 if the resolution was not set) */
+    public int getNX() { return nX; }
+
+    /** @return image height in pixels (0 if the resolution was not set) */
+    public int getNY() { return nY; }
+
     /**
      * Construct a primary ray through the center of pixel (i,j) on an nX×nY view plane.
      * Implements the DZ “Ray Construction through a Pixel” formulas.
@@ -58,6 +106,24 @@ public class Camera implements Cloneable {
      * @throws IllegalArgumentException for bad indices or non-positive nX/nY
      */
     public Ray constructRay(int nX, int nY, int j, int i) {
+        return constructRay(nX, nY, j, i, 0, 0);
+    }
+
+    /**
+     * Construct a primary ray through a point inside pixel (i,j) on an nX×nY view plane,
+     * shifted from the pixel center by a fraction of the pixel size (for multi-sampling).
+     *
+     * @param nX number of columns (pixels in X)
+     * @param nY number of rows    (pixels in Y)
+     * @param j  column index [0..nX-1]
+     * @param i  row    index [0..nY-1]
+     * @param dx horizontal shift in pixel widths [-0.5..0.5], positive to the right
+     * @param dy vertical shift in pixel heights [-0.5..0.5], positive downwards
+     * @return the ray from camera through that point of the pixel
+     * @throws IllegalStateException if pose/VP not fully initialized
+     * @throws IllegalArgumentException for bad indices or non-positive nX/nY
+     */
+    public Ray constructRay(int nX, int nY, int j, int i, double dx, double dy) {
         // Basic guards
         if (p0 == null || vTo == null || vUp == null || vRight == null)
             throw new IllegalStateException("Camera basis/position not initialized");
@@ -75,8 +141,8 @@ public class Camera implements Cloneable {
         Point pc = p0.add(vTo.scale(vpDistance));
 
         // Offsets to pixel center
-        double xShift = (j - (nX - 1) / 2.0) * rX;
-        double yShift = (i - (nY - 1) / 2.0) * rY;
+        double xShift = (j + dx - (nX - 1) / 2.0) * rX;
+        double yShift = (i + dy - (nY - 1) / 2.0) * rY;
 
         // Pij = PC + xShift*vRight - yShift*vUp  (minus because rows go downward)
         Point pij = pc;
@@ -85,9 +151,436 @@ public class Camera implements Cloneable {
 
         // Ray direction
         Vector dir = pij.subtract(p0); // your Vector(Point) ctor guarantees non-zero; Ray will normalize
+        RenderStats.countRay();
         return new Ray(p0, dir);
     }
 
+    /**
+     * Render the whole image into memory.
+     * @return the image colors, indexed [row i][column j]
+     * @throws MissingResourceException if the resolution or the ray tracer were not set
+     * @see #renderImage(TileSink)
+     */
+    public Color[][] renderImage() {
+        checkRenderable();
+        Color[][] image = new Color[nY][nX];
+        renderImage((tile, pixels) -> {
+            for (int r = 0; r < tile.height(); ++r)
+                System.arraycopy(pixels, r * tile.width(), image[tile.y() + r], tile.x(), tile.width());
+        });
+        return image;
+    }
+
+    /**
+     * Render the whole image: a primary ray through the center of every pixel, colored by the
+     * ray tracer. The image is split into tiles which the render threads take in row-major
+     * order, and every finished tile is handed to the sink - so the image never has to be
+     * kept whole in memory. With {@code -Drenderer.stats=true} the render statistics are reset
+     * at the start and their summary is printed at the end (see {@link RenderStats}), so the
+     * summary is of this render alone; the frame and each tile are reported
+     * to the Flight Recorder (see {@link RenderEvents}).
+     * @param  sink receiver of the finished tiles
+     * @throws MissingResourceException if the resolution or the ray tracer were not set
+     */
+    public void renderImage(TileSink sink) {
+        checkRenderable();
+        var event = new RenderEvents.FrameRender();
+        event.begin();
+        if (RenderStats.ENABLED) RenderStats.global().reset();
+        long start = System.nanoTime();
+        List<Tile> tiles = Tile.split(nX, nY, tileSize);
+        forEachTile(tiles.size(), t -> sink.tileDone(tiles.get(t), renderTile(tiles.get(t), 0)));
+
+        if (event.shouldCommit()) {
+            event.width   = nX;
+            event.height  = nY;
+            event.pixels  = (long) nX * nY;
+            event.threads = threadsCount;
+            event.commit();
+        }
+        if (RenderStats.ENABLED)
+            System.out.print(RenderStats.global().snapshot().summary(System.nanoTime() - start));
+    }
+
+    /**
+     * Progressive multi-resolution render for fast previews. The image is rendered in three
+     * passes over the pixel grid, with steps of 4, 2 and 1 pixels: the first pass traces
+     * 1/16 of the pixels, the second brings it to 1/4, and the last pass completes it.
+     * Every traced color is written into its whole step×step block of the frame buffer, so
+     * after each pass the buffer holds a complete (upsampled) image, and the listener is
+     * notified. A pixel traced in a coarse pass is never traced again - the total work is
+     * exactly one primary ray per pixel, as in {@link #renderImage(TileSink)}.
+     * @param  buffer   frame buffer of the camera resolution; the pixels are replaced
+     * @param  listener notified with the pass step (4, 2, 1) after each pass, may be null
+     * @throws MissingResourceException if the resolution or the ray tracer were not set
+     */
+    public void renderProgressive(FrameBuffer buffer, IntConsumer listener) {
+        checkRenderable();
+        if (buffer.getWidth() != nX || buffer.getHeight() != nY)
+            throw new IllegalArgumentException("Frame buffer size must match the camera resolution");
+        // tiles aligned to the coarsest step, so no block crosses into another thread's tile
+        List<Tile> tiles = Tile.split(nX, nY, (tileSize + COARSEST_STEP - 1) / COARSEST_STEP * COARSEST_STEP);
+        for (int step = COARSEST_STEP; step >= 1; step /= 2) {
+            int pass = step;
+            forEachTile(tiles.size(), t -> renderPassTile(tiles.get(t), pass, buffer));
+            if (listener != null) listener.accept(step);
+        }
+    }
+
+    /**
+     * Render the pixels of a tile that belong to a progressive pass: the pixels on the grid
+     * of the pass step which were not on the grid of the previous (twice coarser) pass.
+     * @param tile   the tile
+     * @param step   the pass step
+     * @param buffer the frame buffer - every traced color fills its step×step block
+     */
+    private void renderPassTile(Tile tile, int step, FrameBuffer buffer) {
+        var event = new RenderEvents.TileRender();
+        event.begin();
+        long start  = RenderStats.ENABLED ? System.nanoTime() : 0;
+        int  traced = 0;
+        int  yEnd   = tile.y() + tile.height(), xEnd = tile.x() + tile.width();
+        Geometries candidates = candidates(tile);
+        for (int i = tile.y(); i < yEnd; i += step)
+            for (int j = tile.x(); j < xEnd; j += step) {
+                if (step < COARSEST_STEP && i % (2 * step) == 0 && j % (2 * step) == 0) continue;
+                Color color = trace(constructRay(nX, nY, j, i), candidates);
+                ++traced;
+                for (int bi = i; bi < Math.min(i + step, yEnd); ++bi)
+                    for (int bj = j; bj < Math.min(j + step, xEnd); ++bj) buffer.set(bj, bi, color);
+            }
+        if (RenderStats.ENABLED) RenderStats.countTile(System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.x      = tile.x();
+            event.y      = tile.y();
+            event.pixels = tile.pixels();
+            event.rays   = traced;
+            event.commit();
+        }
+    }
+
+    /**
+     * Render within a budget: the image is refined sample after sample - first a sample
+     * through every pixel center, then more samples at quasi-random positions inside the
+     * pixels - until {@code maxSamples} samples per pixel are done or the budget runs out
+     * (deadline passed or cancelled). The budget is checked before every tile, so the render
+     * threads are never interrupted in the middle of a tile; once it is exhausted no new
+     * tile is started and the method returns as soon as the tiles in progress finish.
+     * @param  budget     time budget / cancellation of the render
+     * @param  maxSamples maximal samples per pixel
+     * @param  buffer     frame buffer of the camera resolution the samples are accumulated in
+     * @return            the progress made: the best image so far is in the buffer
+     * @throws MissingResourceException if the resolution or the ray tracer were not set
+     */
+    public RenderProgress renderWithin(RenderBudget budget, int maxSamples, FrameBuffer buffer) {
+        checkRenderable();
+        if (maxSamples <= 0) throw new IllegalArgumentException("Samples count must be positive");
+        if (buffer.getWidth() != nX || buffer.getHeight() != nY)
+            throw new IllegalArgumentException("Frame buffer size must match the camera resolution");
+        List<Tile> tiles   = Tile.split(nX, nY, tileSize);
+        int[]      samples = new int[tiles.size()];
+        for (int s = 0; s < maxSamples && !budget.isExhausted(); ++s) {
+            int sample = s;
+            forEachTile(tiles.size(), t -> {
+                if (budget.isExhausted()) return;
+                renderSample(tiles.get(t), sample, buffer);
+                samples[t] = sample + 1;
+            });
+        }
+        return new RenderProgress(buffer, tiles, samples, maxSamples, budget.isCancelled());
+    }
+
+    /**
+     * Render with adaptive sampling: every pixel gets {@code minSamples} samples, then more
+     * samples go only to the pixels whose mean is still uncertain - whose 95% confidence
+     * interval of the luminance is wider than {@code ±threshold} - one sample per pixel per
+     * round, until no pixel needs more, the pixel has {@code maxSamples} or the total samples
+     * reach the budget. A flat pixel (sky, a matte wall) stops at the minimum; edges and
+     * noisy lighting take the rest of the budget. The running mean and variance of the
+     * pixels are kept by Welford's algorithm (see {@link VarianceBuffer}); the sample
+     * positions are as in {@link #renderWithin(RenderBudget, int, FrameBuffer)}. When the
+     * budget runs out in the middle of a round, the tiles that come first in the round get
+     * the remaining samples.
+     * @param  minSamples samples of every pixel, at least 2 (for a variance estimate)
+     * @param  maxSamples maximal samples of a pixel
+     * @param  threshold  confidence interval half width the pixels are refined to, in the
+     *                    color scale (0..255 for displayable colors)
+     * @param  budget     maximal total samples (primary rays) of the image, at least
+     *                    {@code minSamples} per pixel
+     * @param  buffer     frame buffer of the camera resolution the samples are accumulated in
+     * @return            the total samples rendered
+     * @throws MissingResourceException if the resolution or the ray tracer were not set
+     */
+    public long renderAdaptive(int minSamples, int maxSamples, double threshold, long budget, FrameBuffer buffer) {
+        checkRenderable();
+        if (minSamples < 2 || maxSamples < minSamples)
+            throw new IllegalArgumentException("Samples counts must satisfy 2 <= minimal <= maximal");
+        if (!(threshold > 0)) throw new IllegalArgumentException("Threshold must be positive");
+        if (buffer.getWidth() != nX || buffer.getHeight() != nY)
+            throw new IllegalArgumentException("Frame buffer size must match the camera resolution");
+        long required = (long) nX * nY * minSamples;
+        if (budget < required)
+            throw new IllegalArgumentException("Budget must cover the minimal samples of every pixel");
+
+        List<Tile>     tiles    = Tile.split(nX, nY, tileSize);
+        VarianceBuffer variance = new VarianceBuffer(nX, nY);
+        AtomicLong     left     = new AtomicLong(budget - required);
+        AtomicLong     sampled  = new AtomicLong();
+        long           round;
+        do {
+            round = sampled.get();
+            forEachTile(tiles.size(), t ->
+                    sampled.addAndGet(refineTile(tiles.get(t), minSamples, maxSamples, threshold, variance, left, buffer)));
+        } while (sampled.get() != round);
+        return sampled.get();
+    }
+
+    /**
+     * One adaptive sampling round of a tile: a sample to every pixel that has less than the
+     * minimal samples, or whose confidence interval is still too wide - as far as the budget
+     * left allows.
+     * @param  tile       the tile
+     * @param  minSamples samples of every pixel
+     * @param  maxSamples maximal samples of a pixel
+     * @param  threshold  confidence interval half width the pixels are refined to
+     * @param  variance   the pixels luminance statistics
+     * @param  left       the budget left beyond the minimal samples, shared by the threads
+     * @param  buffer     the frame buffer
+     * @return            the samples rendered
+     */
+    private int refineTile(Tile tile, int minSamples, int maxSamples, double threshold, VarianceBuffer variance,
+                           AtomicLong left, FrameBuffer buffer) {
+        int yEnd = tile.y() + tile.height(), xEnd = tile.x() + tile.width();
+        int needy = 0, minimal = 0;
+        for (int i = tile.y(); i < yEnd; ++i)
+            for (int j = tile.x(); j < xEnd; ++j)
+                switch (needsSample(j, i, minSamples, maxSamples, threshold, variance)) {
+                    case 1 -> ++minimal;
+                    case 2 -> ++needy;
+                    default -> { }
+                }
+        long granted, current;
+        do {
+            current = left.get();
+            granted = Math.min(current, needy);
+        } while (granted > 0 && !left.compareAndSet(current, current - granted));
+
+        var event = new RenderEvents.TileRender();
+        event.begin();
+        long       start      = RenderStats.ENABLED ? System.nanoTime() : 0;
+        int        rays       = 0;
+        Geometries candidates = granted > 0 || minimal > 0 ? candidates(tile) : null;
+        for (int i = tile.y(); i < yEnd; ++i)
+            for (int j = tile.x(); j < xEnd; ++j) {
+                int need = needsSample(j, i, minSamples, maxSamples, threshold, variance);
+                if (need == 0 || need == 2 && granted == 0) continue;
+                if (need == 2) --granted;
+                int   sample = variance.count(j, i);
+                Color color  = trace(constructRay(nX, nY, j, i, r2(sample, R2_X), r2(sample, R2_Y)), candidates);
+                buffer.add(j, i, color);
+                variance.add(j, i, VarianceBuffer.luminance(color.getRed(), color.getGreen(), color.getBlue()));
+                ++rays;
+            }
+        if (rays == 0) return 0;
+        if (RenderStats.ENABLED) RenderStats.countTile(System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.x      = tile.x();
+            event.y      = tile.y();
+            event.pixels = tile.pixels();
+            event.rays   = rays;
+            event.commit();
+        }
+        return rays;
+    }
+
+    /**
+     * Whether a pixel needs another adaptive sample.
+     * @param  j          column
+     * @param  i          row
+     * @param  minSamples samples of every pixel
+     * @param  maxSamples maximal samples of a pixel
+     * @param  threshold  confidence interval half width the pixels are refined to
+     * @param  variance   the pixels luminance statistics
+     * @return            0 - no, 1 - a minimal sample (already in the budget), 2 - a refining sample
+     */
+    private static int needsSample(int j, int i, int minSamples, int maxSamples, double threshold,
+                                   VarianceBuffer variance) {
+        int count = variance.count(j, i);
+        if (count < minSamples) return 1;
+        return count < maxSamples && variance.halfWidth(j, i) > threshold ? 2 : 0;
+    }
+
+    /**
+     * Sub-pixel shift of a sample: 0 (the pixel center) for sample 0, the R2 low-discrepancy
+     * sequence for the next ones.
+     * @param  sample    sample number
+     * @param  increment the R2 increment of the axis
+     * @return           the shift in pixel sizes, -0.5..0.5
+     */
+    private static double r2(int sample, double increment) {
+        return sample == 0 ? 0 : (0.5 + sample * increment) % 1 - 0.5;
+    }
+
+    /**
+     * The tiles of the image, as the camera renders them.
+     * @return the tiles in row-major order
+     * @throws MissingResourceException if the resolution or the ray tracer were not set
+     */
+    List<Tile> tiles() {
+        checkRenderable();
+        return Tile.split(nX, nY, tileSize);
+    }
+
+    /**
+     * Allocates a frame buffer of the camera resolution.
+     * @return the frame buffer
+     * @throws MissingResourceException if the resolution or the ray tracer were not set
+     */
+    FrameBuffer createFrameBuffer() {
+        checkRenderable();
+        return new FrameBuffer(nX, nY);
+    }
+
+    /**
+     * Render one more sample of every pixel of a tile into a frame buffer. Sample 0 goes
+     * through the pixel center, the next ones are spread over the pixel by the R2
+     * low-discrepancy sequence - deterministic and evenly covering the pixel.
+     * @param tile   the tile
+     * @param sample sample number
+     * @param buffer the frame buffer
+     */
+    void renderSample(Tile tile, int sample, FrameBuffer buffer) {
+        var event = new RenderEvents.TileRender();
+        event.begin();
+        long   start = RenderStats.ENABLED ? System.nanoTime() : 0;
+        double dx    = r2(sample, R2_X);
+        double dy    = r2(sample, R2_Y);
+        Geometries candidates = candidates(tile);
+        for (int i = tile.y(); i < tile.y() + tile.height(); ++i)
+            for (int j = tile.x(); j < tile.x() + tile.width(); ++j)
+                buffer.add(j, i, trace(constructRay(nX, nY, j, i, dx, dy), candidates));
+        if (RenderStats.ENABLED) RenderStats.countTile(System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.x      = tile.x();
+            event.y      = tile.y();
+            event.pixels = tile.pixels();
+            event.rays   = tile.pixels();
+            event.commit();
+        }
+    }
+
+    /**
+     * The frustum of the primary rays of a tile: from the camera location through the corners
+     * of the tile on the view plane, half a pixel out of its border pixel centers so the
+     * shifted multi-sampling rays are inside as well.
+     * @param  tile the tile
+     * @return      the frustum
+     */
+    TileFrustum frustum(Tile tile) {
+        double   rX      = vpWidth / nX, rY = vpHeight / nY;
+        double[] js      = { tile.x() - 0.5, tile.x() + tile.width() - 0.5 };
+        double[] is      = { tile.y() - 0.5, tile.y() + tile.height() - 0.5 };
+        double[] corners = new double[12];
+        int[][]  around  = { { 0, 0 }, { 1, 0 }, { 1, 1 }, { 0, 1 } };
+        for (int k = 0; k < 4; ++k) {
+            double xShift = (js[around[k][0]] - (nX - 1) / 2.0) * rX;
+            double yShift = (is[around[k][1]] - (nY - 1) / 2.0) * rY;
+            corners[3 * k]     = vTo.getX() * vpDistance + vRight.getX() * xShift - vUp.getX() * yShift;
+            corners[3 * k + 1] = vTo.getY() * vpDistance + vRight.getY() * xShift - vUp.getY() * yShift;
+            corners[3 * k + 2] = vTo.getZ() * vpDistance + vRight.getZ() * xShift - vUp.getZ() * yShift;
+        }
+        return new TileFrustum(p0, corners);
+    }
+
+    /**
+     * The geometries the primary rays of a tile may hit: the top-level scene geometries its
+     * frustum does not cull.
+     * @param  tile the tile
+     * @return      the geometries, null when culling is off (the rays are traced plainly then)
+     */
+    private Geometries candidates(Tile tile) {
+        if (!frustumCulling) return null;
+        return frustum(tile).cull(rayTracer.geometries);
+    }
+
+    /**
+     * Traces a primary ray, intersecting it with the culled geometries of its tile only; the
+     * secondary and shadow rays see the whole scene.
+     * @param  ray        the primary ray
+     * @param  candidates the geometries of the tile, null to trace the ray plainly
+     * @return            the color seen along the ray
+     */
+    private Color trace(Ray ray, Geometries candidates) {
+        return candidates == null ? rayTracer.traceRay(ray) : rayTracer.traceRay(ray, candidates);
+    }
+
+    /**
+     * Run an action on every tile, by the render threads. The threads take the tiles in
+     * their order; the method returns when all the tiles are done.
+     * @param count  number of tiles
+     * @param action the work on a single tile, by the tile index
+     */
+    private void forEachTile(int count, IntConsumer action) {
+        AtomicInteger next   = new AtomicInteger();
+        Runnable      worker = () -> {
+            for (int t = next.getAndIncrement(); t < count; t = next.getAndIncrement())
+                action.accept(t);
+        };
+        if (threadsCount == 1) {
+            worker.run();
+            return;
+        }
+        Thread[] threads = new Thread[threadsCount];
+        for (int k = 0; k < threadsCount; ++k) (threads[k] = new Thread(worker, "render-" + k)).start();
+        try {
+            for (Thread thread : threads) thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rendering was interrupted", e);
+        }
+    }
+
+    /**
+     * Check the camera has everything rendering requires.
+     * @throws MissingResourceException if the resolution or the ray tracer were not set
+     */
+    private void checkRenderable() {
+        if (nX <= 0 || nY <= 0)
+            throw new MissingResourceException("Missing field: ", "Camera class - ", "missing resolution");
+        if (rayTracer == null)
+            throw new MissingResourceException("Missing field: ", "Camera class - ", "missing ray tracer");
+    }
+
+    /**
+     * Render one sample of every pixel of a tile of the image (see
+     * {@link #renderSample(Tile, int, FrameBuffer)} for the sample positions).
+     * @param  tile   the tile
+     * @param  sample sample number, 0 for the pixel centers
+     * @return        the tile colors in row-major order
+     */
+    Color[] renderTile(Tile tile, int sample) {
+        var event = new RenderEvents.TileRender();
+        event.begin();
+        long    start  = RenderStats.ENABLED ? System.nanoTime() : 0;
+        double  dx     = r2(sample, R2_X);
+        double  dy     = r2(sample, R2_Y);
+        Color[] pixels = new Color[tile.pixels()];
+        int     k      = 0;
+        Geometries candidates = candidates(tile);
+        for (int i = tile.y(); i < tile.y() + tile.height(); ++i)
+            for (int j = tile.x(); j < tile.x() + tile.width(); ++j)
+                pixels[k++] = trace(constructRay(nX, nY, j, i, dx, dy), candidates);
+        if (RenderStats.ENABLED) RenderStats.countTile(System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.x      = tile.x();
+            event.y      = tile.y();
+            event.pixels = tile.pixels();
+            event.rays   = tile.pixels();
+            event.commit();
+        }
+        return pixels;
+    }
+
     /** Shallow clone is fine (Point/Vector are immutable in your project). */
     @Override
     protected Object clone() throws CloneNotSupportedException {
@@ -205,6 +698,43 @@ public class Camera implements Cloneable {
             return this;
         }
 
+        /** Set the ray tracer that colors the rendered rays. */
+        public Builder setRayTracer(RayTracerBase rayTracer) {
+            if (rayTracer == null) throw new IllegalArgumentException("Ray tracer cannot be null");
+            camera.rayTracer = rayTracer;
+            return this;
+        }
+
+        /** Set the edge (in pixels) of the square tiles the image is rendered in (default 16). */
+        public Builder setTileSize(int size) {
+            if (size <= 0) throw new IllegalArgumentException("Tile size must be positive");
+            camera.tileSize = size;
+            return this;
+        }
+
+        /**
+         * Set whether the geometries out of a tile's frustum are culled before its primary
+         * rays are traced (default off; see {@link TileFrustum}). The primary rays are traced by
+         * {@link RayTracerBase#traceRay(Ray, geometries.Intersectable)} with the geometries of
+         * their tile, which gives the same image as tracing them plainly, unless a tracer
+         * overrides the one and not the other.
+         * @param culling whether to cull
+         */
+        public Builder setFrustumCulling(boolean culling) {
+            camera.frustumCulling = culling;
+            return this;
+        }
+
+        /**
+         * Set the number of render threads (default 1).
+         * @param threads number of threads, or 0 for one thread per available processor
+         */
+        public Builder setMultithreading(int threads) {
+            if (threads < 0) throw new IllegalArgumentException("Threads count cannot be negative");
+            camera.threadsCount = threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+            return this;
+        }
+
         /**
          * Validate all required fields, compute any missing basis (from hints), then return a clone.
          * @return a new Camera with finalized, normalized basis
@@ -0,0 +1,291 @@
+package renderer;
+
+import primitives.Color;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * High dynamic range frame buffer that accumulates color samples per pixel off the Java
+ * heap. Every pixel holds four floats - the red, green and blue sums and the sum of the
+ * sample weights - so the pixel color is the weighted mean of its samples, without any
+ * clamping until the final tone-mapping pass. 16 bytes per pixel instead of a
+ * {@code Color} object graph per pixel, and none of it in the heap (or the GC's work).
+ *
+ * <p>The storage is direct byte buffers, or a memory-mapped file when a file is given -
+ * then the accumulation survives the process and a later render can continue adding
+ * samples to it. Buffers are limited to 2GB each, so the image is split into bands of
+ * whole rows, one buffer per band.</p>
+ *
+ * <p>Writes are lock-free: every access is an absolute read or write of the pixel's own
+ * floats, so threads rendering different tiles never touch the same memory. A pixel must
+ * be written by one thread at a time (the renderer gives each tile to a single thread),
+ * and the results are visible to readers after the render threads are joined.</p>
+ * @author Ido
+ */
+public class FrameBuffer implements TileSink, AutoCloseable {
+    /** Floats per pixel: red, green, blue sums and the weights sum */
+    private static final int  CHANNELS       = 4;
+    /** Bytes per pixel */
+    private static final int  PIXEL_BYTES    = CHANNELS * Float.BYTES;
+    /** Maximal bytes of a single band buffer */
+    private static final long MAX_BAND_BYTES = 1L << 30;
+    /** Rows tone-mapped in parallel before they are written in order */
+    private static final int  TONE_MAP_BAND  = 64;
+
+    /** Image width in pixels */
+    private final int                width;
+    /** Image height in pixels */
+    private final int                height;
+    /** Rows per band buffer */
+    private final int                bandRows;
+    /** The band buffers, viewed as floats */
+    private final FloatBuffer[]      bands;
+    /** The band buffers as mapped from the file (null when not file backed) */
+    private final MappedByteBuffer[] mapped;
+
+    /**
+     * Creates an off-heap frame buffer in memory, all pixels zero.
+     * @param width  image width in pixels
+     * @param height image height in pixels
+     */
+    public FrameBuffer(int width, int height) {
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("Image size must be positive");
+        this.width  = width;
+        this.height = height;
+        bandRows    = bandRows(width);
+        bands       = new FloatBuffer[(height + bandRows - 1) / bandRows];
+        mapped      = null;
+        for (int b = 0; b < bands.length; ++b)
+            bands[b] = ByteBuffer.allocateDirect(bandBytes(b)).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+    }
+
+    /**
+     * Creates a frame buffer memory-mapped to a file. An existing file of the same image
+     * size keeps its accumulated samples (so rendering can be resumed); otherwise the file
+     * is created zeroed.
+     * @param  width  image width in pixels
+     * @param  height image height in pixels
+     * @param  file   backing file
+     * @throws IOException if the file cannot be mapped
+     */
+    public FrameBuffer(int width, int height, Path file) throws IOException {
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("Image size must be positive");
+        this.width  = width;
+        this.height = height;
+        bandRows    = bandRows(width);
+        bands       = new FloatBuffer[(height + bandRows - 1) / bandRows];
+        mapped      = new MappedByteBuffer[bands.length];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long size = (long) width * height * PIXEL_BYTES;
+            if (channel.size() != size) channel.truncate(0);
+            long offset = 0;
+            for (int b = 0; b < bands.length; ++b) {
+                mapped[b] = channel.map(FileChannel.MapMode.READ_WRITE, offset, bandBytes(b));
+                bands[b]  = mapped[b].order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+                offset   += bandBytes(b);
+            }
+        }
+    }
+
+    /**
+     * Rows per band buffer for an image width.
+     * @param  width image width
+     * @return       rows per band
+     */
+    private static int bandRows(int width) {
+        return (int) Math.max(1, MAX_BAND_BYTES / ((long) width * PIXEL_BYTES));
+    }
+
+    /**
+     * Size of a band buffer (the last band may be shorter).
+     * @param  band band index
+     * @return      size in bytes
+     */
+    private int bandBytes(int band) {
+        int rows = Math.min(bandRows, height - band * bandRows);
+        return rows * width * PIXEL_BYTES;
+    }
+
+    /** @return image width in pixels */
+    public int getWidth() { return width; }
+
+    /** @return image height in pixels */
+    public int getHeight() { return height; }
+
+    /**
+     * Index of a pixel's first float inside its band buffer.
+     * @param  x column
+     * @param  y row
+     * @return   float index
+     */
+    private int index(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height)
+            throw new IllegalArgumentException("Pixel is out of the image");
+        return ((y % bandRows) * width + x) * CHANNELS;
+    }
+
+    /**
+     * Accumulates a weighted color sample into a pixel.
+     * @param x      column
+     * @param y      row
+     * @param r      red component
+     * @param g      green component
+     * @param b      blue component
+     * @param weight sample weight
+     */
+    public void add(int x, int y, double r, double g, double b, double weight) {
+        int         k    = index(x, y);
+        FloatBuffer band = bands[y / bandRows];
+        band.put(k, band.get(k) + (float) (r * weight));
+        band.put(k + 1, band.get(k + 1) + (float) (g * weight));
+        band.put(k + 2, band.get(k + 2) + (float) (b * weight));
+        band.put(k + 3, band.get(k + 3) + (float) weight);
+    }
+
+    /**
+     * Accumulates a color sample of weight 1 into a pixel.
+     * @param x     column
+     * @param y     row
+     * @param color the sample
+     */
+    public void add(int x, int y, Color color) {
+        add(x, y, color.getRed(), color.getGreen(), color.getBlue(), 1);
+    }
+
+    /**
+     * Replaces a pixel with a single color sample of weight 1 (forgetting earlier samples).
+     * @param x     column
+     * @param y     row
+     * @param color the color
+     */
+    public void set(int x, int y, Color color) {
+        int         k    = index(x, y);
+        FloatBuffer band = bands[y / bandRows];
+        band.put(k, (float) color.getRed());
+        band.put(k + 1, (float) color.getGreen());
+        band.put(k + 2, (float) color.getBlue());
+        band.put(k + 3, 1f);
+    }
+
+    /**
+     * Sum of the sample weights of a pixel (the number of samples for unit weights).
+     * @param  x column
+     * @param  y row
+     * @return   weights sum, 0 for a pixel without samples
+     */
+    public double getWeight(int x, int y) {
+        int k = index(x, y);
+        return bands[y / bandRows].get(k + 3);
+    }
+
+    /**
+     * The color of a pixel - the weighted mean of its samples.
+     * @param  x column
+     * @param  y row
+     * @return   the color, black for a pixel without samples
+     */
+    public Color get(int x, int y) {
+        int         k      = index(x, y);
+        FloatBuffer band   = bands[y / bandRows];
+        float       weight = band.get(k + 3);
+        if (weight <= 0) return Color.BLACK;
+        return new Color(band.get(k) / weight, band.get(k + 1) / weight, band.get(k + 2) / weight);
+    }
+
+    /** Accumulates the tile colors as one more sample of each of its pixels. */
+    @Override
+    public void tileDone(Tile tile, Color[] pixels) {
+        for (int r = 0, k = 0; r < tile.height(); ++r)
+            for (int c = 0; c < tile.width(); ++c) add(tile.x() + c, tile.y() + r, pixels[k++]);
+    }
+
+    /**
+     * Maps HDR pixel colors (weighted means, 0..255 scale but unbounded) to displayable
+     * packed 0xRRGGBB pixels.
+     */
+    @FunctionalInterface
+    public interface ToneMapper {
+        /**
+         * Maps a pixel color.
+         * @param  r red component
+         * @param  g green component
+         * @param  b blue component
+         * @return   packed 0xRRGGBB pixel
+         */
+        int map(double r, double g, double b);
+
+        /**
+         * Tone mapper that just clamps every component to 0..255.
+         * @return the tone mapper
+         */
+        static ToneMapper clamp() { return Color::toRGB; }
+
+        /**
+         * Reinhard global operator {@code v/(1+v)} on the exposed color, which compresses
+         * highlights smoothly instead of clipping them.
+         * @param  exposure multiplier applied before compression (1 maps 255 to half intensity)
+         * @return          the tone mapper
+         */
+        static ToneMapper reinhard(double exposure) {
+            if (exposure <= 0) throw new IllegalArgumentException("Exposure must be positive");
+            return (r, g, b) -> Color.toRGB(compress(r * exposure), compress(g * exposure), compress(b * exposure));
+        }
+
+        /**
+         * Reinhard compression of a single component in the 0..255 scale.
+         * @param  c component
+         * @return   compressed component
+         */
+        private static double compress(double c) {
+            double v = c / 255;
+            return 255 * v / (1 + v);
+        }
+    }
+
+    /**
+     * Tone-maps a row of the image.
+     * @param y      row
+     * @param mapper tone mapper
+     * @param rgb    output packed pixels ({@code width} long)
+     */
+    private void toneMapRow(int y, ToneMapper mapper, int[] rgb) {
+        FloatBuffer band = bands[y / bandRows];
+        int         k    = (y % bandRows) * width * CHANNELS;
+        for (int x = 0; x < width; ++x, k += CHANNELS) {
+            float weight = band.get(k + 3);
+            rgb[x] = weight <= 0 ? 0
+                    : mapper.map(band.get(k) / weight, band.get(k + 1) / weight, band.get(k + 2) / weight);
+        }
+    }
+
+    /**
+     * Final pass: tone-maps the whole image in parallel and streams it to an image writer.
+     * Bands of rows are tone-mapped in parallel, then written in order - so the writer's
+     * window never blocks the parallel workers.
+     * @param mapper tone mapper
+     * @param writer image writer of the same size
+     */
+    public void toneMap(ToneMapper mapper, StreamingImageWriter writer) {
+        int[][] rows = new int[Math.min(TONE_MAP_BAND, height)][width];
+        for (int y0 = 0; y0 < height; y0 += TONE_MAP_BAND) {
+            int first = y0, count = Math.min(TONE_MAP_BAND, height - y0);
+            IntStream.range(0, count).parallel().forEach(r -> toneMapRow(first + r, mapper, rows[r]));
+            for (int r = 0; r < count; ++r) writer.writeRow(first + r, rows[r]);
+        }
+    }
+
+    /** Flushes a memory-mapped buffer to its file. */
+    @Override
+    public void close() {
+        if (mapped != null) for (MappedByteBuffer buffer : mapped) buffer.force();
+    }
+}
@@ -0,0 +1,172 @@
+package renderer;
+
+import geometries.Geometry;
+import geometries.Intersectable.GeoPoint;
+import primitives.Color;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.MissingResourceException;
+
+/**
+ * Primary-hit geometry buffer: for every pixel of a camera, the distance to the closest
+ * geometry the pixel center ray hits, the geometry (by an id) and the normal there. While
+ * the camera and the geometries stay where they are, the image can be shaded again from the
+ * buffer - after changing the lights, the materials, the ambient light or the background -
+ * without tracing the primary rays through the scene geometries again.
+ *
+ * <p>The buffer is kept in primitive arrays: a float distance, an int geometry id and three
+ * float normal components per pixel (20 bytes), and a table of the geometries by their id.
+ * The hit point is recovered on the ray by the float distance, well within the offset of the
+ * secondary rays from the surface. The geometries are told apart by their equality, so the
+ * hits of a compact container element share an id, and their material and emission are
+ * the container's at shading time.</p>
+ * @author Ido
+ */
+public final class GBuffer {
+    /** Geometry id of a pixel whose ray hits nothing */
+    public static final int NO_GEOMETRY = -1;
+
+    /** The camera the buffer was captured by */
+    private final Camera         camera;
+    /** Image width in pixels */
+    private final int            width;
+    /** Image height in pixels */
+    private final int            height;
+    /** Hit distance per pixel */
+    private final float[]        distances;
+    /** Geometry id per pixel, {@link #NO_GEOMETRY} for a miss */
+    private final int[]          ids;
+    /** Normal per pixel, 3 components */
+    private final float[]        normals;
+    /** The hit geometries, by their id */
+    private final List<Geometry> geometries = new ArrayList<>();
+
+    /**
+     * Creates an empty buffer.
+     * @param camera the camera
+     */
+    private GBuffer(Camera camera) {
+        this.camera = camera;
+        width       = camera.getNX();
+        height      = camera.getNY();
+        distances   = new float[width * height];
+        ids         = new int[width * height];
+        normals     = new float[3 * width * height];
+    }
+
+    /**
+     * Captures the primary hits of the pixel centers of a camera.
+     * @param  camera the camera (its resolution must be set)
+     * @param  tracer the tracer finding the hits
+     * @return        the buffer
+     * @throws MissingResourceException if the camera resolution was not set
+     */
+    public static GBuffer capture(Camera camera, SimpleRayTracer tracer) {
+        if (camera.getNX() <= 0 || camera.getNY() <= 0)
+            throw new MissingResourceException("Missing field: ", "Camera class - ", "missing resolution");
+        GBuffer                buffer = new GBuffer(camera);
+        Map<Geometry, Integer> known  = new HashMap<>();
+        for (int i = 0, k = 0; i < buffer.height; ++i)
+            for (int j = 0; j < buffer.width; ++j, ++k) {
+                Ray      ray = camera.constructRay(buffer.width, buffer.height, j, i);
+                GeoPoint hit = tracer.findClosestIntersection(ray);
+                if (hit == null) {
+                    buffer.ids[k] = NO_GEOMETRY;
+                    continue;
+                }
+                Vector n = hit.geometry().getNormal(hit.point());
+                buffer.distances[k] = (float) ray.getPoint(0).distance(hit.point());
+                buffer.ids[k]       = known.computeIfAbsent(hit.geometry(), g -> {
+                    buffer.geometries.add(g);
+                    return buffer.geometries.size() - 1;
+                });
+                buffer.normals[3 * k]     = (float) n.getX();
+                buffer.normals[3 * k + 1] = (float) n.getY();
+                buffer.normals[3 * k + 2] = (float) n.getZ();
+            }
+        return buffer;
+    }
+
+    /** @return image width in pixels */
+    public int getWidth() { return width; }
+
+    /** @return image height in pixels */
+    public int getHeight() { return height; }
+
+    /**
+     * Index of a pixel.
+     * @param  x column
+     * @param  y row
+     * @return   pixel index
+     */
+    private int index(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height)
+            throw new IllegalArgumentException("Pixel is out of the image");
+        return y * width + x;
+    }
+
+    /**
+     * The geometry id of a pixel.
+     * @param  x column
+     * @param  y row
+     * @return   the id, {@link #NO_GEOMETRY} if the pixel ray hits nothing
+     */
+    public int getGeometryId(int x, int y) { return ids[index(x, y)]; }
+
+    /**
+     * A geometry by its id.
+     * @param  id the id
+     * @return    the geometry
+     */
+    public Geometry getGeometry(int id) { return geometries.get(id); }
+
+    /** @return number of the distinct geometries hit */
+    public int getGeometryCount() { return geometries.size(); }
+
+    /**
+     * The hit distance of a pixel.
+     * @param  x column
+     * @param  y row
+     * @return   the distance, infinite if the pixel ray hits nothing
+     */
+    public double getDistance(int x, int y) {
+        int k = index(x, y);
+        return ids[k] == NO_GEOMETRY ? Double.POSITIVE_INFINITY : distances[k];
+    }
+
+    /**
+     * The normal of a pixel hit.
+     * @param  x column
+     * @param  y row
+     * @return   the normal, null if the pixel ray hits nothing
+     */
+    public Vector getNormal(int x, int y) {
+        int k = index(x, y);
+        return ids[k] == NO_GEOMETRY ? null : new Vector(normals[3 * k], normals[3 * k + 1], normals[3 * k + 2]);
+    }
+
+    /**
+     * Shades the image from the buffer into a frame buffer, one sample per pixel: the
+     * primary hits are taken from the buffer, the lighting and the secondary rays are traced
+     * by the tracer - which may be a tracer of a scene with other lights, materials, ambient
+     * light or background, but must have the same geometries in the same places.
+     * @param tracer the tracer
+     * @param buffer frame buffer of the camera resolution
+     */
+    public void shade(SimpleRayTracer tracer, FrameBuffer buffer) {
+        if (buffer.getWidth() != width || buffer.getHeight() != height)
+            throw new IllegalArgumentException("Frame buffer size must match the camera resolution");
+        for (int i = 0, k = 0; i < height; ++i)
+            for (int j = 0; j < width; ++j, ++k) {
+                Ray ray = camera.constructRay(width, height, j, i);
+                buffer.add(j, i, ids[k] == NO_GEOMETRY ? tracer.traceHit(ray, null, null)
+                        : tracer.traceHit(ray, new GeoPoint(geometries.get(ids[k]), ray.getPoint(distances[k])),
+                                new Vector(normals[3 * k], normals[3 * k + 1], normals[3 * k + 2])));
+            }
+    }
+}
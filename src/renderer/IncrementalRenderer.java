@@ -0,0 +1,337 @@
+package renderer;
+
+import geometries.BoundingBox;
+import geometries.Geometries;
+import geometries.Intersectable;
+import lighting.AreaLight;
+import lighting.LightSource;
+import lighting.PointLight;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import scene.Scene;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.MissingResourceException;
+
+/**
+ * Renderer for interactive scene edits: after a top-level geometry of the scene is replaced
+ * (moved, resized, removed), only the tiles the edit can change are traced again - the
+ * cost of an edit follows its screen footprint, not the image size.
+ *
+ * <p>While a tile is traced, every top-level geometry that some ray of the tile (primary,
+ * secondary or shadow ray) intersects is recorded in a bit set of the tile, together with a
+ * box bounding all those intersection points. An edit makes a tile dirty when
+ * <ul>
+ * <li>the tile's bit set has the old geometry - the tile saw it, its reflection or its
+ * shadow;</li>
+ * <li>the bounding box of the new geometry, projected on the view plane, covers some pixel
+ * of the tile - the tile may see it now;</li>
+ * <li>the new box meets the box between the tile's intersection points and a light (for a
+ * directional light, the points' box swept towards the light) - the new geometry may shadow
+ * the tile.</li>
+ * </ul>
+ * A geometry newly seen only in the reflection or through the transparency of another one is
+ * not detected. An unbounded new geometry (as a plane) makes all the tiles dirty.</p>
+ *
+ * <p>The renderer traces one tile at a time, in the calling thread. It renders through a
+ * tracer of its own, over the scene's top-level geometries wrapped for recording; the scene's
+ * lights, ambient light and background are taken at construction.</p>
+ * @author Ido
+ */
+public final class IncrementalRenderer {
+    /** The camera generating the primary rays */
+    private final Camera            camera;
+    /** The recording wrappers of the scene top-level geometries, by their id */
+    private final List<Tracked>     tracked = new ArrayList<>();
+    /** The lights of the scene */
+    private final List<LightSource> lights;
+    /** The tracer over the wrapped geometries */
+    private final SimpleRayTracer   tracer;
+    /** The image tiles */
+    private final List<Tile>        tiles;
+    /** What the rays of every tile intersected, by the tile index */
+    private final TileRecord[]      records;
+    /** The image */
+    private final FrameBuffer       image;
+    /** The pending edits */
+    private final List<Edit>        edits   = new ArrayList<>();
+    /** Record of the tile being traced, null when not tracing */
+    private TileRecord              current;
+
+    /**
+     * A pending edit.
+     * @param id        id of the replaced geometry
+     * @param box       bounding box of the new geometry, null if removed or unbounded
+     * @param unbounded whether the new geometry is unbounded
+     */
+    private record Edit(int id, BoundingBox box, boolean unbounded) { }
+
+    /**
+     * What the rays of a tile intersected: the top-level geometries and the box of the
+     * intersection points.
+     */
+    private static final class TileRecord {
+        /** Ids of the intersected top-level geometries */
+        final BitSet   ids    = new BitSet();
+        /** Box of the intersection points: min x, y, z, max x, y, z */
+        final double[] bounds = new double[6];
+
+        /** Creates an empty record. */
+        TileRecord() { clear(); }
+
+        /** Empties the record. */
+        void clear() {
+            ids.clear();
+            Arrays.fill(bounds, 0, 3, Double.POSITIVE_INFINITY);
+            Arrays.fill(bounds, 3, 6, Double.NEGATIVE_INFINITY);
+        }
+
+        /** @return true if no intersection was recorded */
+        boolean isEmpty() { return bounds[0] > bounds[3]; }
+
+        /**
+         * Records an intersection point.
+         * @param p the point
+         */
+        void add(Point p) {
+            double x = p.getX(), y = p.getY(), z = p.getZ();
+            bounds[0] = Math.min(bounds[0], x);
+            bounds[1] = Math.min(bounds[1], y);
+            bounds[2] = Math.min(bounds[2], z);
+            bounds[3] = Math.max(bounds[3], x);
+            bounds[4] = Math.max(bounds[4], y);
+            bounds[5] = Math.max(bounds[5], z);
+        }
+    }
+
+    /**
+     * A top-level geometry of the scene, wrapped to record the tiles whose rays intersect it.
+     * The geometry can be replaced, as {@link Geometries} has no removal.
+     */
+    private final class Tracked implements Intersectable {
+        /** Version of the serialized form */
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        /** The id of the geometry */
+        private final int     id;
+        /** The wrapped geometry, null after it was removed */
+        private Intersectable geometry;
+
+        /**
+         * Wraps a geometry.
+         * @param id       the id
+         * @param geometry the geometry
+         */
+        Tracked(int id, Intersectable geometry) {
+            this.id       = id;
+            this.geometry = geometry;
+        }
+
+        @Override
+        public List<Point> findIntersections(Ray ray) {
+            if (geometry == null) return null;
+            List<Point> points = geometry.findIntersections(ray);
+            if (points != null && current != null) {
+                current.ids.set(id);
+                for (Point p : points) current.add(p);
+            }
+            return points;
+        }
+
+        @Override
+        public List<GeoPoint> findGeoIntersections(Ray ray) {
+            if (geometry == null) return null;
+            List<GeoPoint> points = geometry.findGeoIntersections(ray);
+            if (points != null && current != null) {
+                current.ids.set(id);
+                for (GeoPoint p : points) current.add(p.point());
+            }
+            return points;
+        }
+
+        @Override
+        public BoundingBox getBoundingBox() { return geometry == null ? null : geometry.getBoundingBox(); }
+    }
+
+    /**
+     * Creates the renderer of a scene and renders the whole image.
+     * @param  camera   the camera generating the primary rays (its resolution must be set)
+     * @param  scene    the scene
+     * @param  tileSize tile edge in pixels
+     * @throws MissingResourceException if the camera resolution was not set
+     */
+    public IncrementalRenderer(Camera camera, Scene scene, int tileSize) {
+        int nX = camera.getNX(), nY = camera.getNY();
+        if (nX <= 0 || nY <= 0)
+            throw new MissingResourceException("Missing field: ", "Camera class - ", "missing resolution");
+        this.camera = camera;
+        Geometries wrapped = new Geometries();
+        for (Intersectable geometry : scene.getGeometries().getGeometries()) {
+            Tracked wrapper = new Tracked(tracked.size(), geometry);
+            tracked.add(wrapper);
+            wrapped.add(wrapper);
+        }
+        lights  = List.copyOf(scene.getLights());
+        tracer  = new SimpleRayTracer(new Scene(scene.getName()).setGeometries(wrapped).setLights(scene.getLights())
+                .setBackground(scene.getBackground()).setAmbientLight(scene.getAmbientLight()));
+        tiles   = Tile.split(nX, nY, tileSize);
+        records = new TileRecord[tiles.size()];
+        image   = new FrameBuffer(nX, nY);
+        for (int t = 0; t < records.length; ++t) {
+            records[t] = new TileRecord();
+            renderTile(t);
+        }
+    }
+
+    /** @return the image, one sample per pixel */
+    public FrameBuffer getImage() { return image; }
+
+    /**
+     * Replaces a top-level geometry of the scene. The image is not updated until
+     * {@link #update()}.
+     * @param old the geometry to replace (a top-level geometry of the scene, or a geometry
+     *            that replaced one)
+     * @param now the new geometry, null to remove the old one
+     */
+    public void replace(Intersectable old, Intersectable now) {
+        for (Tracked wrapper : tracked)
+            if (wrapper.geometry == old && old != null) {
+                BoundingBox box = now == null ? null : now.getBoundingBox();
+                wrapper.geometry = now;
+                edits.add(new Edit(wrapper.id, box, now != null && box == null));
+                return;
+            }
+        throw new IllegalArgumentException("The geometry is not a top-level geometry of the scene");
+    }
+
+    /**
+     * Traces again the tiles the pending edits may have changed.
+     * @return the traced tiles
+     */
+    public List<Tile> update() {
+        List<Tile> dirty = new ArrayList<>();
+        for (int t = 0; t < records.length; ++t)
+            if (isDirty(t)) {
+                dirty.add(tiles.get(t));
+                renderTile(t);
+            }
+        edits.clear();
+        return dirty;
+    }
+
+    /**
+     * Checks whether the pending edits may change a tile.
+     * @param  t the tile index
+     * @return   true if the tile must be traced again
+     */
+    private boolean isDirty(int t) {
+        TileRecord record = records[t];
+        for (Edit edit : edits) {
+            if (edit.unbounded() || record.ids.get(edit.id())) return true;
+            if (edit.box() != null && (covers(tiles.get(t), edit.box()) || shadows(record, edit.box()))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a box, projected on the view plane, may cover a pixel center of a tile.
+     * @param  tile the tile
+     * @param  box  the box
+     * @return      true if it may
+     */
+    private boolean covers(Tile tile, BoundingBox box) {
+        int    nX   = camera.getNX(), nY = camera.getNY();
+        Point  p0   = camera.getLocation();
+        Vector vTo  = camera.getVTo(), vUp = camera.getVUp(), vRight = vTo.crossProduct(vUp);
+        double rX   = camera.getVpWidth() / nX, rY = camera.getVpHeight() / nY;
+        double minJ = Double.POSITIVE_INFINITY, maxJ = Double.NEGATIVE_INFINITY;
+        double minI = Double.POSITIVE_INFINITY, maxI = Double.NEGATIVE_INFINITY;
+        for (int corner = 0; corner < 8; ++corner) {
+            double x     = ((corner & 1) == 0 ? box.minX() : box.maxX()) - p0.getX();
+            double y     = ((corner & 2) == 0 ? box.minY() : box.maxY()) - p0.getY();
+            double z     = ((corner & 4) == 0 ? box.minZ() : box.maxZ()) - p0.getZ();
+            double depth = x * vTo.getX() + y * vTo.getY() + z * vTo.getZ();
+            if (depth <= 0) return true; // the box reaches behind the camera
+            double scale = camera.getVpDistance() / depth;
+            double j     = (x * vRight.getX() + y * vRight.getY() + z * vRight.getZ()) * scale / rX + (nX - 1) / 2.0;
+            double i     = -(x * vUp.getX() + y * vUp.getY() + z * vUp.getZ()) * scale / rY + (nY - 1) / 2.0;
+            minJ = Math.min(minJ, j);
+            maxJ = Math.max(maxJ, j);
+            minI = Math.min(minI, i);
+            maxI = Math.max(maxI, i);
+        }
+        return Math.floor(minJ) <= tile.x() + tile.width() - 1 && Math.ceil(maxJ) >= tile.x()
+                && Math.floor(minI) <= tile.y() + tile.height() - 1 && Math.ceil(maxI) >= tile.y();
+    }
+
+    /**
+     * Checks whether a box may be between the intersection points of a tile and a light.
+     * @param  record the tile record
+     * @param  box    the box
+     * @return        true if it may shadow the tile
+     */
+    private boolean shadows(TileRecord record, BoundingBox box) {
+        if (record.isEmpty()) return false;
+        double[] b = record.bounds;
+        for (LightSource light : lights) {
+            double[] hull = b.clone();
+            if (light instanceof AreaLight area) {
+                for (int corner = 0; corner < 4; ++corner) extend(hull, area.getPoint(corner & 1, corner >> 1));
+            } else if (light instanceof PointLight point) {
+                extend(hull, point.getPosition());
+            } else {
+                // sweep the points' box towards the light, far enough to pass the box
+                Vector l   = light.getL(new Point(b[0], b[1], b[2]));
+                double dx  = Math.max(b[3], box.maxX()) - Math.min(b[0], box.minX());
+                double dy  = Math.max(b[4], box.maxY()) - Math.min(b[1], box.minY());
+                double dz  = Math.max(b[5], box.maxZ()) - Math.min(b[2], box.minZ());
+                double far = Math.sqrt(dx * dx + dy * dy + dz * dz);
+                extend(hull, new Point(b[0] - l.getX() * far, b[1] - l.getY() * far, b[2] - l.getZ() * far));
+                extend(hull, new Point(b[3] - l.getX() * far, b[4] - l.getY() * far, b[5] - l.getZ() * far));
+            }
+            if (hull[0] <= box.maxX() && hull[3] >= box.minX() && hull[1] <= box.maxY() && hull[4] >= box.minY()
+                    && hull[2] <= box.maxZ() && hull[5] >= box.minZ())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Extends a box to hold a point.
+     * @param box the box: min x, y, z, max x, y, z
+     * @param p   the point
+     */
+    private static void extend(double[] box, Point p) {
+        box[0] = Math.min(box[0], p.getX());
+        box[1] = Math.min(box[1], p.getY());
+        box[2] = Math.min(box[2], p.getZ());
+        box[3] = Math.max(box[3], p.getX());
+        box[4] = Math.max(box[4], p.getY());
+        box[5] = Math.max(box[5], p.getZ());
+    }
+
+    /**
+     * Traces the pixel centers of a tile into the image, recording what the rays intersect.
+     * @param t the tile index
+     */
+    private void renderTile(int t) {
+        Tile tile = tiles.get(t);
+        int  nX   = camera.getNX(), nY = camera.getNY();
+        current = records[t];
+        current.clear();
+        tracer.clearOccluders(); // a cached occluder would be tested past the recording wrappers
+        try {
+            for (int i = tile.y(); i < tile.y() + tile.height(); ++i)
+                for (int j = tile.x(); j < tile.x() + tile.width(); ++j)
+                    image.set(j, i, tracer.traceRay(camera.constructRay(nX, nY, j, i)));
+        } finally {
+            current = null;
+        }
+    }
+}
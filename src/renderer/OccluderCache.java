@@ -0,0 +1,53 @@
+package renderer;
+
+import geometries.Geometry;
+import lighting.LightSource;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Shadow-ray occluder cache: for every light and every render thread, the geometry that
+ * last blocked a shadow ray towards the light. Neighboring pixels are usually shadowed by
+ * the same blocker, so testing it first often answers the shadow query with a single
+ * intersection test instead of a query through all the scene geometries.
+ *
+ * <p>Each thread has its own map, so the cache needs no synchronization. The maps are not
+ * serialized - a deserialized tracer starts with an empty cache.</p>
+ * @author Ido
+ */
+final class OccluderCache implements Serializable {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** Last occluder per light, per thread */
+    private final transient ThreadLocal<Map<LightSource, Geometry>> occluders =
+            ThreadLocal.withInitial(IdentityHashMap::new);
+
+    /**
+     * The geometry that last blocked a shadow ray towards a light in the current thread.
+     * @param  light the light
+     * @return       the geometry, null if none
+     */
+    Geometry get(LightSource light) { return occluders.get().get(light); }
+
+    /**
+     * Remembers the geometry that blocked a shadow ray towards a light in the current thread.
+     * @param light    the light
+     * @param occluder the geometry
+     */
+    void put(LightSource light, Geometry occluder) { occluders.get().put(light, occluder); }
+
+    /** Forgets the occluders of the current thread. */
+    void clear() { occluders.get().clear(); }
+
+    /**
+     * Starts a deserialized cache empty.
+     * @return a new cache
+     */
+    @Serial
+    private Object readResolve() { return new OccluderCache(); }
+}
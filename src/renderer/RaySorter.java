@@ -0,0 +1,137 @@
+package renderer;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Arrays;
+
+/**
+ * Orders a batch of rays for coherent intersection: rays that start close to each other and
+ * go in similar directions are put next to each other, so consecutive traversals of the
+ * geometries (and of a bounding volume hierarchy) touch the same nodes and primitives while
+ * they are still in the cache.
+ *
+ * <p>Every ray gets a 24-bit key: the octant of its direction (3 bits), the Morton code of its
+ * origin quantized to a 32×32×32 grid over the bounding box of the batch origins (15 bits),
+ * and its direction components quantized to 4 levels each (6 bits). The keys are sorted by a
+ * least significant digit radix sort, three passes of 8 bits - linear in the batch size and
+ * stable. All the arrays are kept and reused from batch to batch; a sorter is not thread
+ * safe.</p>
+ * @author Ido
+ */
+final class RaySorter {
+    /** Grid cells per axis of the origins quantization */
+    private static final int CELLS      = 32;
+    /** Bits of a radix sort digit */
+    private static final int DIGIT_BITS = 8;
+    /** Mask of a radix sort digit */
+    private static final int DIGIT_MASK = (1 << DIGIT_BITS) - 1;
+    /** Radix sort passes (the key has 24 bits) */
+    private static final int PASSES     = 3;
+
+    /** Radix sort digit counts */
+    private final int[] counts   = new int[(1 << DIGIT_BITS) + 1];
+    /** Ray origins, 3 per ray */
+    private double[]    origins  = new double[0];
+    /** Sort keys */
+    private int[]       keys     = new int[0];
+    /** The order being built */
+    private int[]       order    = new int[0];
+    /** Radix sort scratch: keys of the other pass */
+    private int[]       keysTmp  = new int[0];
+    /** Radix sort scratch: order of the other pass */
+    private int[]       orderTmp = new int[0];
+
+    /**
+     * Sorts a batch of rays by their keys.
+     * @param  rays the rays
+     * @param  size number of rays
+     * @return      the ray indices in sorted order (valid until the next call; only the first
+     *              {@code size} entries are used)
+     */
+    int[] sort(Ray[] rays, int size) {
+        if (keys.length < size) {
+            origins  = new double[3 * size];
+            keys     = new int[size];
+            order    = new int[size];
+            keysTmp  = new int[size];
+            orderTmp = new int[size];
+        }
+        double minX = Double.POSITIVE_INFINITY, minY = minX, minZ = minX;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = maxX, maxZ = maxX;
+        for (int k = 0; k < size; ++k) {
+            Point o = rays[k].getPoint(0);
+            double x = origins[3 * k] = o.getX(), y = origins[3 * k + 1] = o.getY(), z = origins[3 * k + 2] = o.getZ();
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+            minZ = Math.min(minZ, z);
+            maxZ = Math.max(maxZ, z);
+        }
+        for (int k = 0; k < size; ++k) {
+            Vector d = rays[k].getDir();
+            keys[k]  = key(cell(origins[3 * k], minX, maxX), cell(origins[3 * k + 1], minY, maxY),
+                    cell(origins[3 * k + 2], minZ, maxZ), d.getX(), d.getY(), d.getZ());
+            order[k] = k;
+        }
+
+        for (int pass = 0, shift = 0; pass < PASSES; ++pass, shift += DIGIT_BITS) {
+            Arrays.fill(counts, 0);
+            for (int k = 0; k < size; ++k) ++counts[(keys[k] >>> shift & DIGIT_MASK) + 1];
+            for (int c = 1; c < counts.length; ++c) counts[c] += counts[c - 1];
+            for (int k = 0; k < size; ++k) {
+                int at = counts[keys[k] >>> shift & DIGIT_MASK]++;
+                keysTmp[at]  = keys[k];
+                orderTmp[at] = order[k];
+            }
+            int[] swap = keys;
+            keys    = keysTmp;
+            keysTmp = swap;
+            swap     = order;
+            order    = orderTmp;
+            orderTmp = swap;
+        }
+        return order;
+    }
+
+    /**
+     * Quantizes a coordinate to a grid cell.
+     * @param  v   the coordinate
+     * @param  min the grid start
+     * @param  max the grid end
+     * @return     the cell, 0..CELLS-1
+     */
+    private static int cell(double v, double min, double max) {
+        return max > min ? Math.min(CELLS - 1, (int) ((v - min) / (max - min) * CELLS)) : 0;
+    }
+
+    /**
+     * The sort key of a ray.
+     * @param  cx origin cell x
+     * @param  cy origin cell y
+     * @param  cz origin cell z
+     * @param  dx direction x
+     * @param  dy direction y
+     * @param  dz direction z
+     * @return    the key, 24 bits
+     */
+    static int key(int cx, int cy, int cz, double dx, double dy, double dz) {
+        int octant = (dx < 0 ? 4 : 0) | (dy < 0 ? 2 : 0) | (dz < 0 ? 1 : 0);
+        int morton = 0;
+        for (int bit = 4; bit >= 0; --bit)
+            morton = morton << 3 | (cx >> bit & 1) << 2 | (cy >> bit & 1) << 1 | (cz >> bit & 1);
+        int fine = level(dx) << 4 | level(dy) << 2 | level(dz);
+        return octant << 21 | morton << 6 | fine;
+    }
+
+    /**
+     * Quantizes the size of a direction component.
+     * @param  d the component, -1..1
+     * @return   the level, 0..3
+     */
+    private static int level(double d) {
+        return Math.min(3, (int) (Math.abs(d) * 4));
+    }
+}
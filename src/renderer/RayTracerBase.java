@@ -0,0 +1,48 @@
+package renderer;
+
+import geometries.Geometries;
+import geometries.Intersectable;
+import primitives.Color;
+import primitives.Ray;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Base class of the ray tracers: computes the color a ray "sees" in the scene.
+ * @author Ido
+ */
+public abstract class RayTracerBase implements Serializable {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** The scene geometries the rays are traced in */
+    protected final Geometries geometries;
+
+    /**
+     * Constructor of a ray tracer for the given scene geometries.
+     * @param geometries the scene geometries
+     */
+    protected RayTracerBase(Geometries geometries) {
+        if (geometries == null) throw new IllegalArgumentException("Scene geometries cannot be null");
+        this.geometries = geometries;
+    }
+
+    /**
+     * Traces a ray through the scene.
+     * @param  ray the ray
+     * @return     the color seen along the ray
+     */
+    public abstract Color traceRay(Ray ray);
+
+    /**
+     * Traces a primary ray that may hit only some of the scene geometries - the geometries a
+     * {@link TileFrustum} did not cull for the ray's tile. The default ignores the candidates
+     * and traces the ray through the whole scene, which gives the same color.
+     * @param  ray        the primary ray
+     * @param  candidates the geometries the ray may hit
+     * @return            the color seen along the ray
+     */
+    public Color traceRay(Ray ray, Intersectable candidates) { return traceRay(ray); }
+}
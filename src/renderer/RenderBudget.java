@@ -0,0 +1,50 @@
+package renderer;
+
+import java.time.Duration;
+
+/**
+ * Budget of a render: an optional deadline and a cooperative cancellation flag.
+ * The renderer polls {@link #isExhausted()} between units of work (tiles) and stops
+ * starting new work once it returns true - render threads are never interrupted.
+ * @author Ido
+ */
+public class RenderBudget {
+    /** Deadline in {@link System#nanoTime()} terms (Long.MAX_VALUE - none) */
+    private final    long    deadline;
+    /** Whether the render was cancelled */
+    private volatile boolean cancelled = false;
+
+    /**
+     * Private constructor - use the factory methods.
+     * @param deadline deadline in {@link System#nanoTime()} terms
+     */
+    private RenderBudget(long deadline) { this.deadline = deadline; }
+
+    /**
+     * Budget without a deadline - the render stops only when cancelled.
+     * @return the budget
+     */
+    public static RenderBudget unlimited() { return new RenderBudget(Long.MAX_VALUE); }
+
+    /**
+     * Budget with a deadline from now.
+     * @param  time the time the render may take
+     * @return      the budget
+     */
+    public static RenderBudget of(Duration time) {
+        if (time.isNegative()) throw new IllegalArgumentException("Time budget cannot be negative");
+        long nanos = time.toNanos();
+        return new RenderBudget(System.nanoTime() + nanos);
+    }
+
+    /** Cancels the render - safe to call from any thread. */
+    public void cancel() { cancelled = true; }
+
+    /** @return true if the render was cancelled */
+    public boolean isCancelled() { return cancelled; }
+
+    /** @return true if the render was cancelled or the deadline passed */
+    public boolean isExhausted() {
+        return cancelled || deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0;
+    }
+}
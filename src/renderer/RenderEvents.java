@@ -0,0 +1,125 @@
+package renderer;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events of the render pipeline phases, so a single recording shows
+ * where the time of a render went alongside the GC and allocation data of the JVM.
+ *
+ * <p>The events are cheap enough to leave enabled: stack traces are not recorded, and an
+ * emitter fills the fields only after {@code shouldCommit()} returned true, so with the
+ * event disabled it costs a couple of branches (the event object itself is scalar-replaced
+ * by the JIT). Usage pattern:</p>
+ * <pre>{@code
+ * var event = new RenderEvents.TileRender();
+ * event.begin();
+ * ... render the tile ...
+ * if (event.shouldCommit()) { event.pixels = ...; event.commit(); }
+ * }</pre>
+ * All events belong to the "Ray Tracer" category and are named {@code renderer.*}.
+ * @author Ido
+ */
+public final class RenderEvents {
+    /** Don't let anyone instantiate this class. */
+    private RenderEvents() { }
+
+    /** Building the scene geometries (e.g. loading a scene description). */
+    @Name("renderer.SceneBuild")
+    @Label("Scene Build")
+    @Category({ "Ray Tracer", "Scene" })
+    @Description("Building the scene geometries")
+    @StackTrace(false)
+    public static final class SceneBuild extends Event {
+        /** Scene name or source */
+        @Label("Scene")
+        public String scene;
+        /** Number of geometries built */
+        @Label("Geometries")
+        public long   geometries;
+    }
+
+    /** Building (or loading) an acceleration structure over the scene geometries. */
+    @Name("renderer.AccelerationBuild")
+    @Label("Acceleration Structure Build")
+    @Category({ "Ray Tracer", "Scene" })
+    @Description("Building or loading a spatial index over the scene geometries")
+    @StackTrace(false)
+    public static final class AccelerationBuild extends Event {
+        /** Number of indexed primitives */
+        @Label("Primitives")
+        public long    primitives;
+        /** Number of hierarchy nodes */
+        @Label("Nodes")
+        public long    nodes;
+        /** Whether the structure was loaded from a cache instead of being built */
+        @Label("Cached")
+        public boolean cached;
+    }
+
+    /** Rendering a whole frame. */
+    @Name("renderer.FrameRender")
+    @Label("Frame Render")
+    @Category({ "Ray Tracer", "Render" })
+    @Description("Rendering a whole frame")
+    @StackTrace(false)
+    public static final class FrameRender extends Event {
+        /** Image width in pixels */
+        @Label("Width")
+        public int  width;
+        /** Image height in pixels */
+        @Label("Height")
+        public int  height;
+        /** Number of pixels rendered */
+        @Label("Pixels")
+        public long pixels;
+        /** Number of render threads */
+        @Label("Threads")
+        public int  threads;
+    }
+
+    /** Rendering a single tile of a frame. */
+    @Name("renderer.TileRender")
+    @Label("Tile Render")
+    @Category({ "Ray Tracer", "Render" })
+    @Description("Rendering a single tile of a frame")
+    @StackTrace(false)
+    public static final class TileRender extends Event {
+        /** First column of the tile */
+        @Label("X")
+        public int  x;
+        /** First row of the tile */
+        @Label("Y")
+        public int  y;
+        /** Number of pixels in the tile */
+        @Label("Pixels")
+        public int  pixels;
+        /** Number of primary rays cast for the tile */
+        @Label("Rays")
+        public long rays;
+    }
+
+    /** Writing the rendered image. */
+    @Name("renderer.ImageWrite")
+    @Label("Image Write")
+    @Category({ "Ray Tracer", "Output" })
+    @Description("Writing the rendered image")
+    @StackTrace(false)
+    public static final class ImageWrite extends Event {
+        /** Target file */
+        @Label("File")
+        public String file;
+        /** Number of pixels written */
+        @Label("Pixels")
+        public long   pixels;
+        /** Number of bytes written */
+        @Label("Bytes")
+        @DataAmount
+        public long   bytes;
+    }
+}
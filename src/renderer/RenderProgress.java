@@ -0,0 +1,40 @@
+package renderer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress report of a budgeted render: the image made so far and how far every tile got.
+ * @param buffer     the frame buffer holding the best image so far
+ * @param tiles      the tiles of the image
+ * @param samples    samples per pixel completed in each tile (same order as the tiles)
+ * @param maxSamples samples per pixel that were requested
+ * @param cancelled  whether the render was cancelled
+ * @author Ido
+ */
+public record RenderProgress(FrameBuffer buffer, List<Tile> tiles, int[] samples, int maxSamples,
+                             boolean cancelled) {
+    /** @return true if every tile got all the requested samples */
+    public boolean isFinished() { return minSamples() == maxSamples; }
+
+    /** @return the samples per pixel that the whole image has at least */
+    public int minSamples() {
+        int min = Integer.MAX_VALUE;
+        for (int s : samples) min = Math.min(min, s);
+        return min;
+    }
+
+    /** @return total number of samples (primary rays) rendered */
+    public long totalSamples() {
+        long total = 0;
+        for (int t = 0; t < samples.length; ++t) total += (long) samples[t] * tiles.get(t).pixels();
+        return total;
+    }
+
+    /** @return the tiles that have at least one sample (the rest of the image is black) */
+    public List<Tile> renderedTiles() {
+        List<Tile> rendered = new ArrayList<>();
+        for (int t = 0; t < samples.length; ++t) if (samples[t] > 0) rendered.add(tiles.get(t));
+        return rendered;
+    }
+}
@@ -0,0 +1,277 @@
+package renderer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render service running many render jobs at once on a single shared work-stealing pool.
+ *
+ * <p>Every job is split into the tiles of its camera. The pool runs at most a fixed number
+ * of dispatch tasks; each one keeps asking the scheduler for the next tile and rendering
+ * it, until no tile is left. The scheduler is a stride (fair-share) scheduler: every job has a
+ * virtual time that advances by the pixels of each tile it was given, divided by the job
+ * priority, and the next tile always comes from the job with the smallest virtual time.
+ * So jobs share the pool in proportion to their priorities, whatever their sizes - a huge
+ * frame cannot starve the quick thumbnails submitted after it. A new job joins at the
+ * current virtual time, so it neither waits behind old jobs nor gets a catch-up burst.</p>
+ * @author Ido
+ */
+public class RenderService implements AutoCloseable {
+    /** The shared pool */
+    private final ForkJoinPool pool;
+    /** Whether the service created (and so owns) the pool */
+    private final boolean      ownPool;
+    /** Maximal number of tiles rendered at once */
+    private final int          parallelism;
+
+    /** Jobs with tiles left to dispatch, by their virtual time */
+    private final PriorityQueue<RenderJob> queue = new PriorityQueue<>(
+            (a, b) -> Double.compare(a.pass, b.pass));
+    /** All the jobs that were not completed yet */
+    private final List<RenderJob> active    = new ArrayList<>();
+    /** Current virtual time - the virtual time of the last dispatched job */
+    private double                now       = 0;
+    /** Dispatch tasks currently submitted to the pool */
+    private int                   running   = 0;
+    /** Number of jobs completed (successfully or not) */
+    private long                  completed = 0;
+    /** Whether the service was closed */
+    private boolean               closed    = false;
+
+    /**
+     * Creates a service with its own pool.
+     * @param threads number of render threads, or 0 for one per available processor
+     */
+    public RenderService(int threads) {
+        if (threads < 0) throw new IllegalArgumentException("Threads count cannot be negative");
+        this.parallelism = threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+        this.pool        = new ForkJoinPool(parallelism);
+        this.ownPool     = true;
+    }
+
+    /**
+     * Creates a service on an existing pool (e.g. the common pool), rendering at most
+     * {@code parallelism} tiles at once.
+     * @param pool        the pool
+     * @param parallelism maximal number of tiles rendered at once
+     */
+    public RenderService(ForkJoinPool pool, int parallelism) {
+        if (parallelism <= 0) throw new IllegalArgumentException("Parallelism must be positive");
+        this.pool        = pool;
+        this.parallelism = parallelism;
+        this.ownPool     = false;
+    }
+
+    /**
+     * Submits a render job: one sample per pixel of the camera image into a new frame buffer.
+     * @param  name     job name (for the metrics)
+     * @param  camera   camera with its resolution and ray tracer set
+     * @param  priority share of the pool relative to other jobs (positive, 1 is normal)
+     * @return          the job
+     */
+    public synchronized RenderJob submit(String name, Camera camera, double priority) {
+        if (closed) throw new IllegalStateException("Render service is closed");
+        if (!(priority > 0)) throw new IllegalArgumentException("Priority must be positive");
+        RenderJob job = new RenderJob(name, camera, priority, now);
+        active.add(job);
+        queue.add(job);
+        while (running < parallelism && running < queuedTiles()) {
+            ++running;
+            pool.execute(this::dispatch);
+        }
+        return job;
+    }
+
+    /**
+     * A tile picked for rendering.
+     * @param job  the job of the tile
+     * @param tile the tile
+     */
+    private record Dispatch(RenderJob job, Tile tile) { }
+
+    /**
+     * Picks the next tile to render by the fair-share policy.
+     * @return the picked tile, or null if no tile is left (then the calling task ends)
+     */
+    private synchronized Dispatch nextTile() {
+        RenderJob job;
+        while ((job = queue.poll()) != null && job.isDone())
+            if (active.remove(job)) ++completed; // cancelled or failed
+        if (job == null) {
+            --running;
+            return null;
+        }
+        Tile tile = job.tiles.get(job.nextTile++);
+        now       = job.pass;
+        job.pass += tile.pixels() / job.priority;
+        if (job.nextTile < job.tiles.size()) queue.add(job);
+        return new Dispatch(job, tile);
+    }
+
+    /** A dispatch task: renders the next tiles while there are any. */
+    private void dispatch() {
+        for (Dispatch next = nextTile(); next != null; next = nextTile()) {
+            RenderJob job = next.job();
+            try {
+                if (!job.isDone()) {
+                    job.camera.renderSample(next.tile(), 0, job.buffer);
+                    if (job.tileDone(next.tile())) {
+                        jobDone(job);
+                        job.future.complete(job.buffer);
+                    }
+                } else jobDone(job);
+            } catch (RuntimeException | Error e) {
+                jobDone(job);
+                job.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Removes a completed job from the active jobs.
+     * @param job the job
+     */
+    private synchronized void jobDone(RenderJob job) {
+        if (active.remove(job)) ++completed;
+    }
+
+    /** @return number of tiles waiting to be dispatched, over all the jobs not cancelled or failed */
+    public synchronized int queuedTiles() {
+        int tiles = 0;
+        for (RenderJob job : queue) if (!job.isDone()) tiles += job.tiles.size() - job.nextTile;
+        return tiles;
+    }
+
+    /**
+     * Snapshot of the service metrics.
+     * @return the metrics
+     */
+    public synchronized Metrics metrics() {
+        List<JobMetrics> jobs = new ArrayList<>(active.size());
+        for (RenderJob job : active) jobs.add(job.metrics());
+        return new Metrics(queuedTiles(), queue.size(), running, completed, jobs);
+    }
+
+    /**
+     * Stops accepting jobs and waits for the running jobs; with a pool of its own, shuts it
+     * down. If the thread is interrupted while the pool terminates, the pool is shut down at
+     * once and the interrupt flag is kept.
+     * @throws IllegalStateException if the own pool did not terminate within a minute
+     */
+    @Override
+    public void close() {
+        List<RenderJob> jobs;
+        synchronized (this) {
+            closed = true;
+            jobs   = new ArrayList<>(active);
+        }
+        for (RenderJob job : jobs) job.future.handle((b, e) -> null).join();
+        if (!ownPool) return;
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                pool.shutdownNow();
+                throw new IllegalStateException("Render pool did not terminate within a minute");
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Service metrics.
+     * @param queuedTiles   tiles waiting to be dispatched
+     * @param queuedJobs    jobs with tiles waiting to be dispatched
+     * @param runningTasks  dispatch tasks in the pool
+     * @param completedJobs jobs completed since the service started
+     * @param jobs          metrics of the active jobs
+     */
+    public record Metrics(int queuedTiles, int queuedJobs, int runningTasks, long completedJobs,
+                          List<JobMetrics> jobs) { }
+
+    /**
+     * Metrics of a single job.
+     * @param name            job name
+     * @param tilesDone       tiles rendered
+     * @param tilesTotal      tiles of the image
+     * @param pixelsPerSecond throughput since the job was submitted
+     */
+    public record JobMetrics(String name, int tilesDone, int tilesTotal, double pixelsPerSecond) { }
+
+    /**
+     * A render job of the service.
+     */
+    public static final class RenderJob {
+        /** Job name */
+        private final String      name;
+        /** The camera */
+        private final Camera      camera;
+        /** Share of the pool */
+        private final double      priority;
+        /** The tiles of the image */
+        private final List<Tile>  tiles;
+        /** The image */
+        private final FrameBuffer buffer;
+        /** Submission time */
+        private final long        start      = System.nanoTime();
+        /** Completion of the job */
+        private final CompletableFuture<FrameBuffer> future = new CompletableFuture<>();
+        /** Virtual time of the job (guarded by the service) */
+        private double            pass;
+        /** Next tile to dispatch (guarded by the service) */
+        private int               nextTile   = 0;
+        /** Rendered tiles (guarded by the job) */
+        private int               tilesDone  = 0;
+        /** Rendered pixels (guarded by the job) */
+        private long              pixelsDone = 0;
+
+        /**
+         * Creates a job.
+         * @param name     job name
+         * @param camera   the camera
+         * @param priority share of the pool
+         * @param pass     initial virtual time
+         */
+        private RenderJob(String name, Camera camera, double priority, double pass) {
+            this.name     = name;
+            this.camera   = camera;
+            this.priority = priority;
+            this.pass     = pass;
+            this.tiles    = camera.tiles();
+            this.buffer   = camera.createFrameBuffer();
+        }
+
+        /**
+         * Counts a rendered tile.
+         * @param  tile the tile
+         * @return      true if it was the last tile of the job
+         */
+        private synchronized boolean tileDone(Tile tile) {
+            pixelsDone += tile.pixels();
+            return ++tilesDone == tiles.size();
+        }
+
+        /** @return the job name */
+        public String getName() { return name; }
+
+        /** @return the completion of the job, holding the rendered image */
+        public CompletableFuture<FrameBuffer> getResult() { return future; }
+
+        /** @return true if the job is completed, cancelled or failed */
+        public boolean isDone() { return future.isDone(); }
+
+        /** Cancels the job - its tiles in progress finish, no more tiles are started. */
+        public void cancel() { future.cancel(false); }
+
+        /** @return the job metrics */
+        public synchronized JobMetrics metrics() {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            return new JobMetrics(name, tilesDone, tiles.size(), seconds > 0 ? pixelsDone / seconds : 0);
+        }
+    }
+}
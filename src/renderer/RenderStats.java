@@ -0,0 +1,329 @@
+package renderer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Render instrumentation counters: rays cast (primary, secondary and shadow), intersection
+ * tests and hits per geometry class, bounding box tests, time per tile and the shadow-ray
+ * occluder cache.
+ *
+ * <p>Counting is switched on by the JVM flag {@code -Drenderer.stats=true}. The flag is
+ * read once into the constant {@link #ENABLED}, so when it is off every
+ * {@code if (RenderStats.ENABLED)} guard in the hot path is folded away by the JIT and
+ * costs nothing.</p>
+ *
+ * <p>The counters are striped: each thread increments plain (non-atomic) fields of its own
+ * {@link Stripe}, so counting never contends between render threads. A {@link Snapshot}
+ * merges all the stripes - take it after the render threads are done. The stripes of ended
+ * threads are folded into a base total (when a thread takes a new stripe and on a snapshot
+ * or reset), so the renders of a long-running process, each with its own threads, do not
+ * pile up stripes.</p>
+ * @author Ido
+ */
+public final class RenderStats {
+    /** Whether the counters are collected (JVM flag {@code -Drenderer.stats=true}) */
+    public static final boolean ENABLED = Boolean.getBoolean("renderer.stats");
+
+    /** Maximal number of distinct geometry classes that are counted separately */
+    static final int MAX_KINDS = 32;
+
+    /** The counters of the renderer */
+    private static final RenderStats GLOBAL = new RenderStats();
+
+    /** Names of the counted geometry classes, by their slot */
+    private static final String[]      KIND_NAMES = new String[MAX_KINDS];
+    /** Next free geometry class slot */
+    private static final AtomicInteger NEXT_KIND  = new AtomicInteger();
+    /** Geometry class to counter slot (the last slot is shared by any overflow) */
+    private static final ClassValue<Integer> KINDS = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            int kind = Math.min(NEXT_KIND.getAndIncrement(), MAX_KINDS - 1);
+            KIND_NAMES[kind] = kind == MAX_KINDS - 1 ? "Other" : type.getSimpleName();
+            return kind;
+        }
+    };
+
+    /** The stripes of the threads, until they are folded into the base after their thread ends */
+    private final List<Stripe>        stripes = new CopyOnWriteArrayList<>();
+    /** The counters of the ended threads (guarded by this) */
+    private final Stripe              base    = new Stripe(null);
+    /** Stripe of the current thread */
+    private final ThreadLocal<Stripe> local   = ThreadLocal.withInitial(() -> {
+        Stripe stripe = new Stripe(Thread.currentThread());
+        synchronized (this) {
+            retire();
+            stripes.add(stripe);
+        }
+        return stripe;
+    });
+
+    /** Package-private: the renderer uses the single {@link #global()} instance. */
+    RenderStats() { }
+
+    /** @return the renderer counters */
+    public static RenderStats global() { return GLOBAL; }
+
+    /** @return the counters stripe of the current thread */
+    Stripe stripe() { return local.get(); }
+
+    /** @return number of the stripes not folded into the base yet */
+    int stripes() { return stripes.size(); }
+
+    /**
+     * Folds the stripes of the ended threads into the base total. An ended thread writes its
+     * stripe no more, and its end happens before it is seen not alive. Call it holding the lock.
+     */
+    private void retire() {
+        for (Stripe s : stripes)
+            if (!s.owner.isAlive()) {
+                base.add(s);
+                stripes.remove(s);
+            }
+    }
+
+    // ---------------- hot path shortcuts (no-ops unless ENABLED) ----------------
+
+    /** Counts a ray cast: primary, secondary (reflected or transmitted) or shadow. */
+    public static void countRay() {
+        if (ENABLED) GLOBAL.stripe().rays++;
+    }
+
+    /**
+     * Counts an intersection test of a ray against a geometry.
+     * @param geometry the tested geometry
+     */
+    public static void countTest(Object geometry) {
+        if (ENABLED) GLOBAL.stripe().tests[KINDS.get(geometry.getClass())]++;
+    }
+
+    /**
+     * Counts intersection points found on a geometry.
+     * @param geometry the intersected geometry
+     * @param points   number of intersection points found
+     */
+    public static void countHits(Object geometry, int points) {
+        if (ENABLED) GLOBAL.stripe().hits[KINDS.get(geometry.getClass())] += points;
+    }
+
+    /** Counts a ray - bounding box test. */
+    public static void countBoxTest() {
+        if (ENABLED) GLOBAL.stripe().boxTests++;
+    }
+
+    /**
+     * Counts a rendered tile.
+     * @param nanos time the tile took, in nanoseconds
+     */
+    public static void countTile(long nanos) {
+        if (ENABLED) GLOBAL.stripe().tile(nanos);
+    }
+
+    /**
+     * Counts a lookup of the shadow-ray occluder cache.
+     * @param hit whether the cached occluder blocked the shadow ray
+     */
+    public static void countOccluderLookup(boolean hit) {
+        if (ENABLED) {
+            Stripe stripe = GLOBAL.stripe();
+            ++stripe.occluderLookups;
+            if (hit) ++stripe.occluderHits;
+        }
+    }
+
+    /**
+     * Counts a full shadow-ray query through the scene geometries.
+     * @param tests the intersection tests the query made
+     */
+    public static void countShadowQuery(long tests) {
+        if (ENABLED) {
+            Stripe stripe = GLOBAL.stripe();
+            ++stripe.shadowQueries;
+            stripe.shadowQueryTests += tests;
+        }
+    }
+
+    /**
+     * The intersection tests counted so far by the current thread, for measuring a query.
+     * @return the number of tests, 0 unless ENABLED
+     */
+    public static long threadTests() {
+        if (!ENABLED) return 0;
+        long sum = 0;
+        for (long tests : GLOBAL.stripe().tests) sum += tests;
+        return sum;
+    }
+
+    // ---------------- merging ----------------
+
+    /**
+     * Merges the stripes of all the threads.
+     * @return the merged counters
+     */
+    public synchronized Snapshot snapshot() {
+        retire();
+        Stripe sum = new Stripe(null);
+        sum.add(base);
+        for (Stripe s : stripes) sum.add(s);
+        Map<String, Long> testsByKind = new LinkedHashMap<>(), hitsByKind = new LinkedHashMap<>();
+        for (int k = 0; k < MAX_KINDS; ++k)
+            if (sum.tests[k] != 0 || sum.hits[k] != 0) {
+                testsByKind.merge(KIND_NAMES[k], sum.tests[k], Long::sum);
+                hitsByKind.merge(KIND_NAMES[k], sum.hits[k], Long::sum);
+            }
+        return new Snapshot(sum.rays, sum.boxTests, sum.tiles, sum.tileNanos, sum.maxTileNanos,
+                Collections.unmodifiableMap(testsByKind), Collections.unmodifiableMap(hitsByKind),
+                sum.occluderLookups, sum.occluderHits, sum.shadowQueries, sum.shadowQueryTests);
+    }
+
+    /** Zeroes all the counters - call it between renders, not while rendering. */
+    public synchronized void reset() {
+        retire();
+        base.clear();
+        for (Stripe s : stripes) s.clear();
+    }
+
+    /**
+     * Counters of a single thread. Only the owner thread writes it, so plain fields are enough.
+     */
+    static final class Stripe {
+        /** The thread writing the stripe, null for a total of stripes */
+        final Thread owner;
+        /** Rays cast */
+        long         rays;
+        /** Ray - bounding box tests */
+        long         boxTests;
+        /** Rendered tiles */
+        long         tiles;
+        /** Total time of the rendered tiles */
+        long         tileNanos;
+        /** Longest tile time */
+        long         maxTileNanos;
+        /** Shadow-ray occluder cache lookups */
+        long         occluderLookups;
+        /** Occluder cache lookups where the cached occluder blocked the shadow ray */
+        long         occluderHits;
+        /** Full shadow-ray queries through the scene geometries */
+        long         shadowQueries;
+        /** Intersection tests of the full shadow-ray queries */
+        long         shadowQueryTests;
+        /** Intersection tests per geometry class slot */
+        final long[] tests = new long[MAX_KINDS];
+        /** Intersection points per geometry class slot */
+        final long[] hits  = new long[MAX_KINDS];
+
+        /**
+         * Creates a zeroed stripe.
+         * @param owner the thread writing the stripe, null for a total of stripes
+         */
+        Stripe(Thread owner) { this.owner = owner; }
+
+        /**
+         * Adds the counters of another stripe.
+         * @param other the stripe
+         */
+        void add(Stripe other) {
+            rays      += other.rays;
+            boxTests  += other.boxTests;
+            tiles     += other.tiles;
+            tileNanos += other.tileNanos;
+            maxTileNanos = Math.max(maxTileNanos, other.maxTileNanos);
+            occluderLookups  += other.occluderLookups;
+            occluderHits     += other.occluderHits;
+            shadowQueries    += other.shadowQueries;
+            shadowQueryTests += other.shadowQueryTests;
+            for (int k = 0; k < MAX_KINDS; ++k) {
+                tests[k] += other.tests[k];
+                hits[k]  += other.hits[k];
+            }
+        }
+
+        /**
+         * Counts a rendered tile.
+         * @param nanos tile time in nanoseconds
+         */
+        void tile(long nanos) {
+            ++tiles;
+            tileNanos += nanos;
+            if (nanos > maxTileNanos) maxTileNanos = nanos;
+        }
+
+        /** Zeroes the stripe. */
+        void clear() {
+            rays = boxTests = tiles = tileNanos = maxTileNanos = 0;
+            occluderLookups = occluderHits = shadowQueries = shadowQueryTests = 0;
+            Arrays.fill(tests, 0);
+            Arrays.fill(hits, 0);
+        }
+    }
+
+    /**
+     * Merged counters.
+     * @param rays             rays cast
+     * @param boxTests         ray - bounding box tests
+     * @param tiles            rendered tiles
+     * @param tileNanos        total time of the rendered tiles (summed over threads)
+     * @param maxTileNanos     longest tile time
+     * @param tests            intersection tests per geometry class name
+     * @param hits             intersection points per geometry class name
+     * @param occluderLookups  shadow-ray occluder cache lookups
+     * @param occluderHits     occluder cache lookups where the cached occluder blocked the ray
+     * @param shadowQueries    full shadow-ray queries through the scene geometries
+     * @param shadowQueryTests intersection tests of the full shadow-ray queries
+     */
+    public record Snapshot(long rays, long boxTests, long tiles, long tileNanos, long maxTileNanos,
+                           Map<String, Long> tests, Map<String, Long> hits,
+                           long occluderLookups, long occluderHits, long shadowQueries, long shadowQueryTests) {
+        /** @return total number of intersection tests */
+        public long totalTests() {
+            return tests.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        /** @return average number of intersection tests per ray */
+        public double testsPerRay() { return rays == 0 ? 0 : (double) totalTests() / rays; }
+
+        /** @return ratio of the occluder cache lookups where the cached occluder blocked the ray */
+        public double occluderHitRate() { return occluderLookups == 0 ? 0 : (double) occluderHits / occluderLookups; }
+
+        /**
+         * Estimates the intersection tests the occluder cache saved, net: every cache hit replaced
+         * a full shadow query (of the average measured cost) by a single test, and every miss
+         * added a test before the full query. Negative when the misses cost more than the hits
+         * saved.
+         * @return the saved tests
+         */
+        public long savedShadowTests() {
+            if (shadowQueries == 0) return 0;
+            return Math.round(occluderHits * ((double) shadowQueryTests / shadowQueries - 1))
+                    - (occluderLookups - occluderHits);
+        }
+
+        /**
+         * Render summary, e.g. for printing at the end of a render.
+         * @param  elapsedNanos wall-clock time of the render
+         * @return              multi-line human readable summary
+         */
+        public String summary(long elapsedNanos) {
+            double        seconds = elapsedNanos / 1e9;
+            StringBuilder sb      = new StringBuilder("Render statistics:\n");
+            sb.append(String.format("  rays: %d (%.0f rays/s), tests/ray: %.2f, box tests: %d%n",
+                    rays, seconds > 0 ? rays / seconds : 0, testsPerRay(), boxTests));
+            sb.append(String.format("  tiles: %d, avg %.3f ms, max %.3f ms%n",
+                    tiles, tiles == 0 ? 0 : tileNanos / 1e6 / tiles, maxTileNanos / 1e6));
+            if (occluderLookups > 0)
+                sb.append(String.format("  occluder cache: lookups: %d, hit rate: %.1f%%, full shadow queries: %d,"
+                        + " saved tests: %d%n", occluderLookups, 100 * occluderHitRate(), shadowQueries,
+                        savedShadowTests()));
+            for (var e : tests.entrySet())
+                sb.append(String.format("  %-12s tests: %d, hits: %d%n",
+                        e.getKey(), e.getValue(), hits.getOrDefault(e.getKey(), 0L)));
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package renderer;
+
+import geometries.Geometry;
+import geometries.Intersectable;
+import geometries.Intersectable.GeoPoint;
+import primitives.*;
+import lighting.AreaLight;
+import lighting.LightHierarchy;
+import lighting.LightSource;
+import scene.Scene;
+
+import java.io.Serial;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static primitives.Util.alignZero;
+
+/**
+ * Ray tracer of a {@link Scene}: the color a ray sees is the emission, the ambient light and
+ * the light of the light sources at the closest geometry it hits (or the background), plus
+ * what the reflected and the transmitted rays from that point see, attenuated by the
+ * material.
+ *
+ * <p>The secondary rays are not traced by recursion but by an explicit work stack: every
+ * entry is a ray with its throughput - the product of all the attenuation factors on the
+ * way from the camera - and a hit adds its local color times the throughput to the pixel.
+ * The Java stack does not grow with reflection and refraction chains and the loop body is
+ * small enough to be inlined. A chain ends when its throughput drops below
+ * {@link #MIN_CALC_COLOR_K} in all the color components, or after
+ * {@link #MAX_CALC_COLOR_LEVEL} hits.</p>
+ * @author Ido
+ */
+public class SimpleRayTracer extends RayTracerBase {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** Maximal number of hits along a chain of secondary rays */
+    static final int            MAX_CALC_COLOR_LEVEL = 10;
+    /** Throughput below which a secondary ray is not traced */
+    private static final double MIN_CALC_COLOR_K     = 0.001;
+    /**
+     * Size of the work stack: the stack is depth first, so there is at most one pending
+     * sibling per level besides the entry being traced
+     */
+    private static final int    STACK_SIZE           = MAX_CALC_COLOR_LEVEL + 1;
+    /** Default number of light samples per hit */
+    private static final int    LIGHT_SAMPLES        = 4;
+    /** Area light positions of the first shadow rays, along the first edge: the corners and the center */
+    private static final double[] AREA_S = { 0, 1, 0, 1, 0.5 };
+    /** Area light positions of the first shadow rays, along the second edge */
+    private static final double[] AREA_T = { 0, 0, 1, 1, 0.5 };
+
+    /** The scene */
+    protected final Scene          scene;
+    /** Hierarchy of the scene lights */
+    protected final LightHierarchy lightHierarchy;
+    /** The geometries that last blocked the lights, per thread */
+    private final OccluderCache    occluders    = new OccluderCache();
+    /** Number of positioned lights sampled per hit (all are used when there are not more) */
+    private int                    lightSamples = LIGHT_SAMPLES;
+
+    /**
+     * Constructor of a ray tracer for a scene (the scene geometries and lights are taken at
+     * construction).
+     * @param scene the scene
+     */
+    public SimpleRayTracer(Scene scene) {
+        super(scene.getGeometries());
+        this.scene     = scene;
+        lightHierarchy = LightHierarchy.build(scene.getLights());
+    }
+
+    /**
+     * Setter of the number of positioned lights sampled per hit.
+     * @param  lightSamples the number of samples
+     * @return              this tracer
+     */
+    public SimpleRayTracer setLightSamples(int lightSamples) {
+        if (lightSamples < 1) throw new IllegalArgumentException("Light samples must be positive");
+        this.lightSamples = lightSamples;
+        return this;
+    }
+
+    /**
+     * Forgets the shadow occluders cached by the current thread, so the next shadow rays are
+     * traced through the scene geometries.
+     */
+    void clearOccluders() { occluders.clear(); }
+
+    @Override
+    public Color traceRay(Ray ray) {
+        return trace(ray, findClosestIntersection(ray), null);
+    }
+
+    /**
+     * {@inheritDoc} The secondary and shadow rays see the whole scene. A subclass changing
+     * {@link #traceRay(Ray)} or {@link #findClosestIntersection(Ray)} should change this method
+     * as well, for the cameras culling their tiles.
+     */
+    @Override
+    public Color traceRay(Ray ray, Intersectable candidates) {
+        return trace(ray, findClosestIntersection(ray, candidates), null);
+    }
+
+    /**
+     * Traces a ray whose closest intersection is already known - as kept in a
+     * {@link GBuffer} - skipping its intersection with the scene geometries.
+     * @param  ray    the ray
+     * @param  hit    the closest intersection of the ray, null if it hits nothing
+     * @param  normal the normal at the intersection, null to compute it
+     * @return        the color seen along the ray
+     */
+    Color traceHit(Ray ray, GeoPoint hit, Vector normal) {
+        return trace(ray, hit, normal);
+    }
+
+    /**
+     * Traces a ray and its secondary rays.
+     * @param  ray    the ray
+     * @param  first  the closest intersection of the ray, null if it hits nothing
+     * @param  normal the normal at the intersection, null to compute it
+     * @return        the color seen along the ray
+     */
+    private Color trace(Ray ray, GeoPoint first, Vector normal) {
+        Ray[]    rays       = new Ray[STACK_SIZE];
+        double[] throughput = new double[3 * STACK_SIZE];
+        int[]    levels     = new int[STACK_SIZE];
+        rays[0]       = ray;
+        throughput[0] = throughput[1] = throughput[2] = 1;
+        levels[0]     = MAX_CALC_COLOR_LEVEL;
+        int top = 1;
+
+        double r = 0, g = 0, b = 0;
+        while (top > 0) {
+            --top;
+            Ray    current = rays[top];
+            double kr      = throughput[3 * top], kg = throughput[3 * top + 1], kb = throughput[3 * top + 2];
+            int    level   = levels[top];
+            rays[top] = null;
+
+            GeoPoint hit = current == ray ? first : findClosestIntersection(current);
+            Color    color;
+            if (hit == null) color = scene.getBackground();
+            else {
+                Vector n  = current == ray && normal != null ? normal : hit.geometry().getNormal(hit.point());
+                Vector v  = current.getDir();
+                double nv = alignZero(n.dotProduct(v));
+                color = localColor(hit, n, v, nv);
+                if (level > 1) {
+                    Material material = hit.geometry().getMaterial();
+                    if (nv != 0) {
+                        Double3 kT = material.getKT();
+                        if (traced(kT, kr, kg, kb))
+                            top = push(rays, throughput, levels, top, new Ray(hit.point(), v, n),
+                                    kT, kr, kg, kb, level);
+                        Double3 kR = material.getKR();
+                        if (traced(kR, kr, kg, kb))
+                            top = push(rays, throughput, levels, top,
+                                    new Ray(hit.point(), v.subtract(n.scale(2 * nv)), n), kR, kr, kg, kb, level);
+                    }
+                }
+            }
+            r += kr * color.getRed();
+            g += kg * color.getGreen();
+            b += kb * color.getBlue();
+        }
+        return new Color(r, g, b);
+    }
+
+    /**
+     * Checks whether a secondary ray has enough throughput to be traced.
+     * @param  k  the attenuation factor of the secondary ray
+     * @param  kr red throughput of the ray it comes from
+     * @param  kg green throughput of the ray it comes from
+     * @param  kb blue throughput of the ray it comes from
+     * @return    true if some component of the throughput is not below {@link #MIN_CALC_COLOR_K}
+     */
+    static boolean traced(Double3 k, double kr, double kg, double kb) {
+        return kr * k.d1() >= MIN_CALC_COLOR_K || kg * k.d2() >= MIN_CALC_COLOR_K || kb * k.d3() >= MIN_CALC_COLOR_K;
+    }
+
+    /**
+     * Pushes a secondary ray on the work stack.
+     * @param  rays       the stack rays
+     * @param  throughput the stack throughputs (3 per entry)
+     * @param  levels     the stack levels
+     * @param  top        the stack size
+     * @param  ray        the secondary ray
+     * @param  k          the attenuation factor of the secondary ray
+     * @param  kr         red throughput of the ray it comes from
+     * @param  kg         green throughput of the ray it comes from
+     * @param  kb         blue throughput of the ray it comes from
+     * @param  level      level of the ray it comes from
+     * @return            the new stack size
+     */
+    private static int push(Ray[] rays, double[] throughput, int[] levels, int top, Ray ray, Double3 k,
+                            double kr, double kg, double kb, int level) {
+        RenderStats.countRay();
+        rays[top]               = ray;
+        throughput[3 * top]     = kr * k.d1();
+        throughput[3 * top + 1] = kg * k.d2();
+        throughput[3 * top + 2] = kb * k.d3();
+        levels[top]             = level - 1;
+        return top + 1;
+    }
+
+    /**
+     * The color a geometry point shows by itself: its emission, the ambient light and the
+     * diffuse and specular light of the light sources that are not blocked from the point.
+     * Positioned lights are sampled from the light hierarchy when there are more of them than
+     * samples per hit, each sample weighted by the inverse of its probability.
+     * @param  hit the geometry point
+     * @param  n   the normal at the point
+     * @param  v   the direction of the ray that hit it
+     * @param  nv  the aligned cosine between the normal and the ray
+     * @return     the local color
+     */
+    protected Color localColor(GeoPoint hit, Vector n, Vector v, double nv) {
+        Color color = hit.geometry().getEmission()
+                .add(scene.getAmbientLight().scale(hit.geometry().getMaterial().getKA()));
+        if (nv == 0) return color;
+
+        for (LightSource light : lightHierarchy.getGlobalLights())
+            color = color.add(lightColor(hit, light, n, v, nv));
+        if (lightHierarchy.getLightCount() <= lightSamples) {
+            for (LightSource light : lightHierarchy.getLights())
+                color = color.add(lightColor(hit, light, n, v, nv));
+        } else {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int s = 0; s < lightSamples; ++s) {
+                LightHierarchy.Sample sample = lightHierarchy.sample(hit.point(), random.nextDouble());
+                if (sample != null)
+                    color = color.add(lightColor(hit, sample.light(), n, v, nv)
+                            .scale(1 / (sample.probability() * lightSamples)));
+            }
+        }
+        return color;
+    }
+
+    /**
+     * The diffuse and specular light a light source adds to a geometry point.
+     * @param  hit   the geometry point
+     * @param  light the light source
+     * @param  n     the normal at the point
+     * @param  v     the direction of the ray that hit it
+     * @param  nv    the aligned cosine between the normal and the ray
+     * @return       the light color, black if the light is on the other side or blocked
+     */
+    private Color lightColor(GeoPoint hit, LightSource light, Vector n, Vector v, double nv) {
+        Vector l  = light.getL(hit.point());
+        double nl = alignZero(n.dotProduct(l));
+        if (nl * nv <= 0) return Color.BLACK;
+        double visibility = light instanceof AreaLight area ? visibility(hit, area, n, nv)
+                : unshaded(hit, light, l, n) ? 1 : 0;
+        if (visibility == 0) return Color.BLACK;
+
+        Material material = hit.geometry().getMaterial();
+        Double3  effects  = material.getKD().scale(Math.abs(nl));
+        double   vr       = -alignZero(v.dotProduct(l.subtract(n.scale(2 * nl))));
+        if (vr > 0) effects = effects.add(material.getKS().scale(Math.pow(vr, material.getShininess())));
+        return light.getIntensity(hit.point()).scale(effects.scale(visibility));
+    }
+
+    /**
+     * Checks that no geometry blocks a light source from a geometry point, by a shadow ray.
+     * The geometry that last blocked the light in this thread is tested first; only if it
+     * does not block the ray the ray is traced through the scene geometries.
+     * @param  hit   the geometry point
+     * @param  light the light source
+     * @param  l     the light direction at the point
+     * @param  n     the normal at the point
+     * @return       true if the light reaches the point
+     */
+    protected boolean unshaded(GeoPoint hit, LightSource light, Vector l, Vector n) {
+        Ray      shadow   = new Ray(hit.point(), l.scale(-1), n);
+        double   distance = light.getDistance(hit.point());
+        RenderStats.countRay();
+        Geometry cached   = occluders.get(light);
+        if (cached != null) {
+            if (RenderStats.ENABLED) RenderStats.countTest(cached);
+            boolean blocked = blocks(cached.findIntersections(shadow), hit.point(), distance);
+            RenderStats.countOccluderLookup(blocked);
+            if (blocked) return false;
+        }
+
+        long           tests         = RenderStats.threadTests();
+        List<GeoPoint> intersections = geometries.findGeoIntersections(shadow);
+        RenderStats.countShadowQuery(RenderStats.threadTests() - tests);
+        if (intersections == null) return true;
+        for (GeoPoint intersection : intersections)
+            if (blocks(intersection.point(), hit.point(), distance)) {
+                occluders.put(light, intersection.geometry());
+                return false;
+            }
+        return true;
+    }
+
+    /**
+     * The part of an area light a geometry point sees. The corners and the center of the
+     * light are tested first: if all of them or none of them are seen the point is fully lit
+     * or fully shadowed; otherwise it is in the penumbra and the visibility is the part of a
+     * jittered grid of the light it sees.
+     * @param  hit   the geometry point
+     * @param  light the area light
+     * @param  n     the normal at the point
+     * @param  nv    the aligned cosine between the normal and the ray
+     * @return       the visibility, 0..1
+     */
+    private double visibility(GeoPoint hit, AreaLight light, Vector n, double nv) {
+        int seen = 0;
+        for (int k = 0; k < AREA_S.length; ++k)
+            if (sees(hit, light.getPoint(AREA_S[k], AREA_T[k]), n, nv)) ++seen;
+        if (seen == AREA_S.length) return 1;
+        if (seen == 0) return 0;
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int               grid   = light.getGrid();
+        seen = 0;
+        for (int i = 0; i < grid; ++i)
+            for (int j = 0; j < grid; ++j)
+                if (sees(hit, light.getPoint((i + random.nextDouble()) / grid, (j + random.nextDouble()) / grid), n, nv))
+                    ++seen;
+        return (double) seen / (grid * grid);
+    }
+
+    /**
+     * Checks whether a geometry point sees a point of an area light: the light point is on
+     * the side of the surface the ray came from, and a shadow ray through the scene
+     * geometries reaches it.
+     * @param  hit    the geometry point
+     * @param  target the light point
+     * @param  n      the normal at the point
+     * @param  nv     the aligned cosine between the normal and the ray
+     * @return        true if the light point is seen
+     */
+    private boolean sees(GeoPoint hit, Point target, Vector n, double nv) {
+        if (target.equals(hit.point())) return true;
+        Vector toLight = target.subtract(hit.point());
+        if (alignZero(n.dotProduct(toLight)) * nv >= 0) return false;
+        RenderStats.countRay();
+        long        tests  = RenderStats.threadTests();
+        List<Point> points = geometries.findIntersections(new Ray(hit.point(), toLight, n));
+        RenderStats.countShadowQuery(RenderStats.threadTests() - tests);
+        return !blocks(points, hit.point(), toLight.length());
+    }
+
+    /**
+     * Checks whether some of the intersections of a shadow ray is between the point and the light.
+     * @param  intersections the intersection points (null for none)
+     * @param  p             the shaded point
+     * @param  distance      the distance of the light from the point
+     * @return               true if some intersection blocks the light
+     */
+    private static boolean blocks(List<Point> intersections, Point p, double distance) {
+        if (intersections == null) return false;
+        for (Point intersection : intersections)
+            if (blocks(intersection, p, distance)) return true;
+        return false;
+    }
+
+    /**
+     * Checks whether an intersection of a shadow ray is between the point and the light.
+     * @param  intersection the intersection point
+     * @param  p            the shaded point
+     * @param  distance     the distance of the light from the point
+     * @return              true if the intersection blocks the light
+     */
+    private static boolean blocks(Point intersection, Point p, double distance) {
+        return alignZero(intersection.distance(p) - distance) < 0;
+    }
+
+    /**
+     * Finds the intersection closest to the ray head.
+     * @param  ray the ray
+     * @return     the closest intersection, null if there is none
+     */
+    protected GeoPoint findClosestIntersection(Ray ray) {
+        return findClosestIntersection(ray, geometries);
+    }
+
+    /**
+     * Finds the intersection closest to the ray head among some of the scene geometries -
+     * for a primary ray, the geometries a {@link TileFrustum} did not cull.
+     * @param  ray        the ray
+     * @param  candidates the geometries the ray may hit
+     * @return            the closest intersection, null if there is none
+     */
+    protected GeoPoint findClosestIntersection(Ray ray, Intersectable candidates) {
+        List<GeoPoint> intersections = candidates.findGeoIntersections(ray);
+        if (intersections == null) return null;
+        Point    head     = ray.getPoint(0);
+        GeoPoint closest  = null;
+        double   distance = Double.POSITIVE_INFINITY;
+        for (GeoPoint intersection : intersections) {
+            double d = intersection.point().distanceSquared(head);
+            if (d < distance) {
+                distance = d;
+                closest  = intersection;
+            }
+        }
+        return closest;
+    }
+}
@@ -0,0 +1,351 @@
+package renderer;
+
+import primitives.Color;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Image writer that streams the rendered image to a PNG or PPM file row by row, through an
+ * NIO file channel. Only a bounded window of rows is kept in memory: finished rows are
+ * flushed to the file in order, while tiles that arrive ahead of the next row to write wait
+ * in the window. A tile beyond the window blocks its render thread until the rows before it
+ * are written - so a gigapixel image never has to sit in the heap.
+ *
+ * <p>Rows of the window are plain byte arrays (3 bytes per pixel, RGB), colors are clamped
+ * to 0..255 as they arrive. The PNG is encoded on the fly (8 bit RGB, "Sub" row filter,
+ * deflate), the PPM is the binary P6 format.</p>
+ *
+ * <p>Tiles must be handed out in row-major order (as {@link Camera#renderImage(TileSink)}
+ * does) and the window must be at least one tile high; then the tile holding the next row
+ * to write is always inside the window, and the writer cannot deadlock.</p>
+ * @author Ido
+ */
+public class StreamingImageWriter implements TileSink, AutoCloseable {
+    /** Supported file formats */
+    public enum Format { PNG, PPM }
+
+    /** Default number of rows kept in memory */
+    public static final int DEFAULT_WINDOW = 256;
+
+    /** PNG file signature */
+    private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+    /** Size of the IDAT chunks (and of the output buffer) */
+    private static final int    CHUNK         = 1 << 16;
+
+    /** Target file */
+    private final Path        file;
+    /** File format */
+    private final Format      format;
+    /** Image width in pixels */
+    private final int         width;
+    /** Image height in pixels */
+    private final int         height;
+    /** Maximal number of rows waiting in memory */
+    private final int         window;
+    /** Output channel */
+    private final FileChannel channel;
+    /** Output buffer (direct - handed to the channel without copying) */
+    private final ByteBuffer  out     = ByteBuffer.allocateDirect(CHUNK + 12);
+    /** Compressor of the PNG image data (null for PPM) */
+    private final Deflater    deflater;
+    /** Compressed data buffer */
+    private final byte[]      deflated;
+    /** PNG filtered row: filter type byte + the row bytes */
+    private final byte[]      filtered;
+    /** The Flight Recorder event of the write, from the first row written to the close */
+    private final RenderEvents.ImageWrite event = new RenderEvents.ImageWrite();
+
+    /** Rows inside the window, by row index */
+    private final Map<Integer, byte[]> pending = new HashMap<>();
+    /** Number of pixels that arrived for each row inside the window, by row index */
+    private final Map<Integer, Integer> filled = new HashMap<>();
+    /** Next row to write to the file */
+    private int     nextRow = 0;
+    /** Total bytes written to the file */
+    private long    written = 0;
+    /** Whether the writer was closed */
+    private boolean closed  = false;
+
+    /**
+     * Opens a streaming writer; the format is chosen by the file extension (.png or .ppm)
+     * and the window is {@link #DEFAULT_WINDOW} rows.
+     * @param  file   target file (created or truncated)
+     * @param  width  image width in pixels
+     * @param  height image height in pixels
+     * @throws IOException if the file cannot be opened
+     */
+    public StreamingImageWriter(Path file, int width, int height) throws IOException {
+        this(file, width, height, formatOf(file), DEFAULT_WINDOW);
+    }
+
+    /**
+     * Opens a streaming writer.
+     * @param  file   target file (created or truncated)
+     * @param  width  image width in pixels
+     * @param  height image height in pixels
+     * @param  format file format
+     * @param  window maximal number of rows waiting in memory (at least the tile height)
+     * @throws IOException              if the file cannot be opened
+     * @throws IllegalArgumentException for non-positive sizes
+     */
+    public StreamingImageWriter(Path file, int width, int height, Format format, int window) throws IOException {
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("Image size must be positive");
+        if (window <= 0) throw new IllegalArgumentException("Rows window must be positive");
+        this.file   = file;
+        this.format = format;
+        this.width  = width;
+        this.height = height;
+        this.window = window;
+        if (format == Format.PNG) {
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+            deflated = new byte[CHUNK];
+            filtered = new byte[1 + 3 * width];
+        } else {
+            deflater = null;
+            deflated = null;
+            filtered = null;
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            if (format == Format.PNG) writeHeaderPng();
+            else out.put(("P6\n" + width + " " + height + "\n255\n").getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            if (deflater != null) deflater.end();
+            throw e;
+        }
+    }
+
+    /**
+     * Chooses the file format by the file extension.
+     * @param  file the file
+     * @return      the format
+     * @throws IllegalArgumentException for an unknown extension
+     */
+    private static Format formatOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".png")) return Format.PNG;
+        if (name.endsWith(".ppm")) return Format.PPM;
+        throw new IllegalArgumentException("Unsupported image file type: " + name);
+    }
+
+    @Override
+    public void tileDone(Tile tile, Color[] pixels) {
+        if (tile.x() + tile.width() > width || tile.y() + tile.height() > height)
+            throw new IllegalArgumentException("Tile is out of the image");
+        if (tile.height() > window)
+            throw new IllegalArgumentException("Tile is higher than the rows window");
+        // clamp and pack the colors before taking the lock
+        int[] rgb = new int[pixels.length];
+        for (int k = 0; k < rgb.length; ++k) rgb[k] = pixels[k].getRGB();
+
+        synchronized (this) {
+            awaitWindow(tile.y() + tile.height() - 1);
+            for (int r = 0, k = 0; r < tile.height(); ++r) {
+                byte[] row = pending.computeIfAbsent(tile.y() + r, y -> new byte[3 * width]);
+                for (int c = 3 * tile.x(), end = c + 3 * tile.width(); c < end; ++k) {
+                    row[c++] = (byte) (rgb[k] >> 16);
+                    row[c++] = (byte) (rgb[k] >> 8);
+                    row[c++] = (byte) rgb[k];
+                }
+                filled.merge(tile.y() + r, tile.width(), Integer::sum);
+            }
+            flushRows();
+        }
+    }
+
+    /**
+     * Receives a whole finished row of packed 0xRRGGBB pixels.
+     * @param y   row index
+     * @param rgb the row pixels ({@code width} long)
+     */
+    public synchronized void writeRow(int y, int[] rgb) {
+        if (y < 0 || y >= height) throw new IllegalArgumentException("Row is out of the image");
+        if (rgb.length != width) throw new IllegalArgumentException("Row length must match the image width");
+        awaitWindow(y);
+        byte[] row = pending.computeIfAbsent(y, k -> new byte[3 * width]);
+        for (int j = 0, c = 0; j < width; ++j) {
+            row[c++] = (byte) (rgb[j] >> 16);
+            row[c++] = (byte) (rgb[j] >> 8);
+            row[c++] = (byte) rgb[j];
+        }
+        filled.put(y, width);
+        flushRows();
+    }
+
+    /**
+     * Blocks the calling render thread until a row fits in the window.
+     * @param lastRow the last row that has to fit
+     */
+    private void awaitWindow(int lastRow) {
+        if (closed) throw new IllegalStateException("Image writer is closed");
+        try {
+            while (lastRow >= nextRow + window) wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the image rows window", e);
+        }
+    }
+
+    /** Writes all the complete rows from the next row on, then wakes up waiting threads. */
+    private void flushRows() {
+        int before = nextRow;
+        while (filled.getOrDefault(nextRow, 0) == width) {
+            filled.remove(nextRow);
+            encodeRow(pending.remove(nextRow));
+            ++nextRow;
+        }
+        if (nextRow != before) notifyAll();
+    }
+
+    /**
+     * Encodes a single row into the file.
+     * @param row the row bytes
+     */
+    private void encodeRow(byte[] row) {
+        if (nextRow == 0) event.begin();
+        try {
+            if (format == Format.PPM) put(row, 0, row.length);
+            else {
+                // "Sub" filter: every byte minus the same component of the pixel to its left
+                filtered[0] = 1;
+                for (int c = 0; c < row.length; ++c)
+                    filtered[c + 1] = (byte) (row[c] - (c >= 3 ? row[c - 3] : 0));
+                deflater.setInput(filtered);
+                while (!deflater.needsInput()) deflateChunk(Deflater.NO_FLUSH);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed writing image " + file, e);
+        }
+    }
+
+    /**
+     * Runs the compressor once and writes its output as an IDAT chunk.
+     * @param  flush deflater flush mode
+     * @return       number of compressed bytes produced
+     * @throws IOException if writing fails
+     */
+    private int deflateChunk(int flush) throws IOException {
+        int n = deflater.deflate(deflated, 0, deflated.length, flush);
+        if (n > 0) writeChunk("IDAT", deflated, n);
+        return n;
+    }
+
+    /**
+     * Writes the PNG signature and header chunk.
+     * @throws IOException if writing fails
+     */
+    private void writeHeaderPng() throws IOException {
+        put(PNG_SIGNATURE, 0, PNG_SIGNATURE.length);
+        ByteBuffer ihdr = ByteBuffer.allocate(13);
+        ihdr.putInt(width).putInt(height)
+            .put((byte) 8)  // bit depth
+            .put((byte) 2)  // color type: RGB
+            .put((byte) 0)  // compression: deflate
+            .put((byte) 0)  // filter method: adaptive
+            .put((byte) 0); // interlace: none
+        writeChunk("IHDR", ihdr.array(), 13);
+    }
+
+    /**
+     * Writes a PNG chunk: length, type, data and CRC of the type and data.
+     * @param  type chunk type
+     * @param  data chunk data
+     * @param  n    data length
+     * @throws IOException if writing fails
+     */
+    private void writeChunk(String type, byte[] data, int n) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32  crc       = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, n);
+        putInt(n);
+        put(typeBytes, 0, 4);
+        put(data, 0, n);
+        putInt((int) crc.getValue());
+    }
+
+    /**
+     * Appends an int (big endian) to the output buffer.
+     * @param  value the value
+     * @throws IOException if writing fails
+     */
+    private void putInt(int value) throws IOException {
+        if (out.remaining() < 4) drain();
+        out.putInt(value);
+    }
+
+    /**
+     * Appends bytes to the output buffer, writing it to the channel whenever it fills.
+     * @param  bytes  source bytes
+     * @param  offset first byte
+     * @param  length number of bytes
+     * @throws IOException if writing fails
+     */
+    private void put(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (!out.hasRemaining()) drain();
+            int n = Math.min(length, out.remaining());
+            out.put(bytes, offset, n);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * Writes the output buffer to the channel.
+     * @throws IOException if writing fails
+     */
+    private void drain() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) written += channel.write(out);
+        out.clear();
+    }
+
+    /** @return number of rows already written to the file */
+    public synchronized int rowsWritten() { return nextRow; }
+
+    /**
+     * Finishes the file and closes it.
+     * @throws IOException           if writing fails
+     * @throws IllegalStateException if some rows of the image never arrived
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        notifyAll();
+        try {
+            if (nextRow != height)
+                throw new IllegalStateException("Image is incomplete: " + nextRow + " of " + height + " rows arrived");
+            if (format == Format.PNG) {
+                deflater.finish();
+                while (!deflater.finished()) deflateChunk(Deflater.NO_FLUSH);
+                writeChunk("IEND", new byte[0], 0);
+            }
+            drain();
+        } finally {
+            if (deflater != null) deflater.end();
+            channel.close();
+            pending.clear();
+            filled.clear();
+        }
+        if (event.shouldCommit()) {
+            event.file   = file.toString();
+            event.pixels = (long) width * height;
+            event.bytes  = written;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package renderer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A rectangular block of pixels of the image - the unit of work of the renderer.
+ * @param x      first column (pixel index j)
+ * @param y      first row (pixel index i)
+ * @param width  number of columns
+ * @param height number of rows
+ * @author Ido
+ */
+public record Tile(int x, int y, int width, int height) {
+    /**
+     * Tile constructor with validation.
+     * @throws IllegalArgumentException for negative position or non-positive size
+     */
+    public Tile {
+        if (x < 0 || y < 0) throw new IllegalArgumentException("Tile position cannot be negative");
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("Tile size must be positive");
+    }
+
+    /** @return number of pixels in the tile */
+    public int pixels() { return width * height; }
+
+    /**
+     * Splits an image into tiles in row-major order (left to right, then top to bottom).
+     * The tiles of the last column and row are cut to the image borders.
+     * @param  nX   image width in pixels
+     * @param  nY   image height in pixels
+     * @param  size tile edge in pixels
+     * @return      the tiles
+     */
+    public static List<Tile> split(int nX, int nY, int size) {
+        if (nX <= 0 || nY <= 0 || size <= 0)
+            throw new IllegalArgumentException("Image and tile sizes must be positive");
+        List<Tile> tiles = new ArrayList<>(((nX + size - 1) / size) * ((nY + size - 1) / size));
+        for (int y = 0; y < nY; y += size)
+            for (int x = 0; x < nX; x += size)
+                tiles.add(new Tile(x, y, Math.min(size, nX - x), Math.min(size, nY - y)));
+        return tiles;
+    }
+}
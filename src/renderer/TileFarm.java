@@ -0,0 +1,416 @@
+package renderer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serial;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Tile farm: renders a camera image on worker JVM processes, so a frame is not limited by
+ * the heap (or the cores) of a single JVM. The workers run {@link TileFarmWorker} - either
+ * local processes started by the farm, or processes on other hosts of the LAN that connect
+ * to the coordinator.
+ *
+ * <p>For a render, the camera (with its ray tracer and the scene geometries) is serialized
+ * once and shipped to every worker. Then every worker has a coordinator thread that hands it
+ * tiles from a shared queue - a fast worker simply takes more tiles - keeping a couple of
+ * tiles in flight so the worker never idles waiting for the next assignment. A worker sends
+ * back the sums of the tile samples as a deflate-compressed block of floats, which are
+ * accumulated into the frame buffer.</p>
+ *
+ * <p>A worker that dies (its stream ends or fails) is dropped and its tiles in flight go back
+ * to the queue for the other workers; the render fails only when no worker is left. An
+ * exception thrown by the ray tracer is not retried - it would fail on any worker - and
+ * fails the render with the worker's message.</p>
+ *
+ * <p>Protocol (data streams, big endian): {@code 'S' length bytes} - the serialized camera;
+ * {@code 'T' x y width height samples} - render a tile, answered by {@code 'R' length bytes}
+ * or {@code 'E' message}; {@code 'Q'} - quit.</p>
+ * @author Ido
+ */
+public class TileFarm implements AutoCloseable {
+    /** Tiles sent to a worker ahead of its results */
+    private static final int  PIPELINE = 2;
+    /** Time a coordinator thread waits for a tile before re-checking the render state */
+    private static final long POLL_MS  = 20;
+
+    /** The live workers */
+    private final List<Worker> workers;
+
+    /**
+     * Creates a farm of connected workers.
+     * @param workers the workers
+     */
+    private TileFarm(List<Worker> workers) {
+        this.workers = Collections.synchronizedList(new ArrayList<>(workers));
+    }
+
+    /**
+     * Starts a farm of local worker processes, running with the class path of this JVM.
+     * @param  workers    number of worker processes
+     * @param  jvmOptions options for the worker JVMs (e.g. {@code -Xmx4g})
+     * @return            the farm
+     * @throws IOException if a process cannot be started
+     */
+    public static TileFarm local(int workers, String... jvmOptions) throws IOException {
+        if (workers <= 0) throw new IllegalArgumentException("Workers count must be positive");
+        String       java    = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<Worker> started = new ArrayList<>(workers);
+        try {
+            for (int w = 0; w < workers; ++w) {
+                List<String> command = new ArrayList<>();
+                command.add(java);
+                Collections.addAll(command, jvmOptions);
+                command.add("-cp");
+                command.add(System.getProperty("java.class.path"));
+                command.add(TileFarmWorker.class.getName());
+                Process process = new ProcessBuilder(command)
+                        .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+                started.add(new Worker("local-" + w, process.getInputStream(), process.getOutputStream(),
+                        process::destroyForcibly));
+            }
+        } catch (IOException e) {
+            for (Worker worker : started) worker.close();
+            throw e;
+        }
+        return new TileFarm(started);
+    }
+
+    /**
+     * Forms a farm of remote workers: waits for the workers to connect to the server socket
+     * (workers are started with {@code --connect host:port}).
+     * @param  server  the listening socket
+     * @param  workers number of workers to wait for
+     * @return         the farm
+     * @throws IOException if accepting a connection fails
+     */
+    public static TileFarm accept(ServerSocket server, int workers) throws IOException {
+        if (workers <= 0) throw new IllegalArgumentException("Workers count must be positive");
+        List<Worker> connected = new ArrayList<>(workers);
+        try {
+            for (int w = 0; w < workers; ++w) {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                connected.add(new Worker(socket.getRemoteSocketAddress().toString(), socket.getInputStream(),
+                        socket.getOutputStream(), socket::close));
+            }
+        } catch (IOException e) {
+            for (Worker worker : connected) worker.close();
+            throw e;
+        }
+        return new TileFarm(connected);
+    }
+
+    /** @return number of workers still alive */
+    public int liveWorkers() { return workers.size(); }
+
+    /**
+     * Renders the camera image on the workers.
+     * @param  camera  camera with its resolution and ray tracer set (and serializable)
+     * @param  samples samples per pixel (see {@link Camera#renderSample(Tile, int, FrameBuffer)})
+     * @return         the rendered image
+     * @throws IllegalStateException if all the workers died, or the ray tracer failed on a worker
+     */
+    public FrameBuffer render(Camera camera, int samples) {
+        if (samples <= 0) throw new IllegalArgumentException("Samples count must be positive");
+        List<Tile>  tiles  = camera.tiles();
+        FrameBuffer buffer = camera.createFrameBuffer();
+        var event = new RenderEvents.FrameRender();
+        event.begin();
+
+        Render       render  = new Render(serialize(camera), samples, buffer, tiles);
+        List<Worker> current;
+        synchronized (workers) {
+            current = new ArrayList<>(workers);
+        }
+        if (current.isEmpty()) throw new IllegalStateException("No live workers in the tile farm");
+        List<Thread> threads = new ArrayList<>(current.size());
+        for (Worker worker : current) {
+            Thread thread = new Thread(() -> coordinate(worker, render), "tile-farm-" + worker.name);
+            thread.start();
+            threads.add(thread);
+        }
+        try {
+            for (Thread thread : threads) thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            render.fail(new IllegalStateException("Interrupted while rendering on the tile farm", e));
+            for (Thread thread : threads) thread.interrupt();
+        }
+        if (render.failure != null) throw render.failure;
+        if (render.remaining.get() > 0)
+            throw new IllegalStateException("All the tile farm workers failed, "
+                    + render.remaining.get() + " tiles were not rendered");
+
+        if (event.shouldCommit()) {
+            event.width   = buffer.getWidth();
+            event.height  = buffer.getHeight();
+            event.pixels  = (long) buffer.getWidth() * buffer.getHeight();
+            event.threads = current.size();
+            event.commit();
+        }
+        return buffer;
+    }
+
+    /**
+     * Serializes the camera (with its ray tracer and scene).
+     * @param  camera the camera
+     * @return        the serialized camera
+     */
+    private static byte[] serialize(Camera camera) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(camera);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("The camera scene cannot be serialized", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Feeds a worker with tiles until the render is done, or the worker dies.
+     * @param worker the worker
+     * @param render the render state
+     */
+    private void coordinate(Worker worker, Render render) {
+        ArrayDeque<Tile> inFlight = new ArrayDeque<>(PIPELINE);
+        try {
+            worker.sendScene(render.scene);
+            while (render.failure == null && render.remaining.get() > 0) {
+                while (inFlight.size() < PIPELINE) {
+                    Tile tile = inFlight.isEmpty() ? render.queue.poll(POLL_MS, TimeUnit.MILLISECONDS)
+                            : render.queue.poll();
+                    if (tile == null) break;
+                    worker.sendTile(tile, render.samples);
+                    inFlight.add(tile);
+                }
+                if (inFlight.isEmpty()) continue;
+                try {
+                    worker.receiveTile(inFlight.peek(), render.samples, render.buffer);
+                    render.remaining.decrementAndGet();
+                } catch (TileFarmException e) {
+                    render.fail(new IllegalStateException("Worker " + worker.name + " failed: " + e.getMessage()));
+                }
+                inFlight.poll();
+            }
+            // a failed render leaves replies in the stream - read them to keep the worker usable
+            for (int k = inFlight.size(); k > 0; --k) worker.skipTile();
+        } catch (IOException e) {
+            // the worker died - its tiles go to the other workers
+            render.queue.addAll(inFlight);
+            workers.remove(worker);
+            worker.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Stops all the workers. */
+    @Override
+    public void close() {
+        List<Worker> all;
+        synchronized (workers) {
+            all = new ArrayList<>(workers);
+            workers.clear();
+        }
+        for (Worker worker : all) {
+            try {
+                worker.out.writeByte('Q');
+                worker.out.flush();
+            } catch (IOException ignored) {
+                // already gone
+            }
+            worker.close();
+        }
+    }
+
+    /** State of a render shared by the coordinator threads. */
+    private static final class Render {
+        /** The serialized camera */
+        final byte[]              scene;
+        /** Samples per pixel */
+        final int                 samples;
+        /** The image */
+        final FrameBuffer         buffer;
+        /** Tiles waiting for a worker */
+        final BlockingDeque<Tile> queue;
+        /** Tiles not rendered yet */
+        final AtomicInteger       remaining;
+        /** Failure of the render (null while it goes well) */
+        volatile RuntimeException failure;
+
+        /**
+         * Creates the render state.
+         * @param scene   the serialized camera
+         * @param samples samples per pixel
+         * @param buffer  the image
+         * @param tiles   the tiles of the image
+         */
+        Render(byte[] scene, int samples, FrameBuffer buffer, List<Tile> tiles) {
+            this.scene     = scene;
+            this.samples   = samples;
+            this.buffer    = buffer;
+            this.queue     = new LinkedBlockingDeque<>(tiles);
+            this.remaining = new AtomicInteger(tiles.size());
+        }
+
+        /**
+         * Fails the render (the first failure wins).
+         * @param e the failure
+         */
+        synchronized void fail(RuntimeException e) {
+            if (failure == null) failure = e;
+        }
+    }
+
+    /** A tile the worker failed to render (its message is the worker's error message). */
+    private static final class TileFarmException extends Exception {
+        /** Version of the serialized form */
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Creates the exception.
+         * @param message the worker's error message
+         */
+        TileFarmException(String message) { super(message); }
+    }
+
+    /** Resource releasing action that may fail. */
+    @FunctionalInterface
+    private interface Closer {
+        /**
+         * Releases the resource.
+         * @throws IOException if releasing fails
+         */
+        void close() throws IOException;
+    }
+
+    /** Connection to a worker process. */
+    private static final class Worker {
+        /** Worker name (for messages) */
+        final String           name;
+        /** Results from the worker */
+        final DataInputStream  in;
+        /** Commands to the worker */
+        final DataOutputStream out;
+        /** Kills or disconnects the worker */
+        final Closer           closer;
+        /** Decompressor of the results */
+        final Inflater         inflater = new Inflater();
+
+        /**
+         * Creates a worker connection.
+         * @param name   worker name
+         * @param in     results stream
+         * @param out    commands stream
+         * @param closer kills or disconnects the worker
+         */
+        Worker(String name, InputStream in, OutputStream out, Closer closer) {
+            this.name   = name;
+            this.in     = new DataInputStream(new BufferedInputStream(in));
+            this.out    = new DataOutputStream(new BufferedOutputStream(out));
+            this.closer = closer;
+        }
+
+        /**
+         * Ships the scene to the worker.
+         * @param  scene the serialized camera
+         * @throws IOException if the worker is gone
+         */
+        void sendScene(byte[] scene) throws IOException {
+            out.writeByte('S');
+            out.writeInt(scene.length);
+            out.write(scene);
+            out.flush();
+        }
+
+        /**
+         * Assigns a tile to the worker.
+         * @param  tile    the tile
+         * @param  samples samples per pixel
+         * @throws IOException if the worker is gone
+         */
+        void sendTile(Tile tile, int samples) throws IOException {
+            out.writeByte('T');
+            out.writeInt(tile.x());
+            out.writeInt(tile.y());
+            out.writeInt(tile.width());
+            out.writeInt(tile.height());
+            out.writeInt(samples);
+            out.flush();
+        }
+
+        /**
+         * Receives the result of a tile and accumulates it into the image.
+         * @param  tile    the tile
+         * @param  samples samples per pixel
+         * @param  buffer  the image
+         * @throws IOException       if the worker is gone or sent a corrupt block
+         * @throws TileFarmException if the worker failed rendering the tile
+         */
+        void receiveTile(Tile tile, int samples, FrameBuffer buffer) throws IOException, TileFarmException {
+            int reply = in.readByte();
+            if (reply == 'E') throw new TileFarmException(in.readUTF());
+            if (reply != 'R') throw new IOException("Unexpected reply from worker " + name);
+            byte[] compressed = new byte[in.readInt()];
+            in.readFully(compressed);
+            byte[] raw = new byte[tile.pixels() * 3 * Float.BYTES];
+            inflater.reset();
+            inflater.setInput(compressed);
+            try {
+                if (inflater.inflate(raw) != raw.length) throw new IOException("Truncated block from " + name);
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt block from " + name, e);
+            }
+            FloatBuffer sums = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            // FrameBuffer.add scales by the weight - hand it the sample means
+            for (int r = 0, k = 0; r < tile.height(); ++r)
+                for (int c = 0; c < tile.width(); ++c, k += 3)
+                    buffer.add(tile.x() + c, tile.y() + r, sums.get(k) / samples, sums.get(k + 1) / samples,
+                            sums.get(k + 2) / samples, samples);
+        }
+
+        /**
+         * Reads and drops the reply of a tile.
+         * @throws IOException if the worker is gone
+         */
+        void skipTile() throws IOException {
+            if (in.readByte() == 'E') in.readUTF();
+            else in.skipNBytes(in.readInt());
+        }
+
+        /** Kills or disconnects the worker. */
+        void close() {
+            inflater.end();
+            try {
+                closer.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed closing worker " + name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package renderer;
+
+import primitives.Color;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Worker process of the {@link TileFarm}: receives a serialized camera and tile assignments,
+ * renders the tiles and sends back their sample sums as compressed blocks.
+ *
+ * <p>Started by the farm as a local process it talks over its standard input and output
+ * (everything printed to {@code System.out} is redirected to the error stream, so it cannot
+ * corrupt the protocol). Started with {@code --connect host:port} it connects to a farm
+ * accepting workers on another host.</p>
+ * @author Ido
+ */
+public final class TileFarmWorker {
+    /**
+     * The classes a shipped scene may hold - the renderer packages and the JDK base module -
+     * with limits on the object graph depth and the array sizes, against crafted streams
+     */
+    private static final ObjectInputFilter SCENE_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=100;maxarray=268435456;primitives.*;geometries.*;lighting.*;scene.*;renderer.*;java.base/*;!*");
+
+    /** The rendered scene (null until the first scene arrives) */
+    private Camera camera;
+    /** Compressor of the results */
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+    /** Don't let anyone instantiate this class from the outside. */
+    private TileFarmWorker() { }
+
+    /**
+     * Runs a worker until the coordinator quits or disconnects.
+     * @param  args nothing, or {@code --connect host:port}
+     * @throws IOException if the connection fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 2 && args[0].equals("--connect")) {
+            int colon = args[1].lastIndexOf(':');
+            if (colon < 0) throw new IllegalArgumentException("Expected --connect host:port");
+            try (Socket socket = new Socket(args[1].substring(0, colon),
+                    Integer.parseInt(args[1].substring(colon + 1)))) {
+                socket.setTcpNoDelay(true);
+                new TileFarmWorker().serve(socket.getInputStream(), socket.getOutputStream());
+            }
+        } else if (args.length == 0) {
+            OutputStream out = new FileOutputStream(FileDescriptor.out);
+            System.setOut(System.err);
+            new TileFarmWorker().serve(System.in, out);
+        } else throw new IllegalArgumentException("Usage: TileFarmWorker [--connect host:port]");
+    }
+
+    /**
+     * Serves the coordinator's commands.
+     * @param  input  commands stream
+     * @param  output results stream
+     * @throws IOException if the connection fails
+     */
+    private void serve(InputStream input, OutputStream output) throws IOException {
+        DataInputStream  in  = new DataInputStream(new BufferedInputStream(input));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        try {
+            while (true) {
+                int command;
+                try {
+                    command = in.readByte();
+                } catch (EOFException e) {
+                    return; // the coordinator is gone
+                }
+                switch (command) {
+                    case 'S' -> {
+                        byte[] scene = new byte[in.readInt()];
+                        in.readFully(scene);
+                        camera = deserialize(scene);
+                    }
+                    case 'T' -> {
+                        Tile tile    = new Tile(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+                        int  samples = in.readInt();
+                        try {
+                            byte[] block = renderTile(tile, samples);
+                            out.writeByte('R');
+                            out.writeInt(block.length);
+                            out.write(block);
+                        } catch (RuntimeException e) {
+                            out.writeByte('E');
+                            out.writeUTF(String.valueOf(e));
+                        }
+                        // flush only when no more assignments wait, so pipelined results batch up
+                        if (in.available() == 0) out.flush();
+                    }
+                    case 'Q' -> {
+                        out.flush();
+                        return;
+                    }
+                    default -> throw new IOException("Unknown tile farm command " + command);
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Restores the shipped camera.
+     * @param  scene the serialized camera
+     * @return       the camera
+     * @throws IOException if the scene is corrupt, refers to unknown classes or is rejected
+     *                     by the scene filter
+     */
+    static Camera deserialize(byte[] scene) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(scene))) {
+            in.setObjectInputFilter(SCENE_FILTER);
+            return (Camera) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Scene refers to a class missing from the worker class path", e);
+        }
+    }
+
+    /**
+     * Renders the samples of a tile.
+     * @param  tile    the tile
+     * @param  samples samples per pixel
+     * @return         the compressed sample sums, 3 little endian floats per pixel
+     */
+    private byte[] renderTile(Tile tile, int samples) {
+        if (camera == null) throw new IllegalStateException("No scene was received");
+        float[] sums = new float[tile.pixels() * 3];
+        for (int s = 0; s < samples; ++s) {
+            Color[] pixels = camera.renderTile(tile, s);
+            for (int p = 0, k = 0; p < pixels.length; ++p) {
+                sums[k++] += (float) pixels[p].getRed();
+                sums[k++] += (float) pixels[p].getGreen();
+                sums[k++] += (float) pixels[p].getBlue();
+            }
+        }
+        ByteBuffer raw = ByteBuffer.allocate(sums.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        raw.asFloatBuffer().put(sums);
+
+        deflater.reset();
+        deflater.setInput(raw.array());
+        deflater.finish();
+        byte[] block = new byte[64 + raw.capacity() + raw.capacity() / 1000];
+        int    n     = 0;
+        while (!deflater.finished()) {
+            if (n == block.length) block = Arrays.copyOf(block, 2 * block.length);
+            n += deflater.deflate(block, n, block.length - n);
+        }
+        return Arrays.copyOf(block, n);
+    }
+}
@@ -0,0 +1,106 @@
+package renderer;
+
+import geometries.BoundingBox;
+import geometries.BoundingVolumeHierarchy;
+import geometries.Geometries;
+import geometries.Intersectable;
+import primitives.Point;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The frustum of the primary rays of a tile: the pyramid from the camera location through
+ * the corners of the tile on the view plane. A geometry whose bounding box is out of the
+ * pyramid cannot be hit by any primary ray of the tile, so it is culled once per tile
+ * instead of being tested by every pixel.
+ *
+ * <p>The pyramid is the intersection of four half spaces, each bounded by a plane through the
+ * camera location and two adjacent corner rays - it reaches forward only, so geometries
+ * behind the camera are culled as well. A box is out when all of it is outside one of the
+ * planes (tested by its corner furthest into the half space). The top-level geometries are
+ * culled, and a top-level bounding volume hierarchy is culled node by node - it is replaced
+ * by a view of it that skips the subtrees out of the frustum. Unbounded geometries are always
+ * kept.</p>
+ * @author Ido
+ */
+final class TileFrustum {
+    /** Tolerance of the plane tests, so rays on the frustum boundary keep their geometries */
+    private static final double EPS = 1e-9;
+
+    /** The frustum apex: x, y, z */
+    private final double   ax, ay, az;
+    /** Unit inward normals of the four side planes, 3 per plane */
+    private final double[] normals = new double[12];
+
+    /**
+     * Builds the frustum of four corner rays from an apex. The corners must go around the
+     * frustum, clockwise or counterclockwise.
+     * @param apex    the apex (the camera location)
+     * @param corners the directions of the corner rays, 3 per corner
+     */
+    TileFrustum(Point apex, double[] corners) {
+        ax = apex.getX();
+        ay = apex.getY();
+        az = apex.getZ();
+        double cx = 0, cy = 0, cz = 0; // the frustum axis, to orient the planes inward
+        for (int k = 0; k < 4; ++k) {
+            cx += corners[3 * k];
+            cy += corners[3 * k + 1];
+            cz += corners[3 * k + 2];
+        }
+        for (int k = 0; k < 4; ++k) {
+            int    a  = 3 * k, b = 3 * ((k + 1) % 4);
+            double nx = corners[a + 1] * corners[b + 2] - corners[a + 2] * corners[b + 1];
+            double ny = corners[a + 2] * corners[b] - corners[a] * corners[b + 2];
+            double nz = corners[a] * corners[b + 1] - corners[a + 1] * corners[b];
+            double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+            if (nx * cx + ny * cy + nz * cz < 0) length = -length;
+            normals[a]     = nx / length;
+            normals[a + 1] = ny / length;
+            normals[a + 2] = nz / length;
+        }
+    }
+
+    /**
+     * Checks whether a box may be in the frustum.
+     * @param  box the box
+     * @return     false if the box is surely out of the frustum
+     */
+    boolean mayContain(BoundingBox box) {
+        for (int k = 0; k < 12; k += 3) {
+            double nx = normals[k], ny = normals[k + 1], nz = normals[k + 2];
+            double px = nx > 0 ? box.maxX() : box.minX();
+            double py = ny > 0 ? box.maxY() : box.minY();
+            double pz = nz > 0 ? box.maxZ() : box.minZ();
+            if (nx * (px - ax) + ny * (py - ay) + nz * (pz - az) < -EPS) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Culls the top-level geometries, and the nodes of the top-level hierarchies, out of the
+     * frustum.
+     * @param  geometries the geometries
+     * @return            the geometries that may be in the frustum (the same object if all may)
+     */
+    Geometries cull(Geometries geometries) {
+        List<Intersectable> all     = geometries.getGeometries();
+        List<Intersectable> kept    = new ArrayList<>(all.size());
+        boolean             changed = false;
+        for (Intersectable geometry : all) {
+            BoundingBox box = geometry.getBoundingBox();
+            if (box != null && !mayContain(box)) {
+                changed = true;
+                continue;
+            }
+            if (geometry instanceof BoundingVolumeHierarchy bvh) {
+                Intersectable view = bvh.cull(this::mayContain);
+                changed |= view != geometry;
+                geometry = view;
+            }
+            kept.add(geometry);
+        }
+        return changed ? new Geometries(kept.toArray(new Intersectable[0])) : geometries;
+    }
+}
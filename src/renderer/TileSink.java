@@ -0,0 +1,18 @@
+package renderer;
+
+import primitives.Color;
+
+/**
+ * Receiver of the rendered tiles of an image (e.g. an image writer or a frame buffer).
+ * @author Ido
+ */
+@FunctionalInterface
+public interface TileSink {
+    /**
+     * Receives a finished tile. Render threads call it concurrently, for different tiles,
+     * and not necessarily in the image order.
+     * @param tile   the tile
+     * @param pixels the tile colors in row-major order ({@code tile.pixels()} long)
+     */
+    void tileDone(Tile tile, Color[] pixels);
+}
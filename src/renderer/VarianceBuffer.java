@@ -0,0 +1,114 @@
+package renderer;
+
+/**
+ * Running mean and variance of the luminance of every pixel's samples, updated sample by
+ * sample by Welford's algorithm - numerically stable and with no need to keep the samples.
+ * A pixel takes an int and two floats (sample count, mean and sum of squared deviations), so
+ * a full HD image needs 25MB.
+ *
+ * <p>As in {@link FrameBuffer}, a pixel must be updated by one thread at a time, and the
+ * updates are visible to other threads after the render threads are joined.</p>
+ * @author Ido
+ */
+final class VarianceBuffer {
+    /** z score of the 95% confidence interval */
+    static final double Z_95 = 1.96;
+
+    /** Image width in pixels */
+    private final int     width;
+    /** Image height in pixels */
+    private final int     height;
+    /** Samples per pixel */
+    private final int[]   counts;
+    /** Per pixel: luminance mean, sum of squared deviations from the mean */
+    private final float[] moments;
+
+    /**
+     * Creates the buffer, all pixels without samples.
+     * @param width  image width in pixels
+     * @param height image height in pixels
+     */
+    VarianceBuffer(int width, int height) {
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("Image size must be positive");
+        this.width  = width;
+        this.height = height;
+        counts      = new int[width * height];
+        moments     = new float[2 * width * height];
+    }
+
+    /**
+     * Index of a pixel.
+     * @param  x column
+     * @param  y row
+     * @return   pixel index
+     */
+    private int index(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height)
+            throw new IllegalArgumentException("Pixel is out of the image");
+        return y * width + x;
+    }
+
+    /**
+     * Adds a sample to a pixel.
+     * @param x     column
+     * @param y     row
+     * @param value the sample luminance
+     */
+    void add(int x, int y, double value) {
+        int    k     = index(x, y);
+        int    n     = ++counts[k];
+        double mean  = moments[2 * k];
+        double delta = value - mean;
+        mean += delta / n;
+        moments[2 * k]     = (float) mean;
+        moments[2 * k + 1] = (float) (moments[2 * k + 1] + delta * (value - mean));
+    }
+
+    /**
+     * Samples count of a pixel.
+     * @param  x column
+     * @param  y row
+     * @return   the count
+     */
+    int count(int x, int y) { return counts[index(x, y)]; }
+
+    /**
+     * Mean luminance of a pixel's samples.
+     * @param  x column
+     * @param  y row
+     * @return   the mean, 0 without samples
+     */
+    double mean(int x, int y) { return moments[2 * index(x, y)]; }
+
+    /**
+     * Sample variance of the luminance of a pixel.
+     * @param  x column
+     * @param  y row
+     * @return   the variance, infinite with less than two samples
+     */
+    double variance(int x, int y) {
+        int k = index(x, y);
+        return counts[k] < 2 ? Double.POSITIVE_INFINITY : moments[2 * k + 1] / (counts[k] - 1);
+    }
+
+    /**
+     * Half width of the 95% confidence interval of a pixel's mean luminance.
+     * @param  x column
+     * @param  y row
+     * @return   the half width, infinite with less than two samples
+     */
+    double halfWidth(int x, int y) {
+        return Z_95 * Math.sqrt(variance(x, y) / count(x, y));
+    }
+
+    /**
+     * Luminance of a color (Rec. 709 weights), in the color scale.
+     * @param  r red component
+     * @param  g green component
+     * @param  b blue component
+     * @return   the luminance
+     */
+    static double luminance(double r, double g, double b) {
+        return 0.2126 * r + 0.7152 * g + 0.0722 * b;
+    }
+}
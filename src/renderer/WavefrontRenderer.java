@@ -0,0 +1,308 @@
+package renderer;
+
+import geometries.Geometry;
+import geometries.Intersectable.GeoPoint;
+import primitives.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.MissingResourceException;
+
+import static primitives.Util.alignZero;
+
+/**
+ * Wavefront renderer: an alternative to tracing the image pixel after pixel, that traces it in
+ * waves of many rays, stage after stage. A wave starts with the primary rays of a run of
+ * pixels; every round intersects all the rays of the wave with the scene geometries, sorts
+ * the hits into queues by their geometry class and material, and shades one queue after the
+ * other - the reflected and transmitted rays the shading spawns are the rays of the next
+ * round. Each stage runs the same code over many rays in a row, so its call sites stay
+ * monomorphic for the JIT and its geometry and material data stay in the cache. The
+ * secondary rays of a round are intersected in the order of their origins and directions
+ * (see {@link RaySorter}), so consecutive rays traverse the same part of the scene.
+ *
+ * <p>The rays, their throughputs, pixels and levels, the hits and the queue keys are kept in
+ * arrays reused by all the waves (growing when a round spawns more rays than ever before);
+ * the rays themselves are {@link Ray} objects, as the geometries intersect them. The colors
+ * are the same as {@link SimpleRayTracer#traceRay(Ray)} gives - up to the order of the
+ * floating point additions, and to the light sampling when the tracer samples the lights.</p>
+ *
+ * <p>A renderer keeps its buffers between renders and is not thread safe.</p>
+ * @author Ido
+ */
+public final class WavefrontRenderer {
+    /** Default number of primary rays in a wave */
+    private static final int DEFAULT_WAVE_SIZE = 4096;
+
+    /** The camera generating the primary rays */
+    private final Camera                 camera;
+    /** The tracer shading the hits */
+    private final SimpleRayTracer        tracer;
+    /** Primary rays in a wave */
+    private final int                    waveSize;
+    /** Queue number of every (geometry class, material) pair met so far; queue 0 is the misses */
+    private final Map<Queue, Integer>    queues  = new HashMap<>();
+    /**
+     * Queue of every geometry hit in the current round, cleared after the round: compact
+     * containers create a new geometry for every hit, so the cache must not outlive the round
+     */
+    private final Map<Geometry, Integer> queueOf = new IdentityHashMap<>();
+
+    /** The rays of the current round */
+    private RayBuffer  rays;
+    /** The rays spawned for the next round */
+    private RayBuffer  spawned;
+    /** Closest hit of every ray of the round, null for a miss */
+    private GeoPoint[] hits   = new GeoPoint[0];
+    /** Queue of every ray of the round */
+    private int[]      keys   = new int[0];
+    /** The rays of the round sorted by queue */
+    private int[]      order  = new int[0];
+    /** Rays per queue, then the queue starts in {@link #order} */
+    private int[]      starts = new int[1];
+    /** Color sums of the pixels of the wave, 3 per pixel */
+    private double[]   colors;
+    /** Orders the secondary rays for coherent intersection, null when sorting is off */
+    private RaySorter  sorter = new RaySorter();
+
+    /**
+     * A shading queue: hits on geometries of a class with a material.
+     * @param type     the geometry class
+     * @param material the material (compared by identity)
+     */
+    private record Queue(Class<?> type, Material material) { }
+
+    /**
+     * Ray buffer of a round: the rays and their throughput, pixel and level in parallel
+     * arrays.
+     */
+    private static final class RayBuffer {
+        /** The rays */
+        Ray[]    rays;
+        /** Throughputs, 3 per ray */
+        double[] throughput;
+        /** Pixel of every ray, within the wave */
+        int[]    pixels;
+        /** Hits left to every ray chain */
+        int[]    levels;
+        /** Number of rays */
+        int      size;
+
+        /**
+         * Creates an empty buffer.
+         * @param capacity initial capacity
+         */
+        RayBuffer(int capacity) {
+            rays       = new Ray[capacity];
+            throughput = new double[3 * capacity];
+            pixels     = new int[capacity];
+            levels     = new int[capacity];
+        }
+
+        /**
+         * Adds a ray, growing the arrays if they are full.
+         * @param ray   the ray
+         * @param kr    red throughput
+         * @param kg    green throughput
+         * @param kb    blue throughput
+         * @param pixel pixel within the wave
+         * @param level hits left to the ray chain
+         */
+        void add(Ray ray, double kr, double kg, double kb, int pixel, int level) {
+            if (size == rays.length) {
+                int capacity = 2 * size;
+                rays       = Arrays.copyOf(rays, capacity);
+                throughput = Arrays.copyOf(throughput, 3 * capacity);
+                pixels     = Arrays.copyOf(pixels, capacity);
+                levels     = Arrays.copyOf(levels, capacity);
+            }
+            rays[size]               = ray;
+            throughput[3 * size]     = kr;
+            throughput[3 * size + 1] = kg;
+            throughput[3 * size + 2] = kb;
+            pixels[size]             = pixel;
+            levels[size]             = level;
+            ++size;
+        }
+
+        /** Empties the buffer (dropping the rays for the GC). */
+        void clear() {
+            Arrays.fill(rays, 0, size, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * Creates a wavefront renderer with the default wave size.
+     * @param camera the camera generating the primary rays (its resolution must be set)
+     * @param tracer the tracer shading the hits
+     */
+    public WavefrontRenderer(Camera camera, SimpleRayTracer tracer) {
+        this(camera, tracer, DEFAULT_WAVE_SIZE);
+    }
+
+    /**
+     * Creates a wavefront renderer.
+     * @param camera   the camera generating the primary rays (its resolution must be set)
+     * @param tracer   the tracer shading the hits
+     * @param waveSize primary rays in a wave
+     */
+    public WavefrontRenderer(Camera camera, SimpleRayTracer tracer, int waveSize) {
+        if (camera == null || tracer == null) throw new IllegalArgumentException("Camera and tracer cannot be null");
+        if (waveSize <= 0) throw new IllegalArgumentException("Wave size must be positive");
+        this.camera   = camera;
+        this.tracer   = tracer;
+        this.waveSize = waveSize;
+        rays          = new RayBuffer(waveSize);
+        spawned       = new RayBuffer(waveSize);
+        colors        = new double[3 * waveSize];
+    }
+
+    /**
+     * Turns the sorting of the secondary rays before their intersection on or off (it is on
+     * by default). Sorting pays when reflections and refractions scatter the rays of a round
+     * over the scene; the colors are the same either way.
+     * @param  sorting whether to sort
+     * @return         this renderer
+     */
+    public WavefrontRenderer setRaySorting(boolean sorting) {
+        sorter = sorting ? new RaySorter() : null;
+        return this;
+    }
+
+    /**
+     * Renders a sample through the center of every pixel into a frame buffer.
+     * @param  buffer frame buffer of the camera resolution
+     * @throws MissingResourceException if the camera resolution was not set
+     */
+    public void render(FrameBuffer buffer) {
+        int nX = camera.getNX(), nY = camera.getNY();
+        if (nX <= 0 || nY <= 0)
+            throw new MissingResourceException("Missing field: ", "Camera class - ", "missing resolution");
+        if (buffer.getWidth() != nX || buffer.getHeight() != nY)
+            throw new IllegalArgumentException("Frame buffer size must match the camera resolution");
+
+        int pixels = nX * nY;
+        for (int first = 0; first < pixels; first += waveSize) {
+            int count = Math.min(waveSize, pixels - first);
+            Arrays.fill(colors, 0, 3 * count, 0);
+            for (int p = 0; p < count; ++p)
+                rays.add(camera.constructRay(nX, nY, (first + p) % nX, (first + p) / nX), 1, 1, 1, p,
+                        SimpleRayTracer.MAX_CALC_COLOR_LEVEL);
+            for (boolean secondary = false; rays.size > 0; secondary = true) {
+                intersect(secondary);
+                sort();
+                shade();
+                RayBuffer done = rays;
+                rays    = spawned;
+                spawned = done;
+                spawned.clear();
+            }
+            for (int p = 0; p < count; ++p)
+                buffer.add((first + p) % nX, (first + p) / nX, colors[3 * p], colors[3 * p + 1], colors[3 * p + 2], 1);
+        }
+    }
+
+    /**
+     * Intersection stage: the closest hit of every ray of the round. The secondary rays are
+     * intersected in the order of the {@link RaySorter} (when sorting is on); the primary rays
+     * are coherent in their pixel order already.
+     * @param secondary whether the rays of the round are secondary rays
+     */
+    private void intersect(boolean secondary) {
+        if (hits.length < rays.size) {
+            hits  = new GeoPoint[rays.rays.length];
+            keys  = new int[rays.rays.length];
+            order = new int[rays.rays.length];
+        }
+        if (secondary && sorter != null) {
+            int[] sorted = sorter.sort(rays.rays, rays.size);
+            for (int s = 0; s < rays.size; ++s) {
+                int k = sorted[s];
+                hits[k] = tracer.findClosestIntersection(rays.rays[k]);
+            }
+        } else
+            for (int k = 0; k < rays.size; ++k) hits[k] = tracer.findClosestIntersection(rays.rays[k]);
+    }
+
+    /** Sorting stage: the rays of the round ordered by their shading queue (counting sort). */
+    private void sort() {
+        Geometry last = null;
+        int      key  = 0;
+        for (int k = 0; k < rays.size; ++k) {
+            GeoPoint hit = hits[k];
+            if (hit == null) {
+                keys[k] = 0;
+                continue;
+            }
+            if (hit.geometry() != last) {
+                last = hit.geometry();
+                key  = queueOf.computeIfAbsent(last, g -> queues.computeIfAbsent(
+                        new Queue(g.getClass(), g.getMaterial()), q -> queues.size() + 1));
+            }
+            keys[k] = key;
+        }
+        if (starts.length < queues.size() + 2) starts = new int[queues.size() + 2];
+        Arrays.fill(starts, 0);
+        for (int k = 0; k < rays.size; ++k) ++starts[keys[k] + 1];
+        for (int q = 1; q < starts.length; ++q) starts[q] += starts[q - 1];
+        int[] next = starts.clone();
+        for (int k = 0; k < rays.size; ++k) order[next[keys[k]]++] = k;
+        queueOf.clear();
+    }
+
+    /** @return number of geometries in the queue cache (for the tests) */
+    int cachedGeometries() { return queueOf.size(); }
+
+    /** Shading stage: the queues one after the other, spawning the rays of the next round. */
+    private void shade() {
+        Color background = tracer.scene.getBackground();
+        for (int q = 0; q + 1 < starts.length; ++q)
+            for (int o = starts[q]; o < starts[q + 1]; ++o) {
+                int      k  = order[o];
+                double   kr = rays.throughput[3 * k], kg = rays.throughput[3 * k + 1], kb = rays.throughput[3 * k + 2];
+                GeoPoint hit = hits[k];
+                hits[k] = null;
+                Color color = hit == null ? background : shade(k, hit, kr, kg, kb);
+                int   p     = rays.pixels[k];
+                colors[3 * p]     += kr * color.getRed();
+                colors[3 * p + 1] += kg * color.getGreen();
+                colors[3 * p + 2] += kb * color.getBlue();
+            }
+    }
+
+    /**
+     * Shades a hit and spawns its transmitted and reflected rays, as
+     * {@link SimpleRayTracer#traceRay(Ray)} does.
+     * @param  k   the ray
+     * @param  hit the hit of the ray
+     * @param  kr  red throughput of the ray
+     * @param  kg  green throughput of the ray
+     * @param  kb  blue throughput of the ray
+     * @return     the local color of the hit
+     */
+    private Color shade(int k, GeoPoint hit, double kr, double kg, double kb) {
+        Vector n     = hit.geometry().getNormal(hit.point());
+        Vector v     = rays.rays[k].getDir();
+        double nv    = alignZero(n.dotProduct(v));
+        int    level = rays.levels[k];
+        if (level > 1 && nv != 0) {
+            Material material = hit.geometry().getMaterial();
+            Double3  kT       = material.getKT();
+            if (SimpleRayTracer.traced(kT, kr, kg, kb)) {
+                RenderStats.countRay();
+                spawned.add(new Ray(hit.point(), v, n), kr * kT.d1(), kg * kT.d2(), kb * kT.d3(),
+                        rays.pixels[k], level - 1);
+            }
+            Double3 kR = material.getKR();
+            if (SimpleRayTracer.traced(kR, kr, kg, kb)) {
+                RenderStats.countRay();
+                spawned.add(new Ray(hit.point(), v.subtract(n.scale(2 * nv)), n), kr * kR.d1(), kg * kR.d2(),
+                        kb * kR.d3(), rays.pixels[k], level - 1);
+            }
+        }
+        return tracer.localColor(hit, n, v, nv);
+    }
+}
@@ -0,0 +1,96 @@
+package scene;
+
+import geometries.Geometries;
+import lighting.LightSource;
+import primitives.Color;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A scene to render: the geometries, the background color seen by rays that miss them, the
+ * ambient light and the light sources. The setters return the scene itself to allow chaining.
+ * @author Ido
+ */
+public class Scene implements Serializable {
+    /** Version of the serialized form */
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /** The scene name */
+    private final String      name;
+    /** Color of the rays that do not hit any geometry */
+    private Color             background   = Color.BLACK;
+    /** Intensity of the ambient light */
+    private Color             ambientLight = Color.BLACK;
+    /** The scene geometries */
+    private Geometries        geometries   = new Geometries();
+    /** The light sources */
+    private LightSource[]     lights       = new LightSource[0];
+
+    /**
+     * Creates an empty scene.
+     * @param name the scene name
+     */
+    public Scene(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Setter of the background color.
+     * @param  background the color
+     * @return            this scene
+     */
+    public Scene setBackground(Color background) {
+        this.background = background;
+        return this;
+    }
+
+    /**
+     * Setter of the ambient light intensity.
+     * @param  ambientLight the intensity
+     * @return              this scene
+     */
+    public Scene setAmbientLight(Color ambientLight) {
+        this.ambientLight = ambientLight;
+        return this;
+    }
+
+    /**
+     * Setter of the scene geometries.
+     * @param  geometries the geometries
+     * @return            this scene
+     */
+    public Scene setGeometries(Geometries geometries) {
+        if (geometries == null) throw new IllegalArgumentException("Scene geometries cannot be null");
+        this.geometries = geometries;
+        return this;
+    }
+
+    /**
+     * Setter of the light sources (the list is copied).
+     * @param  lights the light sources
+     * @return        this scene
+     */
+    public Scene setLights(List<LightSource> lights) {
+        if (lights == null) throw new IllegalArgumentException("Scene lights cannot be null");
+        this.lights = lights.toArray(new LightSource[0]);
+        return this;
+    }
+
+    /** @return the scene name */
+    public String getName() { return name; }
+
+    /** @return the background color */
+    public Color getBackground() { return background; }
+
+    /** @return the ambient light intensity */
+    public Color getAmbientLight() { return ambientLight; }
+
+    /** @return the scene geometries */
+    public Geometries getGeometries() { return geometries; }
+
+    /** @return the light sources */
+    public List<LightSource> getLights() { return List.of(lights); }
+}
@@ -0,0 +1,428 @@
+package scene;
+
+import geometries.CompactSpheres;
+import geometries.CompactTriangles;
+import geometries.Cylinder;
+import geometries.Geometries;
+import geometries.Intersectable;
+import geometries.Plane;
+import geometries.Polygon;
+import geometries.Sphere;
+import geometries.Triangle;
+import geometries.Tube;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import renderer.Camera;
+import renderer.RenderEvents;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary scene file: all the geometries of a scene and (optionally) the camera
+ * parameters, stored as flat little-endian arrays of doubles that are written and read in bulk.
+ *
+ * <p>The geometries are grouped into sections by type, every section is a header followed by
+ * the fixed-size records of its geometries - so loading a section is one memory-mapped bulk
+ * copy into a {@code double[]}, with no per-field parsing, and the geometries are built
+ * straight from the array. Nested {@link Geometries} are flattened, and the loaded scene holds
+ * the geometries grouped by type (the order of intersection points is not defined anyway).
+ * All the {@link CompactSpheres} and {@link CompactTriangles} containers of a scene are merged
+ * into one section each, and load back as a single container of each kind.</p>
+ *
+ * <p>Layout (all offsets 8-byte aligned):</p>
+ * <pre>
+ * header   : int magic "RTSC", int version, int has camera, int sections count
+ * camera   : double p0[3], vTo[3], vUp[3], vpWidth, vpHeight, vpDistance; int nX, nY
+ * section  : int type, int count, then the records:
+ *   SPHERE   : center[3], radius
+ *   PLANE    : point[3], normal[3]
+ *   TRIANGLE : p1[3], p2[3], p3[3]
+ *   POLYGON  : int vertices count per polygon (padded to 8 bytes), then all the vertices[3]
+ *   TUBE     : axis head[3], axis direction[3], radius
+ *   CYLINDER : axis head[3], axis direction[3], radius, height
+ *   COMPACT_SPHERES   : center[3], radius               (version 2)
+ *   COMPACT_TRIANGLES : p1[3], p2[3], p3[3]             (version 2)
+ * </pre>
+ * @author Ido
+ */
+public final class SceneFile {
+    /** Current version of the format */
+    public static final int VERSION = 2;
+
+    /** File magic number - "RTSC" in ASCII */
+    private static final int MAGIC        = 0x52545343;
+    /** Header bytes */
+    private static final int HEADER_BYTES = 4 * Integer.BYTES;
+    /** Camera block bytes */
+    private static final int CAMERA_BYTES = 12 * Double.BYTES + 2 * Integer.BYTES;
+    /** Bytes written to the channel at a time */
+    private static final int CHUNK        = 1 << 20;
+
+    /** Geometry types of the sections, with the doubles per record ({@code 0} for variable) */
+    private enum Type {
+        SPHERE(4), PLANE(6), TRIANGLE(9), POLYGON(0), TUBE(7), CYLINDER(8), COMPACT_SPHERES(4), COMPACT_TRIANGLES(9);
+
+        /** Doubles per record */
+        final int stride;
+
+        /**
+         * Creates a type.
+         * @param stride doubles per record
+         */
+        Type(int stride) { this.stride = stride; }
+    }
+
+    /**
+     * Scene loaded from a file.
+     * @param geometries the scene geometries
+     * @param camera     builder holding the camera parameters (ray tracer to be set), null if
+     *                   the file has no camera
+     */
+    public record Content(Geometries geometries, Camera.Builder camera) { }
+
+    /** Don't let anyone instantiate this class. */
+    private SceneFile() { }
+
+    // ************************* Writing *************************
+
+    /** Records of one section, collected before they are written. */
+    private static final class Section {
+        /** Geometry type */
+        final Type          type;
+        /** Number of geometries */
+        int                 count  = 0;
+        /** The records */
+        double[]            values = new double[64];
+        /** Number of used values */
+        int                 size   = 0;
+        /** Vertices count of every polygon (POLYGON only) */
+        final List<Integer> vertexCounts = new ArrayList<>();
+
+        /**
+         * Creates a section.
+         * @param type geometry type
+         */
+        Section(Type type) { this.type = type; }
+
+        /**
+         * Appends values of a record.
+         * @param v the values
+         */
+        void put(double... v) {
+            if (size + v.length > values.length)
+                values = Arrays.copyOf(values, Math.max(2 * values.length, size + v.length));
+            System.arraycopy(v, 0, values, size, v.length);
+            size += v.length;
+        }
+
+        /**
+         * Appends the coordinates of a point.
+         * @param p the point
+         */
+        void put(Point p) { put(p.getX(), p.getY(), p.getZ()); }
+
+        /**
+         * Appends the records of a compact container, widened to doubles.
+         * @param v     the floats of the records
+         * @param count number of records
+         */
+        void put(float[] v, int count) {
+            double[] widened = new double[v.length];
+            for (int k = 0; k < v.length; ++k) widened[k] = v[k];
+            put(widened);
+            this.count += count;
+        }
+    }
+
+    /**
+     * Rounds a size up to a multiple of 8 bytes.
+     * @param  bytes size
+     * @return       padded size
+     */
+    private static long padded(long bytes) { return (bytes + 7) & ~7L; }
+
+    /**
+     * Collects the geometries into sections by type.
+     * @param geometries the geometries (nested aggregates are flattened)
+     * @param sections   the sections, by type ordinal
+     */
+    private static void collect(Geometries geometries, Section[] sections) {
+        for (Intersectable geometry : geometries.getGeometries()) {
+            switch (geometry) {
+                case Geometries nested -> collect(nested, sections);
+                case Sphere s -> {
+                    Section section = sections[Type.SPHERE.ordinal()];
+                    section.put(s.getCenter());
+                    section.put(s.getRadius());
+                    ++section.count;
+                }
+                case Plane p -> {
+                    Section section = sections[Type.PLANE.ordinal()];
+                    section.put(p.getPoint());
+                    section.put(p.getNormal());
+                    ++section.count;
+                }
+                case Triangle t -> {
+                    Section section = sections[Type.TRIANGLE.ordinal()];
+                    for (Point vertex : t.getVertices()) section.put(vertex);
+                    ++section.count;
+                }
+                case Polygon p -> {
+                    Section section = sections[Type.POLYGON.ordinal()];
+                    for (Point vertex : p.getVertices()) section.put(vertex);
+                    section.vertexCounts.add(p.getVertices().size());
+                    ++section.count;
+                }
+                case Cylinder c -> {
+                    Section section = sections[Type.CYLINDER.ordinal()];
+                    section.put(c.getAxis().getPoint(0));
+                    section.put(c.getAxis().getDir());
+                    section.put(c.getRadius(), c.getHeight());
+                    ++section.count;
+                }
+                case Tube t -> {
+                    Section section = sections[Type.TUBE.ordinal()];
+                    section.put(t.getAxis().getPoint(0));
+                    section.put(t.getAxis().getDir());
+                    section.put(t.getRadius());
+                    ++section.count;
+                }
+                case CompactSpheres c -> sections[Type.COMPACT_SPHERES.ordinal()].put(c.getValues(), c.size());
+                case CompactTriangles c -> sections[Type.COMPACT_TRIANGLES.ordinal()].put(c.getValues(), c.size());
+                default -> throw new IllegalArgumentException(
+                        "Geometry type is not supported by the scene file: " + geometry.getClass().getName());
+            }
+        }
+    }
+
+    /**
+     * Writes a scene file.
+     * @param  file       target file (created or truncated)
+     * @param  geometries the scene geometries
+     * @param  camera     the camera, or null to store the geometries only
+     * @throws IOException              if writing fails
+     * @throws IllegalArgumentException for a geometry type the format does not support
+     */
+    public static void write(Path file, Geometries geometries, Camera camera) throws IOException {
+        Section[] sections = new Section[Type.values().length];
+        for (Type type : Type.values()) sections[type.ordinal()] = new Section(type);
+        collect(geometries, sections);
+        int used = 0;
+        for (Section section : sections) if (section.count > 0) ++used;
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(camera == null ? 0 : 1).putInt(used);
+            if (camera != null) {
+                for (Point p : List.of(camera.getLocation(), camera.getVTo(), camera.getVUp()))
+                    buffer.putDouble(p.getX()).putDouble(p.getY()).putDouble(p.getZ());
+                buffer.putDouble(camera.getVpWidth()).putDouble(camera.getVpHeight())
+                      .putDouble(camera.getVpDistance());
+                buffer.putInt(camera.getNX()).putInt(camera.getNY());
+            }
+            for (Section section : sections) {
+                if (section.count == 0) continue;
+                if (buffer.remaining() < 8) drain(buffer, channel);
+                buffer.putInt(section.type.ordinal()).putInt(section.count);
+                if (section.type == Type.POLYGON) {
+                    for (int n : section.vertexCounts) {
+                        if (buffer.remaining() < Integer.BYTES) drain(buffer, channel);
+                        buffer.putInt(n);
+                    }
+                    if (section.count % 2 != 0) { // pad the counts to 8 bytes
+                        if (buffer.remaining() < Integer.BYTES) drain(buffer, channel);
+                        buffer.putInt(0);
+                    }
+                }
+                // bulk copy of the records, a chunk at a time
+                for (int k = 0; k < section.size; ) {
+                    if (buffer.remaining() < Double.BYTES) drain(buffer, channel);
+                    int n = Math.min(section.size - k, buffer.remaining() / Double.BYTES);
+                    buffer.asDoubleBuffer().put(section.values, k, n);
+                    buffer.position(buffer.position() + n * Double.BYTES);
+                    k += n;
+                }
+            }
+            drain(buffer, channel);
+        }
+    }
+
+    /**
+     * Writes the buffer to the channel and clears it.
+     * @param  buffer  the buffer
+     * @param  channel the channel
+     * @throws IOException if writing fails
+     */
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    // ************************* Reading *************************
+
+    /**
+     * Loads a scene file through a read-only memory mapping of its sections.
+     * @param  file the scene file
+     * @return      the scene
+     * @throws IOException if reading fails, or the file is not a scene file of a supported version
+     */
+    public static Content read(Path file) throws IOException {
+        var event = new RenderEvents.SceneBuild();
+        event.begin();
+        Geometries     geometries = new Geometries();
+        Camera.Builder camera     = null;
+        int            total      = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) throw new IOException("Not a scene file: " + file);
+            ByteBuffer header = map(channel, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) throw new IOException("Not a scene file: " + file);
+            int version = header.getInt();
+            if (version < 1 || version > VERSION)
+                throw new IOException("Unsupported scene file version " + version + ": " + file);
+            boolean hasCamera = header.getInt() != 0;
+            int     sections  = header.getInt();
+
+            long offset = HEADER_BYTES;
+            if (hasCamera) {
+                camera  = readCamera(map(channel, offset, CAMERA_BYTES));
+                offset += CAMERA_BYTES;
+            }
+            for (int s = 0; s < sections; ++s) {
+                ByteBuffer sectionHeader = map(channel, offset, 2 * Integer.BYTES);
+                int        typeIndex     = sectionHeader.getInt();
+                int        count         = sectionHeader.getInt();
+                if (typeIndex < 0 || typeIndex >= Type.values().length || count < 0)
+                    throw new IOException("Corrupt scene file section: " + file);
+                Type type = Type.values()[typeIndex];
+                offset += 2 * Integer.BYTES;
+
+                int[] vertexCounts = null;
+                long  values       = (long) count * type.stride;
+                if (type == Type.POLYGON) {
+                    vertexCounts = new int[count];
+                    IntBuffer counts = map(channel, offset, (long) count * Integer.BYTES).asIntBuffer();
+                    counts.get(vertexCounts);
+                    offset += padded((long) count * Integer.BYTES);
+                    values  = 0;
+                    for (int n : vertexCounts) values += 3L * n;
+                }
+                if (offset + values * Double.BYTES > size) throw new IOException("Truncated scene file: " + file);
+                double[] data = new double[Math.toIntExact(values)];
+                DoubleBuffer records = map(channel, offset, values * Double.BYTES).asDoubleBuffer();
+                records.get(data);
+                offset += values * Double.BYTES;
+                build(type, count, data, vertexCounts, geometries);
+                total  += count;
+            }
+        }
+        if (event.shouldCommit()) {
+            event.scene      = file.toString();
+            event.geometries = total;
+            event.commit();
+        }
+        return new Content(geometries, camera);
+    }
+
+    /**
+     * Maps a region of the file read-only.
+     * @param  channel the file channel
+     * @param  offset  region offset
+     * @param  bytes   region size
+     * @return         the mapped region, little endian
+     * @throws IOException if mapping fails
+     */
+    private static MappedByteBuffer map(FileChannel channel, long offset, long bytes) throws IOException {
+        if (offset + bytes > channel.size()) throw new IOException("Truncated scene file");
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, bytes);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    /**
+     * Reads the camera block.
+     * @param  block the camera block
+     * @return       camera builder with the stored parameters
+     */
+    private static Camera.Builder readCamera(ByteBuffer block) {
+        Point  p0  = new Point(block.getDouble(), block.getDouble(), block.getDouble());
+        Vector vTo = new Vector(block.getDouble(), block.getDouble(), block.getDouble());
+        Vector vUp = new Vector(block.getDouble(), block.getDouble(), block.getDouble());
+        Camera.Builder builder = Camera.getBuilder().setLocation(p0).setDirection(vTo, vUp)
+                .setVpSize(block.getDouble(), block.getDouble()).setVpDistance(block.getDouble());
+        int nX = block.getInt(), nY = block.getInt();
+        if (nX > 0 && nY > 0) builder.setResolution(nX, nY);
+        return builder;
+    }
+
+    /**
+     * Builds the geometries of a section straight from its records.
+     * @param type         geometry type
+     * @param count        number of geometries
+     * @param d            the records
+     * @param vertexCounts vertices count of every polygon (POLYGON only)
+     * @param geometries   the scene to add the geometries to
+     */
+    private static void build(Type type, int count, double[] d, int[] vertexCounts, Geometries geometries) {
+        if (type == Type.COMPACT_SPHERES) {
+            CompactSpheres spheres = new CompactSpheres(count);
+            for (int k = 0; k < d.length; k += type.stride)
+                spheres.add(new Point(d[k], d[k + 1], d[k + 2]), d[k + 3]);
+            geometries.add(spheres);
+            return;
+        }
+        if (type == Type.COMPACT_TRIANGLES) {
+            CompactTriangles triangles = new CompactTriangles(count);
+            for (int k = 0; k < d.length; k += type.stride)
+                triangles.add(new Point(d[k], d[k + 1], d[k + 2]), new Point(d[k + 3], d[k + 4], d[k + 5]),
+                        new Point(d[k + 6], d[k + 7], d[k + 8]));
+            geometries.add(triangles);
+            return;
+        }
+        Intersectable[] built = new Intersectable[count];
+        int             k     = 0;
+        for (int g = 0; g < count; ++g) {
+            built[g] = switch (type) {
+                case SPHERE -> new Sphere(new Point(d[k], d[k + 1], d[k + 2]), d[k + 3]);
+                case PLANE -> new Plane(new Point(d[k], d[k + 1], d[k + 2]), new Vector(d[k + 3], d[k + 4], d[k + 5]));
+                case TRIANGLE -> new Triangle(new Point(d[k], d[k + 1], d[k + 2]),
+                        new Point(d[k + 3], d[k + 4], d[k + 5]), new Point(d[k + 6], d[k + 7], d[k + 8]));
+                case POLYGON -> {
+                    Point[] vertices = new Point[vertexCounts[g]];
+                    for (int v = 0; v < vertices.length; ++v)
+                        vertices[v] = new Point(d[k + 3 * v], d[k + 3 * v + 1], d[k + 3 * v + 2]);
+                    yield new Polygon(vertices);
+                }
+                case TUBE -> new Tube(axis(d, k), d[k + 6]);
+                case CYLINDER -> new Cylinder(axis(d, k), d[k + 6], d[k + 7]);
+                case COMPACT_SPHERES, COMPACT_TRIANGLES -> throw new IllegalStateException("Not a single geometry");
+            };
+            k += type == Type.POLYGON ? 3 * vertexCounts[g] : type.stride;
+        }
+        geometries.add(built);
+    }
+
+    /**
+     * Axis ray of a tube or cylinder record.
+     * @param  d the records
+     * @param  k first value of the record
+     * @return   the axis
+     */
+    private static Ray axis(double[] d, int k) {
+        return new Ray(new Point(d[k], d[k + 1], d[k + 2]), new Vector(d[k + 3], d[k + 4], d[k + 5]));
+    }
+}
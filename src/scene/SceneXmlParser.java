@@ -0,0 +1,361 @@
+package scene;
+
+import geometries.Cylinder;
+import geometries.Geometries;
+import geometries.Intersectable;
+import geometries.Plane;
+import geometries.Polygon;
+import geometries.Sphere;
+import geometries.Triangle;
+import geometries.Tube;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import renderer.Camera;
+import renderer.RenderEvents;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streaming parser of XML scene descriptions. The document is read with a StAX pull reader
+ * and every geometry is built the moment its element is read, straight into the scene
+ * {@link Geometries} - no document tree or intermediate objects, so the peak memory is the
+ * scene itself, whatever the size of the file.
+ *
+ * <p>Independent parts of a big scene can be kept in separate files and included with
+ * {@code <include file="..."/>} (relative to the including file): every included file is
+ * parsed in parallel, on the common pool, into a nested {@link Geometries} of its own.</p>
+ *
+ * <p>Format (coordinates and sizes are space separated numbers):</p>
+ * <pre>{@code
+ * <scene>
+ *   <camera location="0 0 0" to="0 0 -1" up="0 1 0" vp-size="4 3" vp-distance="2" resolution="800 600"/>
+ *   <geometries>
+ *     <sphere center="0 0 -50" radius="10"/>
+ *     <plane point="0 -10 0" normal="0 1 0"/>
+ *     <triangle p0="..." p1="..." p2="..."/>
+ *     <polygon vertices="x y z, x y z, x y z, ..."/>
+ *     <tube axis-point="..." axis-direction="..." radius="1"/>
+ *     <cylinder axis-point="..." axis-direction="..." radius="1" height="2"/>
+ *     <geometries> ...nested group... </geometries>
+ *     <include file="part.xml"/>
+ *   </geometries>
+ * </scene>
+ * }</pre>
+ * An included file has a {@code <geometries>} root element.
+ * @author Ido
+ */
+public final class SceneXmlParser {
+    /** The StAX factory (thread safe once configured) */
+    private static final XMLInputFactory FACTORY = XMLInputFactory.newFactory();
+
+    static {
+        // scene files are data - no DTDs and no external entities
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * A parsed scene with the parse statistics.
+     * @param geometries the scene geometries
+     * @param camera     builder holding the camera parameters (ray tracer to be set), null if
+     *                   the description has no camera
+     * @param count      number of geometries built, including the included files
+     * @param bytes      number of bytes parsed, including the included files
+     * @param time       wall-clock time of the parse
+     */
+    public record Result(Geometries geometries, Camera.Builder camera, long count, long bytes, Duration time) {
+        /** @return geometries built per second */
+        public double geometriesPerSecond() {
+            return time.isZero() ? 0 : count / (time.toNanos() / 1e9);
+        }
+
+        /** @return megabytes parsed per second */
+        public double megabytesPerSecond() {
+            return time.isZero() ? 0 : bytes / 1e6 / (time.toNanos() / 1e9);
+        }
+    }
+
+    /** Counters shared by the parses of a scene and its included files. */
+    private final AtomicLong count = new AtomicLong();
+    /** Bytes parsed */
+    private final AtomicLong bytes = new AtomicLong();
+
+    /** Parses are created by {@link #parse(Path)}. */
+    private SceneXmlParser() { }
+
+    /**
+     * Parses a scene description file.
+     * @param  file the file
+     * @return      the scene
+     * @throws IOException if reading fails or the description is malformed (with its line number)
+     */
+    public static Result parse(Path file) throws IOException {
+        var event = new RenderEvents.SceneBuild();
+        event.begin();
+        long             start  = System.nanoTime();
+        SceneXmlParser   parser = new SceneXmlParser();
+        Camera.Builder[] camera = new Camera.Builder[1];
+        Geometries       scene  = parser.parseFile(file, true, camera, Set.of(file.toAbsolutePath().normalize()));
+        Result result = new Result(scene, camera[0], parser.count.get(), parser.bytes.get(),
+                Duration.ofNanos(System.nanoTime() - start));
+        if (event.shouldCommit()) {
+            event.scene      = file.toString();
+            event.geometries = result.count();
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * An included file being parsed.
+     * @param group the group the file is included in
+     * @param parse the parse of the file
+     */
+    private record Include(Geometries group, CompletableFuture<Geometries> parse) { }
+
+    /**
+     * Parses a single file; its included files are parsed in parallel meanwhile.
+     * @param  file   the file
+     * @param  root   true for the scene file ({@code <scene>} root), false for an included file
+     * @param  camera receives the camera builder (scene file only)
+     * @param  chain  the normalized paths of the file and the files including it
+     * @return        the geometries of the file
+     * @throws IOException if reading or parsing fails, or the file includes itself (directly or
+     *                     by the files it includes)
+     */
+    private Geometries parseFile(Path file, boolean root, Camera.Builder[] camera, Set<Path> chain)
+            throws IOException {
+        bytes.addAndGet(Files.size(file));
+        List<Include> includes = new ArrayList<>();
+        Geometries    result   = new Geometries();
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            XMLStreamReader   reader = FACTORY.createXMLStreamReader(in);
+            Deque<Geometries> groups = new ArrayDeque<>();
+            try {
+                boolean first = true;
+                while (reader.hasNext()) {
+                    int eventType = reader.next();
+                    if (eventType == XMLStreamConstants.END_ELEMENT && reader.getLocalName().equals("geometries")) {
+                        Geometries group = groups.pop();
+                        if (!groups.isEmpty()) groups.peek().add(group);
+                        continue;
+                    }
+                    if (eventType != XMLStreamConstants.START_ELEMENT) continue;
+                    String name = reader.getLocalName();
+                    if (first) {
+                        first = false;
+                        String expected = root ? "scene" : "geometries";
+                        if (!name.equals(expected)) throw error(reader, "root element must be <" + expected + ">");
+                        if (root) continue;
+                    }
+                    switch (name) {
+                        case "camera" -> {
+                            if (!root || !groups.isEmpty()) throw error(reader, "<camera> must be in <scene>");
+                            camera[0] = camera(reader);
+                        }
+                        case "geometries" -> groups.push(groups.isEmpty() ? result : new Geometries());
+                        case "include" -> {
+                            if (groups.isEmpty()) throw error(reader, "<include> must be in <geometries>");
+                            Path part = file.resolveSibling(attribute(reader, "file"));
+                            Path key  = part.toAbsolutePath().normalize();
+                            if (chain.contains(key)) throw error(reader, "include cycle through " + part);
+                            Set<Path> next = new HashSet<>(chain);
+                            next.add(key);
+                            includes.add(new Include(groups.peek(), CompletableFuture.supplyAsync(() -> {
+                                try {
+                                    return parseFile(part, false, null, next);
+                                } catch (IOException e) {
+                                    throw new UncheckedIOException(e);
+                                }
+                            })));
+                        }
+                        default -> {
+                            if (groups.isEmpty()) throw error(reader, "<" + name + "> must be in <geometries>");
+                            groups.peek().add(geometry(reader, name));
+                            count.incrementAndGet();
+                        }
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                // bad values rejected by the geometries and primitives
+                throw error(reader, e.getMessage());
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed scene description " + file + ": " + e.getMessage(), e);
+        }
+
+        for (Include include : includes) {
+            try {
+                include.group().add(include.parse().join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+                throw e;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds a geometry from its element.
+     * @param  reader the reader, on the element start
+     * @param  name   element name
+     * @return        the geometry
+     * @throws XMLStreamException for an unknown element
+     */
+    private static Intersectable geometry(XMLStreamReader reader, String name) throws XMLStreamException {
+        return switch (name) {
+            case "sphere" -> new Sphere(point(reader, "center"), number(reader, "radius"));
+            case "plane" -> new Plane(point(reader, "point"), vector(reader, "normal"));
+            case "triangle" -> new Triangle(point(reader, "p0"), point(reader, "p1"), point(reader, "p2"));
+            case "polygon" -> {
+                String[] vertices = attribute(reader, "vertices").split(",");
+                Point[]  points   = new Point[vertices.length];
+                for (int v = 0; v < vertices.length; ++v) {
+                    double[] xyz = numbers(reader, vertices[v], 3);
+                    points[v] = new Point(xyz[0], xyz[1], xyz[2]);
+                }
+                yield new Polygon(points);
+            }
+            case "tube" -> new Tube(axis(reader), number(reader, "radius"));
+            case "cylinder" -> new Cylinder(axis(reader), number(reader, "radius"), number(reader, "height"));
+            default -> throw error(reader, "unknown element <" + name + ">");
+        };
+    }
+
+    /**
+     * Reads the camera element.
+     * @param  reader the reader, on the element start
+     * @return        camera builder with the parameters
+     * @throws XMLStreamException for missing or bad attributes
+     */
+    private static Camera.Builder camera(XMLStreamReader reader) throws XMLStreamException {
+        double[] size = numbers(reader, attribute(reader, "vp-size"), 2);
+        Camera.Builder builder = Camera.getBuilder().setLocation(point(reader, "location"))
+                .setDirection(vector(reader, "to"), vector(reader, "up"))
+                .setVpSize(size[0], size[1]).setVpDistance(number(reader, "vp-distance"));
+        String resolution = reader.getAttributeValue(null, "resolution");
+        if (resolution != null) {
+            double[] n = numbers(reader, resolution, 2);
+            builder.setResolution((int) n[0], (int) n[1]);
+        }
+        return builder;
+    }
+
+    /**
+     * Reads the axis attributes of a tube or cylinder.
+     * @param  reader the reader, on the element start
+     * @return        the axis ray
+     * @throws XMLStreamException for missing or bad attributes
+     */
+    private static Ray axis(XMLStreamReader reader) throws XMLStreamException {
+        return new Ray(point(reader, "axis-point"), vector(reader, "axis-direction"));
+    }
+
+    /**
+     * Reads a point attribute.
+     * @param  reader the reader, on the element start
+     * @param  name   attribute name
+     * @return        the point
+     * @throws XMLStreamException for a missing or bad attribute
+     */
+    private static Point point(XMLStreamReader reader, String name) throws XMLStreamException {
+        double[] xyz = numbers(reader, attribute(reader, name), 3);
+        return new Point(xyz[0], xyz[1], xyz[2]);
+    }
+
+    /**
+     * Reads a vector attribute.
+     * @param  reader the reader, on the element start
+     * @param  name   attribute name
+     * @return        the vector
+     * @throws XMLStreamException for a missing or bad attribute
+     */
+    private static Vector vector(XMLStreamReader reader, String name) throws XMLStreamException {
+        double[] xyz = numbers(reader, attribute(reader, name), 3);
+        return new Vector(xyz[0], xyz[1], xyz[2]);
+    }
+
+    /**
+     * Reads a number attribute.
+     * @param  reader the reader, on the element start
+     * @param  name   attribute name
+     * @return        the number
+     * @throws XMLStreamException for a missing or bad attribute
+     */
+    private static double number(XMLStreamReader reader, String name) throws XMLStreamException {
+        return numbers(reader, attribute(reader, name), 1)[0];
+    }
+
+    /**
+     * Reads a mandatory attribute.
+     * @param  reader the reader, on the element start
+     * @param  name   attribute name
+     * @return        the value
+     * @throws XMLStreamException for a missing attribute
+     */
+    private static String attribute(XMLStreamReader reader, String name) throws XMLStreamException {
+        String value = reader.getAttributeValue(null, name);
+        if (value == null) throw error(reader, "<" + reader.getLocalName() + "> is missing attribute " + name);
+        return value;
+    }
+
+    /**
+     * Parses space separated numbers, scanning the text in place.
+     * @param  reader the reader (for the error location)
+     * @param  text   the text
+     * @param  n      expected number of numbers
+     * @return        the numbers
+     * @throws XMLStreamException for a wrong count or a bad number
+     */
+    private static double[] numbers(XMLStreamReader reader, String text, int n) throws XMLStreamException {
+        double[] values = new double[n];
+        int      found  = 0, k = 0, length = text.length();
+        while (true) {
+            while (k < length && Character.isWhitespace(text.charAt(k))) ++k;
+            if (k == length) break;
+            int start = k;
+            while (k < length && !Character.isWhitespace(text.charAt(k))) ++k;
+            if (found == n) throw error(reader, "expected " + n + " numbers in \"" + text + "\"");
+            try {
+                values[found++] = Double.parseDouble(text.substring(start, k));
+            } catch (NumberFormatException e) {
+                throw error(reader, "bad number in \"" + text + "\"");
+            }
+        }
+        if (found != n) throw error(reader, "expected " + n + " numbers in \"" + text + "\"");
+        return values;
+    }
+
+    /**
+     * Creates a parse error at the current location.
+     * @param  reader  the reader
+     * @param  message error message
+     * @return         the error
+     */
+    private static XMLStreamException error(XMLStreamReader reader, String message) {
+        return new XMLStreamException("line " + reader.getLocation().getLineNumber() + ": " + message);
+    }
+}
@@ -0,0 +1,158 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing BoundingVolumeHierarchy class
+ * @author Ido
+ */
+class BoundingVolumeHierarchyTest {
+    /**
+     * Random scene of spheres and triangles, with a plane and a nested aggregate.
+     * @param  count number of bounded geometries
+     * @return       the scene
+     */
+    private static Geometries scene(int count) {
+        Random     random = new Random(7);
+        Geometries scene  = new Geometries(new Plane(new Point(0, -30, 0), new Vector(0, 1, 0)));
+        Geometries nested = new Geometries();
+        for (int k = 0; k < count; ++k) {
+            Point p = new Point(random.nextDouble(-20, 20), random.nextDouble(-20, 20), random.nextDouble(-60, -20));
+            if (k % 2 == 0) scene.add(new Sphere(p, random.nextDouble(0.5, 2)));
+            else nested.add(new Triangle(p, p.add(new Vector(1, 0, 0)), p.add(new Vector(0, 1, 0.5))));
+        }
+        scene.add(nested);
+        return scene;
+    }
+
+    /**
+     * Asserts the hierarchy finds the same intersections as the plain aggregate.
+     * @param scene the plain aggregate
+     * @param bvh   the hierarchy
+     */
+    private static void assertSameIntersections(Geometries scene, Intersectable bvh) {
+        Random random = new Random(11);
+        for (int k = 0; k < 300; ++k) {
+            Ray ray = new Ray(new Point(random.nextDouble(-5, 5), random.nextDouble(-5, 5), 0),
+                    new Vector(random.nextDouble(-0.5, 0.5), random.nextDouble(-0.5, 0.5), -1));
+            List<Point> expected = scene.findIntersections(ray);
+            List<Point> actual   = bvh.findIntersections(ray);
+            assertEquals(expected == null ? 0 : expected.size(), actual == null ? 0 : actual.size(),
+                    "wrong intersections count for " + ray);
+            if (expected != null) assertTrue(actual.containsAll(expected), "wrong intersections for " + ray);
+            List<Intersectable.GeoPoint> geoPoints = bvh.findGeoIntersections(ray);
+            assertEquals(expected == null ? 0 : expected.size(), geoPoints == null ? 0 : geoPoints.size(),
+                    "wrong geometry intersections count for " + ray);
+        }
+    }
+
+    /**
+     * Test method for {@link geometries.BoundingVolumeHierarchy#findIntersections(Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a scene with bounded, unbounded and nested geometries
+        Geometries scene = scene(400);
+        BoundingVolumeHierarchy bvh = BoundingVolumeHierarchy.build(scene);
+        assertSameIntersections(scene, bvh);
+        assertNull(bvh.getBoundingBox(), "a scene with a plane is unbounded");
+
+        // TC02: bounded scene - the root box holds all the geometries
+        Geometries bounded = new Geometries(new Sphere(new Point(0, 0, -5), 1),
+                new Triangle(new Point(2, 0, -4), new Point(3, 0, -4), new Point(2, 1, -6)));
+        assertEquals(new BoundingBox(-1, -1, -6, 3, 1, -4), BoundingVolumeHierarchy.build(bounded).getBoundingBox(),
+                "wrong root box");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: empty scene
+        BoundingVolumeHierarchy empty = BoundingVolumeHierarchy.build(new Geometries());
+        assertNull(empty.findIntersections(new Ray(Point.ZERO, new Vector(0, 0, -1))), "empty scene has no hits");
+        assertEquals(0, empty.getNodeCount(), "empty scene has no nodes");
+        // TC11: a single geometry
+        Geometries single = new Geometries(new Sphere(new Point(0, 0, -5), 1));
+        assertEquals(2, BoundingVolumeHierarchy.build(single)
+                .findIntersections(new Ray(Point.ZERO, new Vector(0, 0, -1))).size(), "single sphere hits twice");
+        // TC12: a ray axis-parallel through the edge of boxes (zero direction components)
+        Geometries flat = new Geometries(new Triangle(new Point(0, 0, -3), new Point(1, 0, -3), new Point(0, 1, -3)));
+        assertEquals(1, BoundingVolumeHierarchy.build(flat)
+                .findIntersections(new Ray(new Point(0.25, 0.25, 0), new Vector(0, 0, -1))).size(),
+                "flat box should be hit");
+    }
+
+    /**
+     * Test method for {@link geometries.BoundingVolumeHierarchy#cached(Geometries, Path)}.
+     */
+    @Test
+    void testCached() throws IOException {
+        Path directory = Files.createTempDirectory("bvh-cache");
+        try {
+            Geometries scene = scene(200);
+
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: cold start builds the tree and stores it
+            BoundingVolumeHierarchy cold = BoundingVolumeHierarchy.cached(scene, directory);
+            assertFalse(cold.isFromCache(), "cold start should build the tree");
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(1, files.count(), "the tree should be stored in the cache");
+            }
+
+            // TC02: warm start maps the same tree
+            BoundingVolumeHierarchy warm = BoundingVolumeHierarchy.cached(scene, directory);
+            assertTrue(warm.isFromCache(), "warm start should load the tree");
+            assertEquals(cold.getNodeCount(), warm.getNodeCount(), "loaded tree should be the same");
+            assertSameIntersections(scene, warm);
+
+            // TC03: other geometries do not use the cached tree
+            Geometries other = scene(201);
+            assertFalse(BoundingVolumeHierarchy.cached(other, directory).isFromCache(),
+                    "changed geometries should not use the old tree");
+
+            // TC04: a corrupt cache file is rebuilt
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) Files.write(file, new byte[] { 1, 2, 3 });
+            }
+            BoundingVolumeHierarchy rebuilt = BoundingVolumeHierarchy.cached(scene, directory);
+            assertFalse(rebuilt.isFromCache(), "corrupt cache should be rebuilt");
+            assertSameIntersections(scene, rebuilt);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Test method for {@link geometries.Intersectable#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: sphere
+        assertEquals(new BoundingBox(0, 1, 2, 2, 3, 4), new Sphere(new Point(1, 2, 3), 1).getBoundingBox(),
+                "wrong sphere box");
+        // TC02: polygon
+        assertEquals(new BoundingBox(0, 0, 0, 1, 1, 0), new Polygon(new Point(0, 0, 0), new Point(1, 0, 0),
+                new Point(1, 1, 0), new Point(0, 1, 0)).getBoundingBox(), "wrong polygon box");
+        // TC03: cylinder along the z axis
+        assertEquals(new BoundingBox(-1, -1, 0, 1, 1, 2),
+                new Cylinder(new Ray(Point.ZERO, new Vector(0, 0, 1)), 1, 2).getBoundingBox(),
+                "wrong cylinder box");
+        // TC04: unbounded geometries
+        assertNull(new Plane(Point.ZERO, new Vector(0, 0, 1)).getBoundingBox(), "plane is unbounded");
+        assertNull(new Tube(new Ray(Point.ZERO, new Vector(0, 0, 1)), 1).getBoundingBox(), "tube is unbounded");
+        assertNull(new Geometries(new Plane(Point.ZERO, new Vector(0, 0, 1))).getBoundingBox(),
+                "aggregate with a plane is unbounded");
+    }
+}
@@ -0,0 +1,72 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing CompactSpheres class
+ * @author Ido
+ */
+class CompactSpheresTest {
+    /**
+     * Test method for {@link geometries.CompactSpheres#findIntersections(Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: random spheres with float-exact values hit as the plain spheres
+        Random         random  = new Random(5);
+        CompactSpheres compact = new CompactSpheres(0);
+        Geometries     plain   = new Geometries();
+        for (int k = 0; k < 100; ++k) {
+            Point  center = new Point((float) random.nextDouble(-10, 10), (float) random.nextDouble(-10, 10),
+                    (float) random.nextDouble(-30, -10));
+            double radius = (float) random.nextDouble(0.5, 2);
+            compact.add(center, radius);
+            plain.add(new Sphere(center, radius));
+        }
+        assertEquals(100, compact.size(), "wrong number of spheres");
+        for (int k = 0; k < 300; ++k) {
+            Ray ray = new Ray(Point.ZERO, new Vector(random.nextDouble(-0.5, 0.5), random.nextDouble(-0.5, 0.5), -1));
+            List<Point> expected = plain.findIntersections(ray);
+            List<Point> actual   = compact.findIntersections(ray);
+            assertEquals(expected == null ? 0 : expected.size(), actual == null ? 0 : actual.size(),
+                    "wrong intersections count for " + ray);
+            if (expected != null) assertTrue(actual.containsAll(expected), "wrong intersections for " + ray);
+        }
+
+        // TC02: ray misses
+        CompactSpheres one = new CompactSpheres(1).add(new Point(0, 0, -5), 1);
+        assertNull(one.findIntersections(new Ray(Point.ZERO, new Vector(0, 0, 1))), "ray away from the sphere");
+
+        // TC03: ray starts inside
+        assertEquals(List.of(new Point(0, 0, -6)),
+                one.findIntersections(new Ray(new Point(0, 0, -5.5), new Vector(0, 0, -1))), "one exit point");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: ray starts at the center
+        assertEquals(List.of(new Point(0, 0, -6)),
+                one.findIntersections(new Ray(new Point(0, 0, -5), new Vector(0, 0, -1))), "exit at radius");
+        // TC11: tangent ray
+        assertNull(one.findIntersections(new Ray(new Point(1, 0, 0), new Vector(0, 0, -1))), "tangent has no hits");
+        // TC12: ray starts on the surface going out
+        assertNull(one.findIntersections(new Ray(new Point(0, 0, -4), new Vector(0, 0, 1))), "head is not a hit");
+        // TC13: values are stored in float precision
+        CompactSpheres rounded = new CompactSpheres(1).add(new Point(0, 0, -5.1), 1);
+        assertEquals(new Point(0, 0, (float) -5.1 + 1), rounded.findIntersections(
+                new Ray(Point.ZERO, new Vector(0, 0, -1))).get(0), "center should be rounded to float");
+        // TC14: a radius rounded to zero
+        assertThrows(IllegalArgumentException.class, () -> new CompactSpheres(1).add(Point.ZERO, 1e-50),
+                "zero radius should fail");
+        // TC15: empty container
+        assertNull(new CompactSpheres(0).findIntersections(new Ray(Point.ZERO, new Vector(0, 0, -1))),
+                "empty container has no hits");
+        assertNull(new CompactSpheres(0).getBoundingBox(), "empty container has no box");
+        assertEquals(new BoundingBox(-1, -1, -6, 1, 1, -4), one.getBoundingBox(), "wrong box");
+    }
+}
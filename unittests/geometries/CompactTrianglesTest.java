@@ -0,0 +1,70 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing CompactTriangles class
+ * @author Ido
+ */
+class CompactTrianglesTest {
+    /**
+     * Test method for {@link geometries.CompactTriangles#findIntersections(Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: random triangles with float-exact vertices hit as the plain triangles
+        Random           random  = new Random(5);
+        CompactTriangles compact = new CompactTriangles(0);
+        Geometries       plain   = new Geometries();
+        for (int k = 0; k < 100; ++k) {
+            Point p = new Point((float) random.nextDouble(-10, 10), (float) random.nextDouble(-10, 10),
+                    (float) random.nextDouble(-30, -10));
+            Point q = new Point((float) (p.getX() + 2), p.getY(), (float) (p.getZ() + 0.5));
+            Point r = new Point(p.getX(), (float) (p.getY() + 2), p.getZ());
+            compact.add(p, q, r);
+            plain.add(new Triangle(p, q, r));
+        }
+        assertEquals(100, compact.size(), "wrong number of triangles");
+        for (int k = 0; k < 300; ++k) {
+            Ray ray = new Ray(Point.ZERO, new Vector(random.nextDouble(-0.5, 0.5), random.nextDouble(-0.5, 0.5), -1));
+            List<Point> expected = plain.findIntersections(ray);
+            List<Point> actual   = compact.findIntersections(ray);
+            assertEquals(expected == null ? 0 : expected.size(), actual == null ? 0 : actual.size(),
+                    "wrong intersections count for " + ray);
+            if (expected != null) assertTrue(actual.containsAll(expected), "wrong intersections for " + ray);
+        }
+
+        CompactTriangles one = new CompactTriangles(1)
+                .add(new Point(0, 0, -3), new Point(2, 0, -3), new Point(0, 2, -3));
+        // TC02: inside the triangle
+        assertEquals(List.of(new Point(0.5, 0.5, -3)),
+                one.findIntersections(new Ray(new Point(0.5, 0.5, 0), new Vector(0, 0, -1))), "inside hit");
+        // TC03: outside against an edge
+        assertNull(one.findIntersections(new Ray(new Point(-1, 0.5, 0), new Vector(0, 0, -1))), "outside");
+        // TC04: outside against a vertex
+        assertNull(one.findIntersections(new Ray(new Point(-1, -1, 0), new Vector(0, 0, -1))), "outside");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: on an edge
+        assertNull(one.findIntersections(new Ray(new Point(1, 0, 0), new Vector(0, 0, -1))), "edge is no hit");
+        // TC11: on a vertex
+        assertNull(one.findIntersections(new Ray(new Point(0, 2, 0), new Vector(0, 0, -1))), "vertex is no hit");
+        // TC12: on an edge continuation
+        assertNull(one.findIntersections(new Ray(new Point(0, 3, 0), new Vector(0, 0, -1))), "continuation");
+        // TC13: parallel ray
+        assertNull(one.findIntersections(new Ray(new Point(0.5, 0.5, 0), new Vector(1, 0, 0))), "parallel");
+        // TC14: vertices collapsing into a line by the float rounding
+        assertThrows(IllegalArgumentException.class, () -> new CompactTriangles(1).add(new Point(1, 1, 1),
+                new Point(1 + 1e-12, 1, 1), new Point(1, 1 + 1e-12, 1)), "degenerate triangle should fail");
+        // TC15: empty container
+        assertNull(new CompactTriangles(0).getBoundingBox(), "empty container has no box");
+        assertEquals(new BoundingBox(0, 0, -3, 2, 2, -3), one.getBoundingBox(), "wrong box");
+    }
+}
@@ -130,4 +130,34 @@ class SphereTest {
         assertEquals(List.of(p2), sphere.findIntersections(new Ray(p5, v3)), "Failed to find the intersection point when the ray start in the sphere and doesn't reach the middle of the sphere");
     }
 
-}
\ No newline at end of file
+    /**
+     * Test method for {@link geometries.Sphere#findDistances(Ray, double[], int)}.
+     */
+    @Test
+    void testFindDistances() {
+        Sphere   sphere = new Sphere(new Point(0, 0, -5), 1);
+        double[] t      = new double[4];
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: ray crosses the sphere - ascending distances at the offset
+        assertEquals(2, sphere.findDistances(new Ray(Point.ZERO, new Vector(0, 0, -1)), t, 2), "two distances");
+        assertArrayEquals(new double[] { 0, 0, 4, 6 }, t, 1e-12, "wrong distances");
+        // TC02: ray starts inside
+        assertEquals(1, sphere.findDistances(new Ray(new Point(0, 0, -5.5), new Vector(0, 0, -1)), t, 0),
+                "one distance");
+        assertEquals(0.5, t[0], 1e-12, "wrong distance");
+        // TC03: ray starts outside heading away (early reject)
+        assertEquals(0, sphere.findDistances(new Ray(Point.ZERO, new Vector(0, 1, 1)), t, 0), "no distances");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: ray starts at the center
+        assertEquals(1, sphere.findDistances(new Ray(new Point(0, 0, -5), new Vector(1, 0, 0)), t, 0),
+                "one distance");
+        assertEquals(1, t[0], 1e-12, "exit at radius");
+        // TC11: ray starts on the surface heading away
+        assertEquals(0, sphere.findDistances(new Ray(new Point(0, 0, -4), new Vector(0, 0, 1)), t, 0),
+                "head is not a hit");
+        // TC12: ray starts outside perpendicular to the center direction
+        assertEquals(0, sphere.findDistances(new Ray(Point.ZERO, new Vector(1, 0, 0)), t, 0), "no distances");
+    }
+}
@@ -0,0 +1,46 @@
+package lighting;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing AreaLight class
+ * @author Ido
+ */
+class AreaLightTest {
+    /** Area light of 2 x 4 around (1, 2, 3), in the XY plane */
+    private final AreaLight light = new AreaLight(new Color(10, 10, 10), new Point(1, 2, 3),
+            new Vector(2, 0, 0), new Vector(0, 4, 0));
+
+    /**
+     * Test method for {@link lighting.AreaLight#AreaLight(Color, Point, Vector, Vector)}.
+     */
+    @Test
+    void testConstructor() {
+        // =============== Boundary Values Tests ==================
+        // TC10: parallel edges
+        assertThrows(IllegalArgumentException.class,
+                () -> new AreaLight(Color.BLACK, Point.ZERO, new Vector(1, 0, 0), new Vector(-2, 0, 0)),
+                "parallel edges should fail");
+        // TC11: grid smaller than 2
+        assertThrows(IllegalArgumentException.class, () -> light.setGrid(1), "grid of 1 should fail");
+    }
+
+    /**
+     * Test method for {@link lighting.AreaLight#getPoint(double, double)}.
+     */
+    @Test
+    void testGetPoint() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: inner point
+        assertEquals(new Point(0.5, 3, 3), light.getPoint(0.25, 0.75), "wrong inner point");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: center
+        assertEquals(new Point(1, 2, 3), light.getPoint(0.5, 0.5), "wrong center");
+        // TC11: corner
+        assertEquals(new Point(0, 0, 3), light.getPoint(0, 0), "wrong corner");
+    }
+}
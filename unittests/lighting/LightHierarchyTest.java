@@ -0,0 +1,67 @@
+package lighting;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing LightHierarchy class
+ * @author Ido
+ */
+class LightHierarchyTest {
+    /**
+     * Test method for {@link lighting.LightHierarchy#sample(Point, double)}.
+     */
+    @Test
+    void testSample() {
+        Random            random = new Random(3);
+        List<LightSource> lights = new ArrayList<>();
+        for (int k = 0; k < 500; ++k) {
+            Point  position  = new Point(random.nextDouble(-50, 50), random.nextDouble(5, 20), random.nextDouble(-50, 50));
+            Color  intensity = new Color(random.nextDouble(1, 100), 0, 0);
+            lights.add(k % 3 == 0
+                    ? new SpotLight(intensity, position, new Vector(random.nextDouble(-1, 1), -1, random.nextDouble(-1, 1)))
+                    : new PointLight(intensity, position).setKq(0.01));
+        }
+        lights.add(new DirectionalLight(new Color(10, 10, 10), new Vector(0, -1, 0)));
+        LightHierarchy hierarchy = LightHierarchy.build(lights);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: directional lights are global, the others are in the hierarchy
+        assertEquals(500, hierarchy.getLightCount(), "wrong number of positioned lights");
+        assertEquals(1, hierarchy.getGlobalLights().size(), "wrong number of global lights");
+
+        // TC02: the weighted samples estimate the sum over all the lights
+        Point  p     = new Point(3, 0, -7);
+        double exact = 0;
+        for (PointLight light : hierarchy.getLights()) exact += light.getIntensity(p).getRed();
+        double estimate = 0;
+        int    samples  = 100000;
+        for (int k = 0; k < samples; ++k) {
+            LightHierarchy.Sample sample = hierarchy.sample(p, random.nextDouble());
+            if (sample != null) estimate += sample.light().getIntensity(p).getRed() / sample.probability();
+        }
+        assertEquals(exact, estimate / samples, exact * 0.02, "biased estimate");
+
+        // TC03: spot lights pointing away from the point are never sampled
+        LightHierarchy away = LightHierarchy.build(List.of(
+                new SpotLight(new Color(100, 0, 0), new Point(0, 10, 0), new Vector(0, 1, 0)),
+                new SpotLight(new Color(100, 0, 0), new Point(5, 10, 0), new Vector(1, 1, 0))));
+        assertNull(away.sample(new Point(0, 0, 0), 0.5), "no light can light the point");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a single light is always sampled
+        PointLight     single = new PointLight(new Color(1, 1, 1), new Point(0, 1, 0));
+        LightHierarchy one    = LightHierarchy.build(List.of(single));
+        assertEquals(new LightHierarchy.Sample(single, 1), one.sample(Point.ZERO, 0.99), "wrong single sample");
+        // TC11: no positioned lights
+        assertNull(LightHierarchy.build(List.of()).sample(Point.ZERO, 0.5), "no lights to sample");
+        // TC12: the point at a light position
+        assertNotNull(hierarchy.sample(hierarchy.getLights().get(0).getPosition(), 0.5), "light should be sampled");
+    }
+}
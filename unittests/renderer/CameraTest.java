@@ -1,11 +1,21 @@
 package renderer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
+import geometries.Geometries;
+import geometries.Intersectable;
+import geometries.Plane;
+import geometries.Sphere;
+import lighting.PointLight;
 import primitives.*;
+import scene.Scene;
+
+import java.util.List;
 
 /**
  * Testing Camera Class
@@ -88,4 +98,210 @@ class CameraTest {
       // BV01: set to a target on Y-axis without up
       assertThrows(IllegalArgumentException.class, () -> cameraBuilder.setDirection(new Point(0, 10, 0)).build());
    }
+
+   /**
+    * Test method for {@link renderer.Camera#renderImage()}.
+    */
+   @Test
+   void testRenderImage() {
+      // a tracer that encodes the ray direction, to check every pixel got its own ray
+      RayTracerBase tracer = new RayTracerBase(new Geometries()) {
+         @Override
+         public Color traceRay(Ray ray) {
+            Vector v = ray.getDir();
+            return new Color(v.dotProduct(Vector.AXIS_X) + 1, v.dotProduct(Vector.AXIS_Y) + 1, 0);
+         }
+      };
+      cameraBuilder.setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0)).setVpSize(8, 8);
+
+      // ============ Equivalence Partitions Tests ==============
+      // EP01: several threads and tiles render the same image as a single thread
+      Color[][] single = cameraBuilder.setResolution(11, 7).setRayTracer(tracer)
+         .setTileSize(4).setMultithreading(1).build().renderImage();
+      Color[][] multi  = cameraBuilder.setMultithreading(3).build().renderImage();
+      Camera    camera = cameraBuilder.build();
+      for (int i = 0; i < 7; ++i)
+         for (int j = 0; j < 11; ++j) {
+            Color expected = tracer.traceRay(camera.constructRay(11, 7, j, i));
+            assertEquals(expected, single[i][j], "Bad pixel color");
+            assertEquals(expected, multi[i][j], "Bad pixel color in multithreaded render");
+         }
+
+      // =============== Boundary Values Tests ==================
+      // BV01: render without a resolution
+      assertThrows(java.util.MissingResourceException.class,
+                   () -> Camera.getBuilder().setLocation(Point.ZERO).setVpDistance(1).setVpSize(1, 1)
+                      .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0)).setRayTracer(tracer)
+                      .build().renderImage());
+   }
+
+   /**
+    * Test method for {@link renderer.Camera.Builder#setFrustumCulling(boolean)}.
+    */
+   @Test
+   void testFrustumCulling() {
+      Scene scene = new Scene("culling").setGeometries(new Geometries(
+         new Sphere(new Point(-3, 2, -20), 2), new Sphere(new Point(3, -2, -20), 2),
+         new Plane(new Point(0, 0, -30), new Vector(0, 0, 1))));
+      scene.setLights(List.of(new PointLight(new Color(500, 500, 500), new Point(0, 10, 0))));
+      cameraBuilder.setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0)).setVpSize(8, 8)
+         .setResolution(16, 16).setTileSize(4).setMultithreading(1)
+         .setRayTracer(new SimpleRayTracer(scene));
+
+      // ============ Equivalence Partitions Tests ==============
+      // EP01: culling the geometries out of the tiles does not change the image
+      Color[][] culled = cameraBuilder.setFrustumCulling(true).build().renderImage();
+      Color[][] plain  = cameraBuilder.setFrustumCulling(false).build().renderImage();
+      for (int i = 0; i < 16; ++i)
+         for (int j = 0; j < 16; ++j)
+            assertEquals(plain[i][j], culled[i][j], "Culling changed pixel " + j + "," + i);
+
+      // EP02: culling is off by default - a tracer overriding traceRay(Ray) traces the primary rays
+      SimpleRayTracer red = new SimpleRayTracer(scene) {
+         @Override
+         public Color traceRay(Ray ray) { return new Color(255, 0, 0); }
+      };
+      Color[][] image = cameraBuilder.setRayTracer(red).build().renderImage();
+      assertEquals(new Color(255, 0, 0), image[0][0], "The tracer override should trace the primary rays");
+
+      // EP03: with culling the primary rays are traced by the overridable candidate entry point
+      SimpleRayTracer green = new SimpleRayTracer(scene) {
+         @Override
+         public Color traceRay(Ray ray, Intersectable candidates) { return new Color(0, 255, 0); }
+      };
+      image = cameraBuilder.setRayTracer(green).setFrustumCulling(true).build().renderImage();
+      assertEquals(new Color(0, 255, 0), image[0][0], "The candidate override should trace the primary rays");
+
+      // EP04: a tracer not overriding the candidate entry point traces the primary rays plainly
+      RayTracerBase blue = new RayTracerBase(scene.getGeometries()) {
+         @Override
+         public Color traceRay(Ray ray) { return new Color(0, 0, 255); }
+      };
+      image = cameraBuilder.setRayTracer(blue).build().renderImage();
+      assertEquals(new Color(0, 0, 255), image[0][0], "The default candidate entry point should trace plainly");
+   }
+
+   /**
+    * Test method for {@link renderer.Camera#renderProgressive(FrameBuffer, java.util.function.IntConsumer)}.
+    */
+   @Test
+   void testRenderProgressive() {
+      int[]         traced = { 0 };
+      RayTracerBase tracer = new RayTracerBase(new Geometries()) {
+         @Override
+         public Color traceRay(Ray ray) {
+            ++traced[0];
+            Vector v = ray.getDir();
+            return new Color(v.dotProduct(Vector.AXIS_X) + 1, v.dotProduct(Vector.AXIS_Y) + 1, 0);
+         }
+      };
+      Camera camera = cameraBuilder.setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0)).setVpSize(8, 8)
+         .setResolution(13, 10).setRayTracer(tracer).setTileSize(5).setMultithreading(1).build();
+      Color[][]   expected = camera.renderImage();
+      FrameBuffer buffer   = new FrameBuffer(13, 10);
+      traced[0] = 0;
+
+      // ============ Equivalence Partitions Tests ==============
+      // EP01: the coarse pass upsamples, the final image equals a straight render with the same work
+      java.util.List<Integer> passes = new java.util.ArrayList<>();
+      camera.renderProgressive(buffer, step -> {
+         passes.add(step);
+         if (step == 4) assertEquals(buffer.get(0, 0), buffer.get(3, 3), "coarse pass should fill the block");
+      });
+      assertEquals(java.util.List.of(4, 2, 1), passes, "wrong passes");
+      assertEquals(13 * 10, traced[0], "every pixel should be traced exactly once");
+      for (int i = 0; i < 10; ++i)
+         for (int j = 0; j < 13; ++j)
+            assertEquals(expected[i][j].getRGB(), buffer.get(j, i).getRGB(), "Bad pixel color");
+
+      // =============== Boundary Values Tests ==================
+      // BV01: frame buffer of another size
+      assertThrows(IllegalArgumentException.class, () -> camera.renderProgressive(new FrameBuffer(2, 2), null));
+   }
+
+   /**
+    * Test method for {@link renderer.Camera#renderWithin(RenderBudget, int, FrameBuffer)}.
+    */
+   @Test
+   void testRenderWithin() {
+      RayTracerBase tracer = new RayTracerBase(new Geometries()) {
+         @Override
+         public Color traceRay(Ray ray) {
+            Vector v = ray.getDir();
+            return new Color(v.dotProduct(Vector.AXIS_X) + 1, 1, 0);
+         }
+      };
+      Camera camera = cameraBuilder.setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0)).setVpSize(8, 8)
+         .setResolution(12, 8).setRayTracer(tracer).setTileSize(4).setMultithreading(2).build();
+
+      // ============ Equivalence Partitions Tests ==============
+      // EP01: unlimited budget - all the samples of all the tiles
+      RenderProgress done = camera.renderWithin(RenderBudget.unlimited(), 3, new FrameBuffer(12, 8));
+      assertTrue(done.isFinished(), "render should finish");
+      assertEquals(3L * 12 * 8, done.totalSamples(), "wrong samples count");
+      assertEquals(3, done.buffer().getWeight(5, 5), "every pixel should get all the samples");
+
+      // EP02: cancelled in the middle - stops between tiles and reports the progress
+      RenderBudget  budget  = RenderBudget.unlimited();
+      int[]         counter = { 0 };
+      RayTracerBase slow    = new RayTracerBase(new Geometries()) {
+         @Override
+         public Color traceRay(Ray ray) {
+            if (++counter[0] == 40) budget.cancel();
+            return Color.BLACK;
+         }
+      };
+      RenderProgress partial = cameraBuilder.setRayTracer(slow).setMultithreading(1).build()
+         .renderWithin(budget, 2, new FrameBuffer(12, 8));
+      assertTrue(partial.cancelled(), "render should be reported cancelled");
+      assertFalse(partial.isFinished(), "render should not finish");
+      assertEquals(3, partial.renderedTiles().size(), "the tile in progress should be completed");
+      assertEquals(48, counter[0], "no tile should start after the cancellation");
+
+      // =============== Boundary Values Tests ==================
+      // BV01: budget with no time at all - nothing is rendered
+      RenderProgress none = camera.renderWithin(RenderBudget.of(java.time.Duration.ZERO), 1, new FrameBuffer(12, 8));
+      assertEquals(0, none.totalSamples(), "nothing should be rendered");
+      assertEquals(0, none.minSamples(), "no tile should have samples");
+   }
+
+   /**
+    * Test method for {@link renderer.Camera#renderAdaptive(int, int, double, long, FrameBuffer)}.
+    */
+   @Test
+   void testRenderAdaptive() {
+      // red at x > 3 on the view plane - vRight is -X, so the edge crosses the middle of column 1
+      RayTracerBase tracer = new RayTracerBase(new Geometries()) {
+         @Override
+         public Color traceRay(Ray ray) {
+            Vector v = ray.getDir();
+            return v.getX() * 10 / -v.getZ() > 3 ? new Color(255, 0, 0) : new Color(0, 0, 255);
+         }
+      };
+      Camera camera = cameraBuilder.setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0)).setVpSize(8, 8)
+         .setResolution(12, 8).setRayTracer(tracer).setTileSize(4).setMultithreading(2).build();
+
+      // ============ Equivalence Partitions Tests ==============
+      // EP01: only the edge pixels get more than the minimal samples
+      FrameBuffer buffer = new FrameBuffer(12, 8);
+      long        total  = camera.renderAdaptive(4, 32, 1, 100_000, buffer);
+      assertEquals(4, buffer.getWeight(6, 3), "flat pixel should stop at the minimum");
+      assertEquals(32, buffer.getWeight(1, 3), "edge pixel should get the maximum");
+      assertEquals(4L * 12 * 8 + 28 * 8, total, "wrong total samples");
+      double red = buffer.get(1, 3).getRed();
+      assertTrue(red > 50 && red < 205, "edge pixel should be a mix");
+
+      // EP02: the budget limits the refining samples
+      FrameBuffer limited = new FrameBuffer(12, 8);
+      assertEquals(4L * 12 * 8 + 20, camera.renderAdaptive(4, 32, 1, 4L * 12 * 8 + 20, limited),
+                   "budget should be used up exactly");
+
+      // =============== Boundary Values Tests ==================
+      // BV01: budget below the minimal samples
+      assertThrows(IllegalArgumentException.class, () -> camera.renderAdaptive(4, 32, 1, 100, new FrameBuffer(12, 8)),
+                   "budget below the minimum should fail");
+      // BV02: a single minimal sample gives no variance
+      assertThrows(IllegalArgumentException.class, () -> camera.renderAdaptive(1, 32, 1, 100_000, new FrameBuffer(12, 8)),
+                   "one minimal sample should fail");
+   }
 }
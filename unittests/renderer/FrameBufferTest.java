@@ -0,0 +1,79 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing FrameBuffer class
+ * @author Ido
+ */
+class FrameBufferTest {
+
+    /**
+     * Test method for {@link renderer.FrameBuffer#add(int, int, Color)}.
+     */
+    @Test
+    void testAccumulation() {
+        FrameBuffer buffer = new FrameBuffer(5, 3);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the pixel color is the mean of its samples, HDR values are kept
+        buffer.add(2, 1, new Color(100, 600, 0));
+        buffer.add(2, 1, new Color(300, 200, 50));
+        assertEquals(new Color(200, 400, 25), buffer.get(2, 1), "wrong mean color");
+        assertEquals(2, buffer.getWeight(2, 1), "wrong samples count");
+        // TC02: a tile adds one sample to each of its pixels
+        buffer.tileDone(new Tile(0, 1, 3, 2), new Color[] {
+                new Color(1, 1, 1), new Color(2, 2, 2), new Color(200, 200, 200),
+                new Color(3, 3, 3), new Color(4, 4, 4), new Color(5, 5, 5) });
+        assertEquals(3, buffer.getWeight(2, 1), "tile sample should be accumulated");
+        assertEquals(1000 / 3.0, buffer.get(2, 1).getGreen(), 1e-4, "wrong mean after the tile sample");
+        assertEquals(new Color(4, 4, 4), buffer.get(1, 2), "wrong tile pixel");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: pixel without samples is black
+        assertEquals(Color.BLACK, buffer.get(4, 0), "empty pixel should be black");
+        // TC11: pixel out of the image
+        assertThrows(IllegalArgumentException.class, () -> buffer.get(5, 0), "pixel out of the image");
+    }
+
+    /**
+     * Test method for {@link renderer.FrameBuffer#FrameBuffer(int, int, Path)} and
+     * {@link renderer.FrameBuffer#toneMap(FrameBuffer.ToneMapper, StreamingImageWriter)}.
+     */
+    @Test
+    void testMappedAndToneMap() throws IOException {
+        Path file  = Files.createTempFile("frame", ".hdr");
+        Path image = Files.createTempFile("frame", ".ppm");
+        try {
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: samples in a mapped buffer survive reopening the file
+            try (FrameBuffer buffer = new FrameBuffer(2, 2, file)) {
+                buffer.add(1, 1, new Color(510, 0, 100));
+            }
+            try (FrameBuffer buffer = new FrameBuffer(2, 2, file)) {
+                buffer.add(1, 1, new Color(510, 0, 100));
+                assertEquals(2, buffer.getWeight(1, 1), "samples should be kept in the file");
+
+                // TC02: tone mapping clamps (or compresses) the HDR values
+                try (var writer = new StreamingImageWriter(image, 2, 2)) {
+                    buffer.toneMap(FrameBuffer.ToneMapper.clamp(), writer);
+                }
+                byte[] bytes = Files.readAllBytes(image);
+                assertEquals((byte) 255, bytes[bytes.length - 3], "red should be clamped");
+                assertEquals((byte) 100, bytes[bytes.length - 1], "blue should be kept");
+                assertEquals(Color.toRGB(127.5, 0, 255 * (100 / 255.0) / (1 + 100 / 255.0)),
+                        FrameBuffer.ToneMapper.reinhard(1).map(255, 0, 100), "wrong Reinhard mapping");
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(image);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package renderer;
+
+import geometries.*;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing GBuffer class
+ * @author Ido
+ */
+class GBufferTest {
+    /** Camera looking down the negative Z axis at the scenes */
+    private final Camera.Builder builder = Camera.getBuilder().setLocation(Point.ZERO)
+            .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0)).setVpDistance(10).setVpSize(12, 8)
+            .setResolution(24, 16);
+
+    /**
+     * Asserts a frame buffer holds an image.
+     * @param expected the image
+     * @param actual   the frame buffer
+     */
+    private static void assertImage(Color[][] expected, FrameBuffer actual) {
+        for (int i = 0; i < expected.length; ++i)
+            for (int j = 0; j < expected[i].length; ++j) {
+                assertEquals(expected[i][j].getRed(), actual.get(j, i).getRed(), 1e-2, "wrong red at " + j + "," + i);
+                assertEquals(expected[i][j].getGreen(), actual.get(j, i).getGreen(), 1e-2, "wrong green");
+                assertEquals(expected[i][j].getBlue(), actual.get(j, i).getBlue(), 1e-2, "wrong blue");
+            }
+    }
+
+    /**
+     * Test method for {@link renderer.GBuffer#capture(Camera, SimpleRayTracer)}.
+     */
+    @Test
+    void testCapture() {
+        Scene scene = new Scene("capture").setGeometries(new Geometries(
+                new Plane(new Point(0, 0, -20), new Vector(0, 0, 1)), new Sphere(new Point(0, 0, -10), 2)));
+        GBuffer buffer = GBuffer.capture(builder.setRayTracer(new SimpleRayTracer(scene)).build(),
+                new SimpleRayTracer(scene));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: pixel on the sphere - distance, geometry and normal
+        assertEquals(2, buffer.getGeometryCount(), "wrong number of geometries");
+        int sphere = buffer.getGeometryId(12, 8);
+        assertInstanceOf(Sphere.class, buffer.getGeometry(sphere), "wrong geometry");
+        assertTrue(buffer.getDistance(12, 8) > 8 && buffer.getDistance(12, 8) < 8.1, "wrong distance");
+        assertTrue(buffer.getNormal(12, 8).dotProduct(new Vector(0, 0, 1)) > 0.98, "wrong normal");
+
+        // TC02: pixel on the plane
+        assertInstanceOf(Plane.class, buffer.getGeometry(buffer.getGeometryId(0, 0)), "wrong geometry");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: pixel out of the image
+        assertThrows(IllegalArgumentException.class, () -> buffer.getDistance(24, 0), "pixel out of the image");
+    }
+
+    /**
+     * Test method for {@link renderer.GBuffer#shade(SimpleRayTracer, FrameBuffer)}.
+     */
+    @Test
+    void testShade() {
+        int[]      queries    = new int[1];
+        Geometries geometries = new Geometries(
+                new Plane(new Point(0, 0, -20), new Vector(0, 0, 1)).setMaterial(new Material().setKD(0.5).setKR(0.3)),
+                new Sphere(new Point(-2, 0, -12), 2).setEmission(new Color(0, 0, 50))
+                        .setMaterial(new Material().setKD(0.4).setKS(0.4).setShininess(20).setKT(0.5))) {
+            @Override
+            public List<GeoPoint> findGeoIntersections(Ray ray) {
+                ++queries[0];
+                return super.findGeoIntersections(ray);
+            }
+        };
+        Scene first = new Scene("first").setBackground(new Color(0, 20, 40)).setGeometries(geometries)
+                .setLights(List.of(new PointLight(new Color(300, 300, 300), new Point(0, 8, 0)).setKl(0.05)));
+        SimpleRayTracer tracer = new SimpleRayTracer(first);
+        Camera          camera = builder.setRayTracer(tracer).build();
+        GBuffer         buffer = GBuffer.capture(camera, tracer);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the same image as tracing the primary rays
+        FrameBuffer image = new FrameBuffer(24, 16);
+        buffer.shade(tracer, image);
+        assertImage(camera.renderImage(), image);
+
+        // TC02: other lights and background - shaded from the buffer as the scene renders
+        Scene relit = new Scene("relit").setBackground(new Color(40, 0, 0)).setGeometries(geometries)
+                .setAmbientLight(new Color(5, 5, 5))
+                .setLights(List.of(new PointLight(new Color(100, 200, 100), new Point(5, -5, -5))));
+        SimpleRayTracer other = new SimpleRayTracer(relit);
+        image = new FrameBuffer(24, 16);
+        buffer.shade(other, image);
+        assertImage(builder.setRayTracer(other).build().renderImage(), image);
+
+        // =============== Boundary Values Tests ==================
+        // TC10: without lights and secondary rays nothing is traced through the geometries
+        SimpleRayTracer flat = new SimpleRayTracer(new Scene("flat").setGeometries(geometries));
+        geometries.getGeometries().forEach(g -> ((Geometry) g).setMaterial(new Material()));
+        queries[0] = 0;
+        buffer.shade(flat, new FrameBuffer(24, 16));
+        assertEquals(0, queries[0], "no ray should be traced through the geometries");
+    }
+
+    /**
+     * Test method for {@link renderer.GBuffer#shade(SimpleRayTracer, FrameBuffer)} with compact containers.
+     */
+    @Test
+    void testShadeCompact() {
+        CompactSpheres   spheres   = new CompactSpheres(4).add(new Point(-2, 0, -12), 2).add(new Point(3, 1, -14), 1.5);
+        CompactTriangles triangles = new CompactTriangles(1)
+                .add(new Point(-6, -4, -18), new Point(6, -4, -18), new Point(0, 4, -18));
+        Scene scene = new Scene("compact").setGeometries(new Geometries(spheres, triangles))
+                .setLights(List.of(new PointLight(new Color(300, 300, 300), new Point(0, 8, 0)).setKl(0.05)));
+        SimpleRayTracer tracer = new SimpleRayTracer(scene);
+        Camera          camera = builder.setRayTracer(tracer).build();
+        GBuffer         buffer = GBuffer.capture(camera, tracer);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the hits of an element share its id - one id per element, not per pixel
+        assertEquals(3, buffer.getGeometryCount(), "one id per compact element hit");
+
+        // TC02: the containers' new material and emission are used in shading
+        spheres.setMaterial(new Material().setKD(0.6).setKS(0.3).setShininess(10)).setEmission(new Color(0, 30, 0));
+        triangles.setMaterial(new Material().setKD(0.2).setKR(0.5));
+        FrameBuffer image = new FrameBuffer(24, 16);
+        buffer.shade(tracer, image);
+        assertImage(camera.renderImage(), image);
+    }
+}
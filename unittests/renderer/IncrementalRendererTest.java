@@ -0,0 +1,98 @@
+package renderer;
+
+import geometries.*;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import scene.Scene;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing IncrementalRenderer class
+ * @author Ido
+ */
+class IncrementalRendererTest {
+    /** Camera looking down at the floor of the scenes */
+    private final Camera camera = Camera.getBuilder().setLocation(new Point(0, 0, 30))
+            .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0)).setVpDistance(10).setVpSize(12, 8)
+            .setResolution(48, 32).build();
+
+    /**
+     * A scene of the floor and spheres under a point light.
+     * @param  spheres the spheres
+     * @return         the scene
+     */
+    private static Scene scene(Intersectable... spheres) {
+        Geometries geometries = new Geometries(new Plane(Point.ZERO, new Vector(0, 0, 1))
+                .setMaterial(new Material().setKD(0.6)));
+        geometries.add(spheres);
+        return new Scene("edits").setGeometries(geometries).setAmbientLight(new Color(20, 20, 20))
+                .setLights(List.of(new PointLight(new Color(300, 300, 300), new Point(0, 0, 20)).setKl(0.02)));
+    }
+
+    /**
+     * A sphere on the floor.
+     * @param  x center x
+     * @param  y center y
+     * @return   the sphere
+     */
+    private static Sphere sphere(double x, double y) {
+        return (Sphere) new Sphere(new Point(x, y, 1), 1).setEmission(new Color(0, 0, 60))
+                .setMaterial(new Material().setKD(0.4));
+    }
+
+    /**
+     * Asserts the renderer image is the image of a scene rendered from scratch.
+     * @param renderer the renderer
+     * @param scene    the scene
+     */
+    private void assertScene(IncrementalRenderer renderer, Scene scene) {
+        SimpleRayTracer tracer = new SimpleRayTracer(scene);
+        for (int i = 0; i < 32; ++i)
+            for (int j = 0; j < 48; ++j) {
+                Color expected = tracer.traceRay(camera.constructRay(48, 32, j, i));
+                Color actual   = renderer.getImage().get(j, i);
+                assertEquals(expected.getRed(), actual.getRed(), 1e-3, "wrong pixel " + j + "," + i);
+                assertEquals(expected.getBlue(), actual.getBlue(), 1e-3, "wrong pixel " + j + "," + i);
+            }
+    }
+
+    /**
+     * Test method for {@link renderer.IncrementalRenderer#update()}.
+     */
+    @Test
+    void testUpdate() {
+        Sphere              a        = sphere(-8, 5), b = sphere(8, -5), c = sphere(0, 0);
+        IncrementalRenderer renderer = new IncrementalRenderer(camera, scene(a, b, c), 8);
+        assertScene(renderer, scene(a, b, c));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a moved sphere - only the tiles around its old and new places are traced
+        Sphere moved = sphere(-6, 5);
+        renderer.replace(a, moved);
+        List<Tile> dirty = renderer.update();
+        assertTrue(dirty.size() > 0 && dirty.size() < 24, "only part of the 24 tiles should be traced");
+        assertScene(renderer, scene(moved, b, c));
+
+        // TC02: a removed sphere
+        renderer.replace(b, null);
+        assertTrue(renderer.update().size() < 24, "only part of the tiles should be traced");
+        assertScene(renderer, scene(moved, c));
+
+        // TC03: no edits - nothing is traced
+        assertTrue(renderer.update().isEmpty(), "nothing should be traced without edits");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: an unbounded geometry - everything is traced
+        Plane wall = new Plane(new Point(0, 0, 2), new Vector(0, 0, 1));
+        renderer.replace(c, wall);
+        assertEquals(24, renderer.update().size(), "an unbounded geometry should make all the tiles dirty");
+        assertScene(renderer, scene(moved, wall));
+        // TC11: a geometry that is not in the scene
+        assertThrows(IllegalArgumentException.class, () -> renderer.replace(c, null), "unknown geometry");
+    }
+}
@@ -0,0 +1,51 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing RaySorter class
+ * @author Ido
+ */
+class RaySorterTest {
+    /**
+     * Test method for {@link renderer.RaySorter#sort(Ray[], int)}.
+     */
+    @Test
+    void testSort() {
+        Random random = new Random(5);
+        Ray[]  rays   = new Ray[1000];
+        for (int k = 0; k < rays.length; ++k)
+            rays[k] = new Ray(new Point(random.nextDouble(-10, 10), random.nextDouble(-10, 10), random.nextDouble(-10, 10)),
+                    new Vector(random.nextDouble(-1, 1), random.nextDouble(-1, 1), random.nextDouble(0.1, 1)));
+        RaySorter sorter = new RaySorter();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a permutation, grouped by the direction octant
+        int[]     order = sorter.sort(rays, rays.length);
+        boolean[] seen  = new boolean[rays.length];
+        int       last  = -1;
+        for (int s = 0; s < rays.length; ++s) {
+            assertFalse(seen[order[s]], "every ray should appear once");
+            seen[order[s]] = true;
+            Vector d      = rays[order[s]].getDir();
+            int    octant = (d.getX() < 0 ? 4 : 0) | (d.getY() < 0 ? 2 : 0);
+            assertTrue(octant >= last, "rays should be grouped by their octant");
+            last = octant;
+        }
+
+        // TC02: the key orders by octant, then by the origin cell
+        assertTrue(RaySorter.key(31, 31, 31, 1, 1, 1) < RaySorter.key(0, 0, 0, 1, 1, -1), "octant should come first");
+        assertTrue(RaySorter.key(0, 0, 1, 1, 1, 1) < RaySorter.key(0, 1, 0, 1, 1, 1), "wrong Morton order");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: all the rays from the same origin - a single cell
+        Ray[] same = { new Ray(Point.ZERO, new Vector(0, 0, -1)), new Ray(Point.ZERO, new Vector(0, 0, 1)) };
+        assertArrayEquals(new int[] { 1, 0 }, java.util.Arrays.copyOf(sorter.sort(same, 2), 2),
+                "rays should be ordered by direction");
+    }
+}
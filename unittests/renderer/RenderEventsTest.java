@@ -0,0 +1,63 @@
+package renderer;
+
+import geometries.Geometries;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the Flight Recorder events of the renderer
+ * @author Ido
+ */
+class RenderEventsTest {
+
+    /**
+     * Test the events emitted by {@link renderer.Camera#renderImage()}.
+     */
+    @Test
+    void testRenderEvents() throws IOException {
+        Camera camera = Camera.getBuilder()
+                .setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVpSize(3, 3).setVpDistance(1)
+                .setResolution(10, 6).setTileSize(4)
+                .setRayTracer(new RayTracerBase(new Geometries()) {
+                    @Override
+                    public Color traceRay(Ray ray) { return Color.BLACK; }
+                })
+                .build();
+
+        Path file = Files.createTempFile("render", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("renderer.TileRender");
+            recording.enable("renderer.FrameRender");
+            recording.start();
+            camera.renderImage();
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: one event per tile, their pixels cover the image
+            List<RecordedEvent> tiles = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("renderer.TileRender")).toList();
+            assertEquals(6, tiles.size(), "one event per tile expected");
+            assertEquals(60, tiles.stream().mapToInt(e -> e.getInt("pixels")).sum(), "tiles should cover the image");
+            // TC02: one frame event with the image size
+            RecordedEvent frame = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("renderer.FrameRender")).findFirst().orElseThrow();
+            assertEquals(60, frame.getLong("pixels"), "wrong frame pixels count");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
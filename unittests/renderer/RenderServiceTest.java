@@ -0,0 +1,98 @@
+package renderer;
+
+import geometries.Geometries;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing RenderService class
+ * @author Ido
+ */
+class RenderServiceTest {
+    /** A tracer that takes a little time per ray */
+    private final RayTracerBase tracer = new RayTracerBase(new Geometries()) {
+        @Override
+        public Color traceRay(Ray ray) {
+            long end = System.nanoTime() + 20_000;
+            while (System.nanoTime() < end) Thread.onSpinWait();
+            return new Color(10, 20, 30);
+        }
+    };
+
+    /**
+     * Camera of a given resolution for the tests.
+     * @param  n resolution (n×n)
+     * @return   the camera
+     */
+    private Camera camera(int n) {
+        return Camera.getBuilder().setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVpSize(1, 1).setVpDistance(1)
+                .setResolution(n, n).setTileSize(8).setRayTracer(tracer).build();
+    }
+
+    /**
+     * Test method for {@link renderer.RenderService#submit(String, Camera, double)}.
+     */
+    @Test
+    void testFairShare() throws Exception {
+        try (RenderService service = new RenderService(2)) {
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: a small job submitted after a huge one finishes long before it
+            var huge  = service.submit("huge", camera(256), 1);
+            var small = service.submit("small", camera(16), 1);
+            FrameBuffer image = small.getResult().get(30, TimeUnit.SECONDS);
+            assertFalse(huge.isDone(), "the small job should not wait for the huge one");
+            assertEquals(new Color(10, 20, 30), image.get(15, 15), "small job image should be complete");
+
+            RenderService.Metrics metrics = service.metrics();
+            assertTrue(metrics.queuedTiles() > 0, "the huge job should still have queued tiles");
+            assertEquals(1, metrics.completedJobs(), "one job should be completed");
+            assertEquals("huge", metrics.jobs().getFirst().name(), "huge job should be active");
+
+            // TC02: a cancelled job stops, the service drains
+            huge.cancel();
+            assertTrue(huge.getResult().isCancelled(), "job should be cancelled");
+            assertEquals(0, service.queuedTiles(), "tiles of a cancelled job should not be queued");
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.RenderService#metrics()} after all the jobs end.
+     */
+    @Test
+    void testCompletion() throws Exception {
+        try (RenderService service = new RenderService(3)) {
+            // =============== Boundary Values Tests ==================
+            // TC10: several jobs of different priorities all complete
+            var a = service.submit("a", camera(24), 1);
+            var b = service.submit("b", camera(24), 4);
+            a.getResult().get(30, TimeUnit.SECONDS);
+            b.getResult().get(30, TimeUnit.SECONDS);
+            assertEquals(9, a.metrics().tilesDone(), "all tiles should be done");
+            assertThrows(IllegalArgumentException.class, () -> service.submit("c", camera(8), 0),
+                    "priority must be positive");
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.RenderService#close()}.
+     */
+    @Test
+    void testClose() throws Exception {
+        RenderService service = new RenderService(2);
+        service.submit("a", camera(16), 1).getResult().get(30, TimeUnit.SECONDS);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: closed while interrupted - the interrupt flag is kept
+        Thread.currentThread().interrupt();
+        service.close();
+        assertTrue(Thread.interrupted(), "the interrupt flag should be kept");
+        assertThrows(IllegalStateException.class, () -> service.submit("b", camera(8), 1),
+                "closed service should not accept jobs");
+    }
+}
@@ -0,0 +1,73 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing RenderStats class
+ * @author Ido
+ */
+class RenderStatsTest {
+
+    /**
+     * Test method for {@link renderer.RenderStats#snapshot()}.
+     */
+    @Test
+    void testSnapshot() throws InterruptedException {
+        RenderStats stats = new RenderStats();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: stripes of several threads are merged
+        Thread[] threads = new Thread[4];
+        for (int k = 0; k < threads.length; ++k) {
+            threads[k] = new Thread(() -> {
+                RenderStats.Stripe stripe = stats.stripe();
+                for (int r = 0; r < 1000; ++r) stripe.rays++;
+                stripe.boxTests += 10;
+                stripe.tile(5);
+            });
+            threads[k].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        RenderStats.Snapshot snapshot = stats.snapshot();
+        assertEquals(4000, snapshot.rays(), "rays of all the threads should be summed");
+        assertEquals(40, snapshot.boxTests(), "box tests of all the threads should be summed");
+        assertEquals(4, snapshot.tiles(), "tiles of all the threads should be summed");
+        assertEquals(20, snapshot.tileNanos(), "tile times of all the threads should be summed");
+        assertEquals(5, snapshot.maxTileNanos(), "wrong longest tile time");
+
+        // TC02: occluder cache hit rate and the tests it saved
+        RenderStats.Stripe stripe = stats.stripe();
+        stripe.occluderLookups  = 10;
+        stripe.occluderHits     = 8;
+        stripe.shadowQueries    = 4;
+        stripe.shadowQueryTests = 84;
+        snapshot = stats.snapshot();
+        assertEquals(0.8, snapshot.occluderHitRate(), 1e-12, "wrong occluder hit rate");
+        assertEquals(8 * 20 - 2, snapshot.savedShadowTests(),
+                "every hit should save a query less one test, every miss should cost a test");
+        assertTrue(snapshot.summary(1).contains("occluder cache"), "occluder cache should be reported");
+
+        // TC03: the stripes of ended threads are folded - renders with new threads do not pile them up
+        for (int render = 0; render < 20; ++render) {
+            Thread thread = new Thread(() -> stats.stripe().rays++);
+            thread.start();
+            thread.join();
+        }
+        snapshot = stats.snapshot();
+        assertEquals(4020, snapshot.rays(), "rays of the ended threads should be kept");
+        assertEquals(1, stats.stripes(), "only the stripe of the live thread should be left");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: after reset all the counters are zero
+        stats.reset();
+        snapshot = stats.snapshot();
+        assertEquals(0, snapshot.rays(), "rays should be zero after reset");
+        assertEquals(0, snapshot.testsPerRay(), "tests per ray without rays should be zero");
+        assertTrue(snapshot.tests().isEmpty(), "no geometry should be reported after reset");
+        assertEquals(0, snapshot.occluderHitRate(), "hit rate without lookups should be zero");
+        assertEquals(0, snapshot.savedShadowTests(), "no tests are saved without queries");
+    }
+}
@@ -0,0 +1,151 @@
+package renderer;
+
+import geometries.*;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import lighting.AreaLight;
+import lighting.LightSource;
+import lighting.PointLight;
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing SimpleRayTracer class
+ * @author Ido
+ */
+class SimpleRayTracerTest {
+    /** Ray from the origin looking down the negative Z axis */
+    private static final Ray RAY = new Ray(Point.ZERO, new Vector(0, 0, -1));
+
+    /**
+     * Two parallel red mirrors around the origin, facing each other.
+     * @param  kR reflection factor of the mirrors
+     * @return    the scene
+     */
+    private static Scene mirrors(double kR) {
+        Material mirror = new Material().setKR(kR);
+        return new Scene("mirrors").setGeometries(new Geometries(
+                new Plane(new Point(0, 0, -1), new Vector(0, 0, 1)).setEmission(new Color(10, 0, 0)).setMaterial(mirror),
+                new Plane(new Point(0, 0, 1), new Vector(0, 0, 1)).setEmission(new Color(10, 0, 0)).setMaterial(mirror)));
+    }
+
+    /**
+     * Test method for {@link renderer.SimpleRayTracer#traceRay(Ray)}.
+     */
+    @Test
+    void testTraceRay() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: ray misses everything - background
+        Scene empty = new Scene("empty").setBackground(new Color(1, 2, 3));
+        assertEquals(new Color(1, 2, 3), new SimpleRayTracer(empty).traceRay(RAY), "wrong background");
+
+        // TC02: emission and ambient light of the closest geometry
+        Scene ambient = new Scene("ambient").setAmbientLight(new Color(100, 100, 100))
+                .setGeometries(new Geometries(
+                        new Sphere(new Point(0, 0, -10), 1).setEmission(new Color(0, 0, 50))
+                                .setMaterial(new Material().setKA(0.2)),
+                        new Sphere(new Point(0, 0, -20), 1).setEmission(new Color(50, 0, 0))));
+        assertEquals(new Color(20, 20, 70), new SimpleRayTracer(ambient).traceRay(RAY), "wrong local color");
+
+        // TC03: reflections between mirrors - the chain ends when the throughput is too low
+        // (weights 1, 1/4, ... 1/256; 1/1024 is below the threshold)
+        assertEquals(new Color(10 * (1 + 0.25 + 0.0625 + 0.015625 + 0.00390625), 0, 0),
+                new SimpleRayTracer(mirrors(0.25)).traceRay(RAY), "wrong reflections");
+
+        // TC04: transparent sphere - both surfaces and the background behind them
+        Scene glass = new Scene("glass").setBackground(new Color(0, 100, 0)).setGeometries(new Geometries(
+                new Sphere(new Point(0, 0, -10), 2).setEmission(new Color(0, 0, 20))
+                        .setMaterial(new Material().setKT(0.5))));
+        assertEquals(new Color(0, 25, 30), new SimpleRayTracer(glass).traceRay(RAY), "wrong transparency");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: perfect mirrors - the chain ends at the maximal level (10 hits)
+        assertEquals(new Color(100, 0, 0), new SimpleRayTracer(mirrors(1)).traceRay(RAY), "wrong level cut");
+        // TC11: no reflection when the throughput is below the threshold in all the components
+        Scene tinted = new Scene("tinted").setBackground(new Color(100, 100, 100)).setGeometries(new Geometries(
+                new Plane(new Point(0, 0, -1), new Vector(0, 0, 1))
+                        .setMaterial(new Material().setKA(0).setKR(new Double3(0.0005, 0, 0.0009)))));
+        assertEquals(Color.BLACK, new SimpleRayTracer(tinted).traceRay(RAY), "wrong throughput cut");
+    }
+
+    /**
+     * Test method for {@link renderer.SimpleRayTracer#traceRay(Ray)} with light sources.
+     */
+    @Test
+    void testTraceRayLights() {
+        Geometry floor = new Plane(new Point(0, 0, -1), new Vector(0, 0, 1))
+                .setMaterial(new Material().setKD(0.5).setKS(0.25).setShininess(10));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: diffuse and specular light of a point light above the hit
+        Scene lit = new Scene("lit").setGeometries(new Geometries(floor))
+                .setLights(List.of(new PointLight(new Color(100, 100, 100), new Point(0, 0, 1))));
+        assertEquals(new Color(75, 75, 75), new SimpleRayTracer(lit).traceRay(RAY), "wrong lighting");
+
+        // TC02: a geometry between the hit and the light blocks it
+        Scene shadow = new Scene("shadow").setGeometries(new Geometries(floor, new Sphere(new Point(0, 0.5, 0), 0.2)))
+                .setLights(List.of(new PointLight(new Color(100, 100, 100), new Point(0, 1, 1))));
+        assertEquals(Color.BLACK, new SimpleRayTracer(shadow).traceRay(new Ray(new Point(0, 0, 1), new Vector(0, 0, -1))),
+                "hit should be in shadow");
+
+        // TC03: the cached occluder shadows the next point, and a lit point after it stays lit
+        SimpleRayTracer cached = new SimpleRayTracer(shadow);
+        assertEquals(Color.BLACK, cached.traceRay(new Ray(new Point(0, 0, 1), new Vector(0, 0, -1))), "in shadow");
+        assertEquals(Color.BLACK, cached.traceRay(new Ray(new Point(0.01, 0, 1), new Vector(0, 0, -1))),
+                "cached occluder should shadow");
+        assertNotEquals(Color.BLACK, cached.traceRay(new Ray(new Point(3, 0, 1), new Vector(0, 0, -1))),
+                "point out of the shadow should be lit");
+
+        // TC04: many lights sampled from the hierarchy estimate the sum of all of them
+        List<LightSource> lights = new ArrayList<>();
+        for (int k = 0; k < 100; ++k)
+            lights.add(new PointLight(new Color(1, 1, 1), new Point(k % 10 - 4.5, k / 10 - 4.5, 4)));
+        Scene           many     = new Scene("many").setGeometries(new Geometries(floor)).setLights(lights);
+        SimpleRayTracer all      = new SimpleRayTracer(many).setLightSamples(100);
+        SimpleRayTracer sampled  = new SimpleRayTracer(many).setLightSamples(4);
+        double          exact    = all.traceRay(RAY).getRed();
+        double          estimate = 0;
+        for (int k = 0; k < 20000; ++k) estimate += sampled.traceRay(RAY).getRed();
+        assertEquals(exact, estimate / 20000, exact * 0.03, "biased light sampling");
+
+        // TC05: area light - fully lit, fully shadowed and penumbra points, with the shadow rays they cast
+        int[]      queries = new int[1];
+        Geometries counted = new Geometries(floor, new Sphere(new Point(0, 0, 1), 0.5)) {
+            @Override
+            public List<Point> findIntersections(Ray ray) {
+                ++queries[0];
+                return super.findIntersections(ray);
+            }
+        };
+        Scene area = new Scene("area").setGeometries(counted).setLights(List.of(
+                new AreaLight(new Color(100, 100, 100), new Point(0, 0, 3), new Vector(2, 0, 0), new Vector(0, 2, 0))));
+        Scene point = new Scene("point").setGeometries(new Geometries(floor))
+                .setLights(List.of(new PointLight(new Color(100, 100, 100), new Point(0, 0, 3))));
+        Ray             far     = new Ray(new Point(20, 0, 1), new Vector(0, 0, -1));
+        SimpleRayTracer soft    = new SimpleRayTracer(area);
+        assertEquals(new SimpleRayTracer(point).traceRay(far), soft.traceRay(far), "unblocked area light should be full");
+        assertEquals(5, queries[0], "a lit point should cast only the first shadow rays");
+        queries[0] = 0;
+        Color penumbra = soft.traceRay(new Ray(new Point(0, 0, -0.5), new Vector(0, 0, -1)));
+        assertEquals(5 + 64, queries[0], "a penumbra point should cast the grid of shadow rays");
+        assertTrue(penumbra.getRed() > 0 && penumbra.getRed() < new SimpleRayTracer(point)
+                .traceRay(new Ray(new Point(0, 0, -0.5), new Vector(0, 0, -1))).getRed(), "penumbra should be partly lit");
+        Scene umbra = new Scene("umbra").setGeometries(new Geometries(floor, new Sphere(new Point(0, 0, 1), 1.9)))
+                .setLights(area.getLights());
+        assertEquals(Color.BLACK, new SimpleRayTracer(umbra).traceRay(new Ray(new Point(0, 0, -0.95), new Vector(0, 0, -1))),
+                "point hidden from the whole light should be dark");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: light on the other side of the surface
+        Scene below = new Scene("below").setGeometries(new Geometries(floor))
+                .setLights(List.of(new PointLight(new Color(100, 100, 100), new Point(0, 0, -3))));
+        assertEquals(Color.BLACK, new SimpleRayTracer(below).traceRay(RAY), "light below should not light");
+        // TC11: zero light samples
+        assertThrows(IllegalArgumentException.class, () -> new SimpleRayTracer(lit).setLightSamples(0),
+                "zero samples should fail");
+    }
+}
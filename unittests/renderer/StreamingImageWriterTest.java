@@ -0,0 +1,110 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing StreamingImageWriter class
+ * @author Ido
+ */
+class StreamingImageWriterTest {
+    /** Image width for the tests */
+    private static final int WIDTH  = 10;
+    /** Image height for the tests */
+    private static final int HEIGHT = 7;
+
+    /**
+     * Color of a test pixel - a gradient, so every pixel is distinguishable.
+     * @param  i row
+     * @param  j column
+     * @return   the color
+     */
+    private static Color colorOf(int i, int j) { return new Color(j * 25, i * 36, (i + j) * 10); }
+
+    /**
+     * Writes the tiles of the test image in reverse order (within the window).
+     * @param writer the writer
+     */
+    private static void writeTilesReversed(StreamingImageWriter writer) {
+        List<Tile> tiles = Tile.split(WIDTH, HEIGHT, 4);
+        for (Tile tile : tiles.reversed()) {
+            Color[] pixels = new Color[tile.pixels()];
+            for (int r = 0, k = 0; r < tile.height(); ++r)
+                for (int c = 0; c < tile.width(); ++c) pixels[k++] = colorOf(tile.y() + r, tile.x() + c);
+            writer.tileDone(tile, pixels);
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.StreamingImageWriter#tileDone(Tile, Color[])} with PNG output.
+     */
+    @Test
+    void testPng() throws IOException {
+        Path file = Files.createTempFile("image", ".png");
+        try {
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: out of order tiles produce a valid PNG with the right pixels
+            try (var writer = new StreamingImageWriter(file, WIDTH, HEIGHT)) {
+                writeTilesReversed(writer);
+                assertEquals(HEIGHT, writer.rowsWritten(), "all rows should be flushed");
+            }
+            BufferedImage image = ImageIO.read(file.toFile());
+            assertEquals(WIDTH, image.getWidth(), "wrong image width");
+            assertEquals(HEIGHT, image.getHeight(), "wrong image height");
+            for (int i = 0; i < HEIGHT; ++i)
+                for (int j = 0; j < WIDTH; ++j)
+                    assertEquals(colorOf(i, j).getRGB(), image.getRGB(j, i) & 0xFFFFFF, "wrong pixel color");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.StreamingImageWriter#writeRow(int, int[])} with PPM output.
+     */
+    @Test
+    void testPpm() throws IOException {
+        Path file = Files.createTempFile("image", ".ppm");
+        try {
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: rows are written after the header in order
+            try (var writer = new StreamingImageWriter(file, 2, 2)) {
+                writer.writeRow(1, new int[] { 0x010203, 0x040506 });
+                assertEquals(0, writer.rowsWritten(), "row 1 must wait for row 0");
+                writer.writeRow(0, new int[] { 0x0A0B0C, 0x0D0E0F });
+                assertEquals(2, writer.rowsWritten(), "both rows should be flushed");
+            }
+            byte[] bytes  = Files.readAllBytes(file);
+            byte[] header = "P6\n2 2\n255\n".getBytes();
+            assertEquals(header.length + 12, bytes.length, "wrong file size");
+            assertEquals(0x0A, bytes[header.length], "wrong first pixel");
+            assertEquals(0x06, bytes[bytes.length - 1], "wrong last pixel");
+
+            // =============== Boundary Values Tests ==================
+            // TC10: closing an incomplete image
+            var writer = new StreamingImageWriter(file, 2, 2);
+            writer.writeRow(0, new int[] { 0, 0 });
+            assertThrows(IllegalStateException.class, writer::close, "incomplete image must not close silently");
+            // TC11: tile higher than the rows window
+            try (var small = new StreamingImageWriter(file, 4, 4, StreamingImageWriter.Format.PPM, 2)) {
+                assertThrows(IllegalArgumentException.class,
+                        () -> small.tileDone(new Tile(0, 0, 4, 4), new Color[16]), "tile higher than the window");
+                small.writeRow(0, new int[4]);
+                small.writeRow(1, new int[4]);
+                small.writeRow(2, new int[4]);
+                small.writeRow(3, new int[4]);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
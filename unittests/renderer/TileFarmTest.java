@@ -0,0 +1,228 @@
+package renderer;
+
+import geometries.Geometries;
+import geometries.Plane;
+import geometries.Sphere;
+import lighting.DirectionalLight;
+import lighting.PointLight;
+import lighting.SpotLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing TileFarm class
+ * @author Ido
+ */
+class TileFarmTest {
+    /** Delta for the float accumulation of the colors */
+    private static final double DELTA = 1e-3;
+
+    /** Tracer coloring a ray by its direction (the workers load it from the test class path) */
+    static class DirectionTracer extends RayTracerBase {
+        /** Version of the serialized form */
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        /** Creates the tracer. */
+        DirectionTracer() { super(new Geometries()); }
+
+        @Override
+        public Color traceRay(Ray ray) {
+            Vector dir = ray.getDir();
+            return new Color(100 * (1 + dir.dotProduct(new Vector(1, 0, 0))),
+                    100 * (1 + dir.dotProduct(new Vector(0, 1, 0))), 50);
+        }
+    }
+
+    /** Tracer that kills the first worker process rendering with it - marked by a file */
+    static class CrashingTracer extends DirectionTracer {
+        /** Version of the serialized form */
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        /** The marker file, created by the crashing worker */
+        private final String   marker;
+        /** Whether this process already checked the marker */
+        private transient boolean checked;
+
+        /**
+         * Creates the tracer.
+         * @param marker the marker file
+         */
+        CrashingTracer(Path marker) { this.marker = marker.toString(); }
+
+        @Override
+        public Color traceRay(Ray ray) {
+            if (!checked) {
+                checked = true;
+                try {
+                    Files.createFile(Path.of(marker));
+                    Runtime.getRuntime().halt(1);
+                } catch (FileAlreadyExistsException e) {
+                    // another worker already crashed
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return super.traceRay(ray);
+        }
+    }
+
+    /** Tracer that always fails */
+    static class FailingTracer extends DirectionTracer {
+        /** Version of the serialized form */
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Color traceRay(Ray ray) { throw new IllegalStateException("broken tracer"); }
+    }
+
+    /**
+     * Camera for the tests.
+     * @param  tracer the ray tracer
+     * @return        the camera
+     */
+    private static Camera camera(RayTracerBase tracer) {
+        return Camera.getBuilder().setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVpSize(2, 2).setVpDistance(1)
+                .setResolution(24, 20).setTileSize(8).setRayTracer(tracer).build();
+    }
+
+    /**
+     * Asserts a farm image equals the local rendering of the camera.
+     * @param camera  the camera
+     * @param image   the farm image
+     * @param samples samples per pixel of the farm image
+     */
+    private static void assertSameImage(Camera camera, FrameBuffer image, int samples) {
+        FrameBuffer local = camera.createFrameBuffer();
+        for (Tile tile : camera.tiles())
+            for (int s = 0; s < samples; ++s) camera.renderSample(tile, s, local);
+        for (int y = 0; y < image.getHeight(); ++y)
+            for (int x = 0; x < image.getWidth(); ++x) {
+                assertEquals(samples, image.getWeight(x, y), DELTA, "every pixel should have all its samples");
+                assertEquals(local.get(x, y).getRed(), image.get(x, y).getRed(), DELTA, "wrong red");
+                assertEquals(local.get(x, y).getGreen(), image.get(x, y).getGreen(), DELTA, "wrong green");
+            }
+    }
+
+    /**
+     * Test method for {@link renderer.TileFarm#render(Camera, int)}.
+     */
+    @Test
+    void testRender() throws IOException {
+        Camera camera = camera(new DirectionTracer());
+        try (TileFarm farm = TileFarm.local(2)) {
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: the farm image equals the local image
+            assertSameImage(camera, farm.render(camera, 1), 1);
+
+            // TC02: several samples per pixel, rendered by the same workers again
+            assertSameImage(camera, farm.render(camera, 3), 3);
+            assertEquals(2, farm.liveWorkers(), "all the workers should be alive");
+
+            // TC03: a ray tracer failure fails the render, the workers survive
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> farm.render(camera(new FailingTracer()), 1), "tracer failure should fail the render");
+            assertTrue(e.getMessage().contains("broken tracer"), "the worker message should be reported");
+            assertEquals(2, farm.liveWorkers(), "tracer failure should not kill the workers");
+            assertSameImage(camera, farm.render(camera, 1), 1);
+
+            // TC04: a lit scene - the lights and materials reach the workers
+            Scene lit = new Scene("lit").setAmbientLight(new Color(10, 10, 10)).setGeometries(new Geometries(
+                            new Plane(new Point(0, 0, -6), new Vector(0, 0, 1)).setMaterial(new Material().setKD(0.5)),
+                            new Sphere(new Point(0, 0, -4), 0.8).setEmission(new Color(20, 0, 0))
+                                    .setMaterial(new Material().setKD(0.4).setKS(0.5).setShininess(30))))
+                    .setLights(List.of(new PointLight(new Color(300, 300, 300), new Point(2, 2, 0)),
+                            new SpotLight(new Color(200, 100, 0), new Point(-2, 2, -1), new Vector(1, -1, -2)),
+                            new DirectionalLight(new Color(50, 50, 80), new Vector(0, -1, -1))));
+            Camera litCamera = camera(new SimpleRayTracer(lit));
+            assertSameImage(litCamera, farm.render(litCamera, 1), 1);
+
+            // =============== Boundary Values Tests ==================
+            // TC10: no samples
+            assertThrows(IllegalArgumentException.class, () -> farm.render(camera, 0), "samples must be positive");
+        }
+        // TC11: no workers
+        assertThrows(IllegalArgumentException.class, () -> TileFarm.local(0), "workers count must be positive");
+    }
+
+    /**
+     * Test method for {@link renderer.TileFarm#render(Camera, int)} with failing workers.
+     */
+    @Test
+    void testWorkerFailure() throws IOException {
+        Path marker = Files.createTempFile("tile-farm", ".crash");
+        Files.delete(marker);
+        try (TileFarm farm = TileFarm.local(2)) {
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: the tiles of a crashed worker are rendered by the other worker
+            Camera camera = camera(new CrashingTracer(marker));
+            assertSameImage(camera, farm.render(camera, 1), 1);
+            assertEquals(1, farm.liveWorkers(), "the crashed worker should be dropped");
+
+            // TC02: when all the workers die the render fails
+            Files.delete(marker);
+            assertThrows(IllegalStateException.class, () -> farm.render(camera, 1),
+                    "render without live workers should fail");
+            assertEquals(0, farm.liveWorkers(), "no worker should be left");
+        } finally {
+            Files.deleteIfExists(marker);
+        }
+    }
+
+    /**
+     * Serializes an object as the farm ships a scene.
+     * @param  object the object
+     * @return        the serialized object
+     * @throws IOException if the object cannot be serialized
+     */
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Test method for {@link renderer.TileFarmWorker#deserialize(byte[])}.
+     */
+    @Test
+    void testDeserialize() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a camera of the renderer classes is restored
+        Camera camera = camera(new DirectionTracer());
+        assertEquals(camera.constructRay(24, 20, 3, 4),
+                TileFarmWorker.deserialize(serialize(camera)).constructRay(24, 20, 3, 4), "wrong restored camera");
+
+        // TC02: a class out of the allowed packages is rejected
+        byte[] level = serialize(java.util.logging.Level.INFO);
+        assertThrows(InvalidClassException.class, () -> TileFarmWorker.deserialize(level),
+                "a class out of the scene packages should be rejected");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: an object graph deeper than the limit is rejected
+        Geometries deep = new Geometries();
+        for (int k = 0; k < 200; ++k) deep = new Geometries(deep);
+        byte[] nested = serialize(deep);
+        assertThrows(InvalidClassException.class, () -> TileFarmWorker.deserialize(nested),
+                "a too deep object graph should be rejected");
+    }
+}
@@ -0,0 +1,82 @@
+package renderer;
+
+import geometries.*;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing TileFrustum class
+ * @author Ido
+ */
+class TileFrustumTest {
+    /** Camera looking down the negative Z axis; its first 8x8 tile sees x in [-6,-2], y in [0,4] at z = -10 */
+    private final Camera camera = Camera.getBuilder().setLocation(Point.ZERO)
+            .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0)).setVpDistance(10).setVpSize(12, 8)
+            .setResolution(24, 16).setRayTracer(new SimpleRayTracer(new Scene("frustum"))).build();
+    /** The frustum of the first tile */
+    private final TileFrustum    frustum = camera.frustum(new Tile(0, 0, 8, 8));
+
+    /**
+     * Test method for {@link renderer.TileFrustum#mayContain(BoundingBox)}.
+     */
+    @Test
+    void testMayContain() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: box in the frustum
+        assertTrue(frustum.mayContain(new BoundingBox(-4.5, 1.5, -10.5, -3.5, 2.5, -9.5)), "box inside is kept");
+        // TC02: box beside the frustum
+        assertFalse(frustum.mayContain(new BoundingBox(3.5, -2.5, -10.5, 4.5, -1.5, -9.5)), "box beside is culled");
+        // TC03: box behind the camera, on the mirrored frustum
+        assertFalse(frustum.mayContain(new BoundingBox(-4.5, 1.5, 9.5, -3.5, 2.5, 10.5)), "box behind is culled");
+        // TC04: box crossing a side plane
+        assertTrue(frustum.mayContain(new BoundingBox(-7, 1, -11, -5, 2, -9)), "box crossing a side is kept");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: box touching the corner ray from outside
+        assertTrue(frustum.mayContain(new BoundingBox(-2, -1, -10, -1, 0, -9)), "box on the corner ray is kept");
+        // TC11: box containing the apex
+        assertTrue(frustum.mayContain(new BoundingBox(-1, -1, -1, 1, 1, 1)), "box around the apex is kept");
+    }
+
+    /**
+     * Test method for {@link renderer.TileFrustum#cull(Geometries)}.
+     */
+    @Test
+    void testCull() {
+        Sphere in    = new Sphere(new Point(-4, 2, -10), 0.5);
+        Sphere out   = new Sphere(new Point(4, -2, -10), 0.5);
+        Plane  floor = new Plane(new Point(0, -5, 0), new Vector(0, 1, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: geometries out of the frustum are culled, unbounded ones are kept
+        assertEquals(List.of(in, floor), frustum.cull(new Geometries(in, out, floor)).getGeometries(),
+                     "wrong surviving geometries");
+        // TC02: the subtrees of a hierarchy out of the frustum are skipped
+        Geometries spheres = new Geometries();
+        for (int k = 0; k < 8; ++k) spheres.add(new Sphere(new Point(k < 4 ? -4 : 4, k < 4 ? 2 : -2, -10 - k), 0.5));
+        BoundingVolumeHierarchy bvh    = BoundingVolumeHierarchy.build(spheres);
+        Geometries              culled = frustum.cull(new Geometries(bvh));
+        Ray                     inside = new Ray(Point.ZERO, new Vector(-4, 2, -10));
+        Ray                     beside = new Ray(Point.ZERO, new Vector(4, -2, -14));
+        assertNotSame(bvh, culled.getGeometries().getFirst(), "the hierarchy should be culled by nodes");
+        assertEquals(bvh.findIntersections(inside), culled.findIntersections(inside), "wrong hits in the frustum");
+        assertNotNull(bvh.findIntersections(beside), "the ray beside should hit the hierarchy");
+        assertNull(culled.findIntersections(beside), "the nodes beside should be skipped");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: nothing is culled - the same geometries are returned
+        Geometries all = new Geometries(in, floor);
+        assertSame(all, frustum.cull(all), "nothing culled should return the same geometries");
+        // TC11: everything is culled
+        assertTrue(frustum.cull(new Geometries(out)).getGeometries().isEmpty(), "all should be culled");
+        // TC12: a hierarchy all in the frustum is kept as is
+        BoundingVolumeHierarchy near = BoundingVolumeHierarchy.build(new Geometries(in));
+        assertSame(near, frustum.cull(new Geometries(near)).getGeometries().getFirst(),
+                   "a hierarchy all in should not be culled");
+    }
+}
@@ -0,0 +1,32 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing Tile class
+ * @author Ido
+ */
+class TileTest {
+
+    /**
+     * Test method for {@link renderer.Tile#split(int, int, int)}.
+     */
+    @Test
+    void testSplit() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: tiles cover the whole image exactly once, in row-major order
+        var tiles = Tile.split(10, 7, 4);
+        assertEquals(6, tiles.size(), "wrong number of tiles");
+        assertEquals(new Tile(4, 0, 4, 4), tiles.get(1), "tiles should be in row-major order");
+        assertEquals(new Tile(8, 4, 2, 3), tiles.getLast(), "last tile should be cut to the image borders");
+        assertEquals(70, tiles.stream().mapToInt(Tile::pixels).sum(), "tiles should cover the image");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: tile larger than the image
+        assertEquals(java.util.List.of(new Tile(0, 0, 3, 2)), Tile.split(3, 2, 16), "single tile expected");
+        // TC11: illegal tile size
+        assertThrows(IllegalArgumentException.class, () -> Tile.split(3, 2, 0), "zero tile size");
+    }
+}
@@ -0,0 +1,41 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing VarianceBuffer class
+ * @author Ido
+ */
+class VarianceBufferTest {
+    /**
+     * Test method for {@link renderer.VarianceBuffer#add(int, int, double)}.
+     */
+    @Test
+    void testAdd() {
+        VarianceBuffer buffer = new VarianceBuffer(3, 2);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: mean and sample variance of a few samples
+        for (double value : new double[] { 2, 4, 4, 4, 5, 5, 7, 9 }) buffer.add(2, 1, value);
+        assertEquals(8, buffer.count(2, 1), "wrong count");
+        assertEquals(5, buffer.mean(2, 1), 1e-6, "wrong mean");
+        assertEquals(32.0 / 7, buffer.variance(2, 1), 1e-5, "wrong variance");
+        assertEquals(1.96 * Math.sqrt(32.0 / 7 / 8), buffer.halfWidth(2, 1), 1e-5, "wrong confidence interval");
+
+        // TC02: large offset - no cancellation
+        for (int k = 0; k < 1000; ++k) buffer.add(0, 0, 1000 + k % 2);
+        assertEquals(0.25, buffer.variance(0, 0), 1e-3, "variance should survive a large mean");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: single sample - unknown variance
+        buffer.add(1, 0, 3);
+        assertEquals(Double.POSITIVE_INFINITY, buffer.variance(1, 0), "one sample should have no variance");
+        // TC11: constant samples
+        buffer.add(1, 0, 3);
+        assertEquals(0, buffer.halfWidth(1, 0), "constant samples should be certain");
+        // TC12: pixel out of the image
+        assertThrows(IllegalArgumentException.class, () -> buffer.add(3, 0, 1), "column out of the image");
+    }
+}
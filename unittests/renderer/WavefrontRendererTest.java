@@ -0,0 +1,92 @@
+package renderer;
+
+import geometries.*;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing WavefrontRenderer class
+ * @author Ido
+ */
+class WavefrontRendererTest {
+    /**
+     * Test method for {@link renderer.WavefrontRenderer#render(FrameBuffer)}.
+     */
+    @Test
+    void testRender() {
+        Scene scene = new Scene("wave").setBackground(new Color(0, 20, 40)).setAmbientLight(new Color(10, 10, 10))
+                .setGeometries(new Geometries(
+                        new Plane(new Point(0, 0, -20), new Vector(0, 0, 1))
+                                .setMaterial(new Material().setKD(0.5).setKR(0.3)),
+                        new Sphere(new Point(-2, 0, -12), 2).setEmission(new Color(0, 0, 50))
+                                .setMaterial(new Material().setKD(0.4).setKS(0.4).setShininess(20).setKT(0.5)),
+                        new Triangle(new Point(1, -3, -10), new Point(4, -3, -10), new Point(2, 3, -14))
+                                .setEmission(new Color(40, 0, 0)).setMaterial(new Material().setKR(0.6))))
+                .setLights(List.of(new PointLight(new Color(300, 300, 300), new Point(0, 8, 0)).setKl(0.05)));
+        SimpleRayTracer tracer = new SimpleRayTracer(scene);
+        Camera camera = Camera.getBuilder().setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVpDistance(10).setVpSize(12, 8).setResolution(24, 16).setRayTracer(tracer).build();
+        Color[][] expected = camera.renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the same image as tracing the pixels one by one (waves of 50 pixels, the last one partial)
+        FrameBuffer buffer = new FrameBuffer(24, 16);
+        new WavefrontRenderer(camera, tracer, 50).render(buffer);
+        for (int i = 0; i < 16; ++i)
+            for (int j = 0; j < 24; ++j) {
+                assertEquals(1, buffer.getWeight(j, i), "every pixel should get one sample");
+                assertEquals(expected[i][j].getRed(), buffer.get(j, i).getRed(), 1e-3, "wrong red at " + j + "," + i);
+                assertEquals(expected[i][j].getGreen(), buffer.get(j, i).getGreen(), 1e-3, "wrong green");
+                assertEquals(expected[i][j].getBlue(), buffer.get(j, i).getBlue(), 1e-3, "wrong blue");
+            }
+
+        // TC02: sorting the secondary rays does not change the image
+        FrameBuffer unsorted = new FrameBuffer(24, 16);
+        new WavefrontRenderer(camera, tracer, 50).setRaySorting(false).render(unsorted);
+        for (int i = 0; i < 16; ++i)
+            for (int j = 0; j < 24; ++j) assertEquals(buffer.get(j, i), unsorted.get(j, i), "sorting changed the image");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: a wave of a single ray - the buffers grow for the secondary rays
+        FrameBuffer single = new FrameBuffer(24, 16);
+        new WavefrontRenderer(camera, tracer, 1).render(single);
+        assertEquals(buffer.get(7, 9), single.get(7, 9), "wave size should not change the image");
+        // TC11: empty wave
+        assertThrows(IllegalArgumentException.class, () -> new WavefrontRenderer(camera, tracer, 0),
+                "wave size 0 should fail");
+    }
+
+    /**
+     * Test method for {@link renderer.WavefrontRenderer#render(FrameBuffer)} with a compact container.
+     */
+    @Test
+    void testRenderCompact() {
+        CompactSpheres spheres = new CompactSpheres(64).setMaterial(new Material().setKD(0.5).setKR(0.3));
+        for (int k = 0; k < 64; ++k) spheres.add(new Point(k % 8 - 3.5, k / 8 - 3.5, -15), 0.45);
+        Scene scene = new Scene("compact").setGeometries(new Geometries(spheres,
+                        new Plane(new Point(0, 0, -20), new Vector(0, 0, 1))))
+                .setLights(List.of(new PointLight(new Color(300, 300, 300), new Point(0, 8, 0))));
+        SimpleRayTracer tracer = new SimpleRayTracer(scene);
+        Camera camera = Camera.getBuilder().setLocation(Point.ZERO).setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVpDistance(10).setVpSize(8, 8).setResolution(32, 32).setRayTracer(tracer).build();
+        Color[][] expected = camera.renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: every compact hit is a new geometry - the queue cache does not keep them after the rounds
+        WavefrontRenderer renderer = new WavefrontRenderer(camera, tracer, 100);
+        FrameBuffer       buffer   = new FrameBuffer(32, 32);
+        for (int r = 0; r < 2; ++r) {
+            renderer.render(buffer);
+            assertEquals(0, renderer.cachedGeometries(), "the queue cache should be cleared every round");
+        }
+        for (int i = 0; i < 32; ++i)
+            for (int j = 0; j < 32; ++j)
+                assertEquals(expected[i][j].getRed(), buffer.get(j, i).getRed(), 1e-3, "wrong red at " + j + "," + i);
+    }
+}
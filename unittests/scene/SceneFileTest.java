@@ -0,0 +1,147 @@
+package scene;
+
+import geometries.*;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import renderer.Camera;
+import renderer.RayTracerBase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing SceneFile class
+ * @author Ido
+ */
+class SceneFileTest {
+    /** Scene of all the geometry types, with a nested aggregate */
+    private final Geometries geometries = new Geometries(
+            new Sphere(new Point(0, 0, -5), 1),
+            new Plane(new Point(0, -3, 0), new Vector(0, 1, 0)),
+            new Triangle(new Point(-1, -1, -8), new Point(1, -1, -8), new Point(0, 1, -8)),
+            new Geometries(new Polygon(new Point(-2, -2, -10), new Point(2, -2, -10),
+                    new Point(2, 2, -10), new Point(-2, 2, -10)),
+                    new Polygon(new Point(-3, -3, -12), new Point(3, -3, -12), new Point(0, 3, -12))),
+            new Tube(new Ray(new Point(4, 0, 0), new Vector(0, 1, 0)), 0.5),
+            new Cylinder(new Ray(new Point(-4, 0, -4), new Vector(0, 0, -1)), 0.5, 2));
+
+    /** Rays through the scene */
+    private final List<Ray> rays = List.of(
+            new Ray(Point.ZERO, new Vector(0, 0, -1)),
+            new Ray(Point.ZERO, new Vector(0.1, 0.1, -1)),
+            new Ray(Point.ZERO, new Vector(0, -1, 0)),
+            new Ray(new Point(0, 0, -5), new Vector(1, 0, 0)),
+            new Ray(new Point(-4, 0, 0), new Vector(0, 0, -1)));
+
+    /**
+     * Creates a temporary file, deleted when the tests JVM exits.
+     * @return the path
+     * @throws IOException if the file cannot be created
+     */
+    private static Path tempFile() throws IOException {
+        Path file = Files.createTempFile("scene", ".rtsc");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    /**
+     * Test method for {@link scene.SceneFile#write(Path, Geometries, Camera)} and
+     * {@link scene.SceneFile#read(Path)}.
+     */
+    @Test
+    void testRoundTrip() throws IOException {
+        Camera camera = Camera.getBuilder().setLocation(new Point(1, 2, 3))
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVpSize(4, 3).setVpDistance(2).setResolution(40, 30).build();
+        Path file = tempFile();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: all the geometry types and the camera come back the same
+        SceneFile.write(file, geometries, camera);
+        SceneFile.Content content = SceneFile.read(file);
+        assertEquals(7, content.geometries().getGeometries().size(), "nested geometries should be flattened");
+        for (Ray ray : rays) {
+            List<Point> expected = geometries.findIntersections(ray);
+            List<Point> actual   = content.geometries().findIntersections(ray);
+            assertEquals(expected == null ? 0 : expected.size(), actual == null ? 0 : actual.size(),
+                    "wrong intersections count for " + ray);
+            if (expected != null) assertTrue(actual.containsAll(expected), "wrong intersections for " + ray);
+        }
+        RayTracerBase tracer = new RayTracerBase(content.geometries()) {
+            @Override
+            public Color traceRay(Ray ray) { return Color.BLACK; }
+        };
+        Camera loaded = content.camera().setRayTracer(tracer).build();
+        assertEquals(camera.getLocation(), loaded.getLocation(), "wrong camera location");
+        assertEquals(camera.getVTo(), loaded.getVTo(), "wrong camera direction");
+        assertEquals(30, loaded.getNY(), "wrong camera resolution");
+        assertEquals(camera.constructRay(40, 30, 7, 5), loaded.constructRay(40, 30, 7, 5), "wrong camera rays");
+
+        // TC02: geometries without a camera
+        SceneFile.write(file, geometries, null);
+        assertNull(SceneFile.read(file).camera(), "file without camera should load no camera");
+
+        // TC03: unsupported geometry type
+        Geometries custom = new Geometries(new Intersectable() {
+            @Override
+            public List<Point> findIntersections(Ray ray) { return null; }
+
+            @Override
+            public List<GeoPoint> findGeoIntersections(Ray ray) { return null; }
+        });
+        assertThrows(IllegalArgumentException.class, () -> SceneFile.write(file, custom, null),
+                "unsupported geometry should not be written");
+
+        // TC04: compact containers are merged into one container of each kind
+        Geometries compact = new Geometries(
+                new CompactSpheres(2).add(new Point(0, 0, -5), 1).add(new Point(0.3, 0.1, -7), 1.5),
+                new Geometries(new CompactSpheres(1).add(new Point(-4, 0, -4), 0.7)),
+                new CompactTriangles(1).add(new Point(-1, -1, -8), new Point(1, -1, -8), new Point(0, 1, -8)));
+        SceneFile.write(file, compact, null);
+        List<Intersectable> merged = SceneFile.read(file).geometries().getGeometries();
+        assertEquals(2, merged.size(), "compact containers should be merged by kind");
+        assertEquals(3, merged.stream().mapToInt(g -> g instanceof CompactSpheres c ? c.size() : 0).sum(),
+                "wrong spheres count");
+        for (Ray ray : rays) {
+            List<Point> expected = compact.findIntersections(ray);
+            List<Point> actual   = new Geometries(merged.toArray(Intersectable[]::new)).findIntersections(ray);
+            assertEquals(expected == null ? 0 : expected.size(), actual == null ? 0 : actual.size(),
+                    "wrong intersections count for " + ray);
+            if (expected != null) assertTrue(actual.containsAll(expected), "wrong intersections for " + ray);
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC10: empty scene
+        SceneFile.write(file, new Geometries(), null);
+        assertTrue(SceneFile.read(file).geometries().getGeometries().isEmpty(), "empty scene should stay empty");
+    }
+
+    /**
+     * Test method for {@link scene.SceneFile#read(Path)} with bad files.
+     */
+    @Test
+    void testReadBadFile() throws IOException {
+        Path file = tempFile();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: not a scene file
+        Files.writeString(file, "not a scene file at all");
+        assertThrows(IOException.class, () -> SceneFile.read(file), "wrong magic should fail");
+
+        // TC02: truncated scene file
+        SceneFile.write(file, geometries, null);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IOException.class, () -> SceneFile.read(file), "truncated file should fail");
+
+        // =============== Boundary Values Tests ==================
+        // TC10: empty file
+        Files.write(file, new byte[0]);
+        assertThrows(IOException.class, () -> SceneFile.read(file), "empty file should fail");
+    }
+}
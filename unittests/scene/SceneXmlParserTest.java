@@ -0,0 +1,152 @@
+package scene;
+
+import geometries.Geometries;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import renderer.Camera;
+import renderer.RayTracerBase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing SceneXmlParser class
+ * @author Ido
+ */
+class SceneXmlParserTest {
+    /** The scene description */
+    private static final String SCENE = """
+            <?xml version="1.0"?>
+            <scene>
+              <camera location="1 2 3" to="0 0 -1" up="0 1 0" vp-size="4 3" vp-distance="2" resolution="40 30"/>
+              <geometries>
+                <sphere center="0 0 -5" radius="1"/>
+                <plane point="0 -3 0" normal="0 1 0"/>
+                <triangle p0="-1 -1 -8" p1="1 -1 -8" p2="0 1 -8"/>
+                <geometries>
+                  <polygon vertices="-2 -2 -10, 2 -2 -10, 2 2 -10, -2 2 -10"/>
+                </geometries>
+                <include file="part.xml"/>
+              </geometries>
+            </scene>
+            """;
+
+    /** The included part */
+    private static final String PART = """
+            <geometries>
+              <tube axis-point="4 0 0" axis-direction="0 1 0" radius="0.5"/>
+              <cylinder axis-point="-4 0 -4" axis-direction="0 0 -1" radius="0.5" height="2"/>
+            </geometries>
+            """;
+
+    /**
+     * Writes a scene description (and the included part) into a temporary directory.
+     * @param  directory the directory
+     * @param  scene     the scene description
+     * @return           the scene file
+     * @throws IOException if writing fails
+     */
+    private static Path write(Path directory, String scene) throws IOException {
+        Files.writeString(directory.resolve("part.xml"), PART);
+        return Files.writeString(directory.resolve("scene.xml"), scene);
+    }
+
+    /**
+     * Deletes a temporary directory.
+     * @param  directory the directory
+     * @throws IOException if deleting fails
+     */
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+        }
+    }
+
+    /**
+     * Test method for {@link scene.SceneXmlParser#parse(Path)}.
+     */
+    @Test
+    void testParse() throws IOException {
+        Path directory = Files.createTempDirectory("scene-xml");
+        try {
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: all the geometry types, a nested group, an included part and the camera
+            SceneXmlParser.Result result = SceneXmlParser.parse(write(directory, SCENE));
+            assertEquals(6, result.count(), "wrong number of geometries");
+            assertTrue(result.bytes() > SCENE.length(), "included part should be counted");
+            assertTrue(result.geometriesPerSecond() > 0, "throughput should be reported");
+            Geometries scene = result.geometries();
+            assertEquals(4, scene.findIntersections(new Ray(Point.ZERO, new Vector(0, 0, -1))).size(),
+                    "sphere, triangle and nested polygon should be hit");
+            assertEquals(2, scene.findIntersections(new Ray(new Point(-4, 0, 0), new Vector(0, 0, -1))).size(),
+                    "included cylinder should be hit");
+            RayTracerBase tracer = new RayTracerBase(scene) {
+                @Override
+                public Color traceRay(Ray ray) { return Color.BLACK; }
+            };
+            Camera camera = result.camera().setRayTracer(tracer).build();
+            assertEquals(new Point(1, 2, 3), camera.getLocation(), "wrong camera location");
+            assertEquals(40, camera.getNX(), "wrong camera resolution");
+
+            // TC02: bad value - reported with its line
+            IOException e = assertThrows(IOException.class, () -> SceneXmlParser.parse(write(directory,
+                    SCENE.replace("radius=\"1\"", "radius=\"-1\""))), "negative radius should fail");
+            assertTrue(e.getMessage().contains("line 5"), "error should have the line: " + e.getMessage());
+
+            // TC03: unknown element
+            assertThrows(IOException.class, () -> SceneXmlParser.parse(write(directory,
+                    SCENE.replace("<sphere", "<cube"))), "unknown element should fail");
+
+            // TC04: malformed XML
+            assertThrows(IOException.class, () -> SceneXmlParser.parse(write(directory,
+                    SCENE.replace("</scene>", ""))), "malformed XML should fail");
+
+            // TC05: bad included part
+            Files.writeString(directory.resolve("scene.xml"), SCENE);
+            Files.writeString(directory.resolve("part.xml"), PART.replace("radius=\"0.5\"", "radius=\"x\""));
+            assertThrows(IOException.class, () -> SceneXmlParser.parse(directory.resolve("scene.xml")),
+                    "bad included part should fail");
+
+            // TC06: included part is added to the group it is included in
+            Files.writeString(directory.resolve("part.xml"), PART);
+            Geometries nested = SceneXmlParser.parse(write(directory, SCENE.replace(
+                    "</geometries>\n    <include file=\"part.xml\"/>", "  <include file=\"part.xml\"/>\n    </geometries>")))
+                    .geometries();
+            assertEquals(4, nested.getGeometries().size(), "included part should not be at the top level");
+            assertEquals(2, ((Geometries) nested.getGeometries().get(3)).getGeometries().size(),
+                    "included part should be in the nested group");
+
+            // TC07: include cycle - reported with the line of the include
+            Files.writeString(directory.resolve("part.xml"), PART.replace("</geometries>",
+                    "  <include file=\"other.xml\"/>\n</geometries>"));
+            Files.writeString(directory.resolve("other.xml"), "<geometries>\n  <include file=\"part.xml\"/>\n</geometries>");
+            e = assertThrows(IOException.class, () -> SceneXmlParser.parse(directory.resolve("scene.xml")),
+                    "include cycle should fail");
+            assertTrue(e.getMessage().contains("line 2") && e.getMessage().contains("cycle"),
+                    "error should have the line: " + e.getMessage());
+
+            // =============== Boundary Values Tests ==================
+            // TC10: wrong numbers count in a point
+            assertThrows(IOException.class, () -> SceneXmlParser.parse(write(directory,
+                    SCENE.replace("center=\"0 0 -5\"", "center=\"0 0\""))), "short point should fail");
+            // TC11: file including itself
+            Files.writeString(directory.resolve("scene.xml"), SCENE);
+            Files.writeString(directory.resolve("part.xml"), "<geometries><include file=\"part.xml\"/></geometries>");
+            e = assertThrows(IOException.class, () -> SceneXmlParser.parse(directory.resolve("scene.xml")),
+                    "file including itself should fail");
+            assertTrue(e.getMessage().contains("cycle"), "error should be the cycle: " + e.getMessage());
+            // TC12: empty scene without camera
+            SceneXmlParser.Result empty = SceneXmlParser.parse(write(directory, "<scene><geometries/></scene>"));
+            assertNull(empty.camera(), "no camera should be parsed");
+            assertEquals(List.of(), empty.geometries().getGeometries(), "no geometries should be parsed");
+        } finally {
+            delete(directory);
+        }
+    }
+}